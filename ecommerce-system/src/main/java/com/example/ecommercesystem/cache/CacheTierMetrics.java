@@ -0,0 +1,109 @@
+package com.example.ecommercesystem.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tier hit/miss counters and lookup latency for a single {@link TwoTierCache}.
+ *
+ * Published through Actuator, e.g.:
+ *   /actuator/metrics/cache.tier.requests?tag=cache:product&tag=tier:l1
+ *   /actuator/metrics/cache.tier.latency?tag=cache:product&tag=tier:l2
+ */
+class CacheTierMetrics {
+
+    static final String L1 = "l1";
+    static final String L2 = "l2";
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Timer l1Latency;
+    private final Timer l2Latency;
+    private final Counter invalidationsReceived;
+    private final Timer loadLatency;
+    private final ConcurrentMap<String, Counter> loads = new ConcurrentHashMap<>();
+    private final String cacheName;
+    private final MeterRegistry registry;
+
+    CacheTierMetrics(String cacheName, MeterRegistry registry) {
+        this.cacheName = cacheName;
+        this.registry = registry;
+        this.l1Hits = requests(registry, cacheName, L1, "hit");
+        this.l1Misses = requests(registry, cacheName, L1, "miss");
+        this.l2Hits = requests(registry, cacheName, L2, "hit");
+        this.l2Misses = requests(registry, cacheName, L2, "miss");
+        this.l1Latency = latency(registry, cacheName, L1);
+        this.l2Latency = latency(registry, cacheName, L2);
+        this.invalidationsReceived = Counter.builder("cache.tier.invalidations")
+                .description("Near-cache invalidations received from other nodes")
+                .tag("cache", cacheName)
+                .register(registry);
+        this.loadLatency = Timer.builder("cache.tier.load.latency")
+                .description("Time spent in the value loader (database) on a miss or early refresh")
+                .tag("cache", cacheName)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    void recordL1(boolean hit, long startNanos) {
+        l1Latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        (hit ? l1Hits : l1Misses).increment();
+    }
+
+    void recordL2(boolean hit, long startNanos) {
+        l2Latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        (hit ? l2Hits : l2Misses).increment();
+    }
+
+    /** One MGET covering hits + misses keys. */
+    void recordL2Batch(int hits, int misses, long startNanos) {
+        l2Latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        l2Hits.increment(hits);
+        l2Misses.increment(misses);
+    }
+
+    void recordInvalidationReceived() {
+        invalidationsReceived.increment();
+    }
+
+    /**
+     * @param type leader (ran the loader), coalesced (joined an in-flight load),
+     *             lease-wait (polled while another node held the lease), early-refresh
+     */
+    void recordLoad(String type) {
+        loads.computeIfAbsent(type, t -> Counter.builder("cache.tier.loads")
+                .description("Cache loads by outcome")
+                .tag("cache", cacheName)
+                .tag("type", t)
+                .register(registry)).increment();
+    }
+
+    void recordLoadLatency(long nanos) {
+        loadLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Counter requests(MeterRegistry registry, String cacheName, String tier, String result) {
+        return Counter.builder("cache.tier.requests")
+                .description("Cache lookups per tier")
+                .tag("cache", cacheName)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Timer latency(MeterRegistry registry, String cacheName, String tier) {
+        return Timer.builder("cache.tier.latency")
+                .description("Cache lookup latency per tier")
+                .tag("cache", cacheName)
+                .tag("tier", tier)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+}
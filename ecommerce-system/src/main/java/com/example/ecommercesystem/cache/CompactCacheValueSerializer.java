@@ -0,0 +1,406 @@
+package com.example.ecommercesystem.cache;
+
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Loan;
+import com.example.ecommercesystem.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Schema-aware binary cache codec for Product, Category and Loan.
+ *
+ * Why?:
+ * GenericJackson2JsonRedisSerializer writes the class name and every field name into each entry.
+ * Here the layout is fixed in code, so an entry carries only a 4-byte header and the field values.
+ *
+ * Frame layout:
+ *   [0] MAGIC  (0xB7 – never the first byte of a JSON document)
+ *   [1] flags  (bit 0 = payload is deflated)
+ *   [2] type   (1 = Product, 2 = Category, 3 = Loan)
+ *   [3] layout version of that type
+ *   [4..] payload
+ *
+ * Versioning rules:
+ * - Never change an existing layout. To add/remove fields, bump the type's *_VERSION, write the
+ *   new layout, and keep a read branch for every older version still present in Redis.
+ * - Enums are stored by ordinal: only append new constants.
+ *
+ * Anything else (id-lists, SimpleKey lists, ...) goes through the JSON delegate. Entries written
+ * before this codec was deployed are JSON as well and are read through the delegate; the ones it
+ * cannot read are treated as cache misses, reloaded and overwritten in the binary layout, so a
+ * rolling upgrade does not require flushing Redis. That includes every JSON Product and Category:
+ * Category.products is a @JsonManagedReference without a @JsonBackReference on Product.category,
+ * so Jackson cannot build a deserializer for either.
+ */
+public class CompactCacheValueSerializer implements RedisSerializer<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactCacheValueSerializer.class);
+
+    private static final byte MAGIC = (byte) 0xB7;
+    private static final byte FLAG_DEFLATED = 0x01;
+    private static final int HEADER_LENGTH = 4;
+
+    private static final byte TYPE_PRODUCT = 1;
+    private static final byte TYPE_CATEGORY = 2;
+    private static final byte TYPE_LOAN = 3;
+
+    private static final byte PRODUCT_VERSION = 1;
+    private static final byte CATEGORY_VERSION = 1;
+    private static final byte LOAN_VERSION = 1;
+
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+
+    /**
+     * @param fallback             serializer for every type without a binary layout
+     * @param compressionThreshold payloads larger than this many bytes are deflated; 0 or less disables compression
+     */
+    public CompactCacheValueSerializer(RedisSerializer<Object> fallback, int compressionThreshold) {
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(buffer);
+            byte type;
+            byte version;
+            if (value instanceof Product) {
+                type = TYPE_PRODUCT;
+                version = PRODUCT_VERSION;
+                writeProduct(out, (Product) value);
+            } else if (value instanceof Category) {
+                type = TYPE_CATEGORY;
+                version = CATEGORY_VERSION;
+                writeCategory(out, (Category) value);
+            } else if (value instanceof Loan) {
+                type = TYPE_LOAN;
+                version = LOAN_VERSION;
+                writeLoan(out, (Loan) value);
+            } else {
+                return fallback.serialize(value);
+            }
+            out.flush();
+            return frame(type, version, buffer.toByteArray());
+        } catch (IOException ex) {
+            throw new SerializationException("Could not write " + value.getClass().getSimpleName(), ex);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return readJson(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Truncated cache frame: " + bytes.length + " bytes");
+        }
+        byte flags = bytes[1];
+        byte type = bytes[2];
+        byte version = bytes[3];
+        try {
+            byte[] payload = (flags & FLAG_DEFLATED) != 0
+                    ? inflate(bytes, HEADER_LENGTH)
+                    : copyPayload(bytes, HEADER_LENGTH);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            switch (type) {
+                case TYPE_PRODUCT:
+                    requireVersion(type, version, PRODUCT_VERSION);
+                    return readProductV1(in);
+                case TYPE_CATEGORY:
+                    requireVersion(type, version, CATEGORY_VERSION);
+                    return readCategoryV1(in);
+                case TYPE_LOAN:
+                    requireVersion(type, version, LOAN_VERSION);
+                    return readLoanV1(in);
+                default:
+                    throw new SerializationException("Unknown cache value type " + type);
+            }
+        } catch (IOException | DataFormatException ex) {
+            throw new SerializationException("Could not read cache value of type " + type, ex);
+        }
+    }
+
+    // null makes RedisCache report a miss: the value is loaded again and the entry overwritten
+    private Object readJson(byte[] bytes) {
+        try {
+            return fallback.deserialize(bytes);
+        } catch (SerializationException ex) {
+            logger.warn("Unreadable JSON cache entry ({} bytes) treated as a miss: {}", bytes.length,
+                    ex.getMostSpecificCause().getMessage());
+            return null;
+        }
+    }
+
+    // ---------------------------------------------------------------- framing
+
+    private byte[] frame(byte type, byte version, byte[] payload) {
+        byte flags = 0;
+        if (compressionThreshold > 0 && payload.length > compressionThreshold) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length < payload.length) {
+                payload = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+        byte[] framed = new byte[HEADER_LENGTH + payload.length];
+        framed[0] = MAGIC;
+        framed[1] = flags;
+        framed[2] = type;
+        framed[3] = version;
+        System.arraycopy(payload, 0, framed, HEADER_LENGTH, payload.length);
+        return framed;
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+            byte[] chunk = new byte[512];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int offset) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] chunk = new byte[512];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated deflate stream");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] copyPayload(byte[] bytes, int offset) {
+        byte[] payload = new byte[bytes.length - offset];
+        System.arraycopy(bytes, offset, payload, 0, payload.length);
+        return payload;
+    }
+
+    private static void requireVersion(byte type, byte actual, byte supported) {
+        if (actual != supported) {
+            throw new SerializationException("Unsupported layout version " + actual + " for cache value type " + type);
+        }
+    }
+
+    // ---------------------------------------------------------------- layouts (v1)
+
+    private static void writeProduct(DataOutputStream out, Product p) throws IOException {
+        writeLong(out, p.getId());
+        writeString(out, p.getName());
+        writeString(out, p.getDescription());
+        out.writeDouble(p.getPrice());
+        writeTimestamp(out, p.getRegisteredTime());
+        writeString(out, p.getInternalSku());
+        writeString(out, p.getContactEmail());
+        out.writeInt(p.getQuantityAvailable());
+        writeDecimal(out, p.getWeight());
+        writeDate(out, p.getLaunchDate());
+        writeDate(out, p.getExpiryDate());
+        out.writeByte(p.getStatus() == null ? -1 : p.getStatus().ordinal());
+        out.writeBoolean(p.getCategory() != null);
+        if (p.getCategory() != null) {
+            writeCategory(out, p.getCategory());
+        }
+    }
+
+    private static Product readProductV1(DataInputStream in) throws IOException {
+        Product p = new Product();
+        p.setId(readLong(in));
+        p.setName(readString(in));
+        p.setDescription(readString(in));
+        p.setPrice(in.readDouble());
+        p.setRegisteredTime(readTimestamp(in));
+        p.setInternalSku(readString(in));
+        p.setContactEmail(readString(in));
+        p.setQuantityAvailable(in.readInt());
+        p.setWeight(readDecimal(in));
+        p.setLaunchDate(readDate(in));
+        p.setExpiryDate(readDate(in));
+        byte status = in.readByte();
+        p.setStatus(status < 0 ? null : Product.AvailabilityStatus.values()[status]);
+        if (in.readBoolean()) {
+            p.setCategory(readCategoryV1(in));
+        }
+        return p;
+    }
+
+    /** The products collection is not cached: it is lazy and would drag the whole category graph along. */
+    private static void writeCategory(DataOutputStream out, Category c) throws IOException {
+        writeLong(out, c.getId());
+        writeString(out, c.getName());
+        writeString(out, c.getDescription());
+    }
+
+    private static Category readCategoryV1(DataInputStream in) throws IOException {
+        Category c = new Category();
+        c.setId(readLong(in));
+        c.setName(readString(in));
+        c.setDescription(readString(in));
+        return c;
+    }
+
+    private static void writeLoan(DataOutputStream out, Loan l) throws IOException {
+        writeLong(out, l.getId());
+        writeString(out, l.getBorrowerName());
+        out.writeDouble(l.getAmount());
+        out.writeDouble(l.getInterestRate());
+        out.writeInt(l.getDuration());
+    }
+
+    private static Loan readLoanV1(DataInputStream in) throws IOException {
+        Loan l = new Loan();
+        l.setId(readLong(in));
+        l.setBorrowerName(readString(in));
+        l.setAmount(in.readDouble());
+        l.setInterestRate(in.readDouble());
+        l.setDuration(in.readInt());
+        return l;
+    }
+
+    // ---------------------------------------------------------------- nullable primitives
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    /** Length-prefixed UTF-8; length -1 encodes null. */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, -1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTimestamp(DataOutputStream out, Timestamp value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getTime());
+            out.writeInt(value.getNanos());
+        }
+    }
+
+    private static Timestamp readTimestamp(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Timestamp value = new Timestamp(in.readLong());
+        value.setNanos(in.readInt());
+        return value;
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt((int) value.toEpochDay());
+        }
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readInt()) : null;
+    }
+
+    /** Scale + unscaled two's-complement bytes; scale Integer.MIN_VALUE encodes null. */
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeInt(Integer.MIN_VALUE);
+            return;
+        }
+        out.writeInt(value.scale());
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        writeVarInt(out, unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        if (scale == Integer.MIN_VALUE) {
+            return null;
+        }
+        byte[] unscaled = new byte[readVarInt(in)];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    /** Zig-zag varint: small lengths (and -1 for null) take a single byte. */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int v = (value << 1) ^ (value >> 31);
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.ecommercesystem.cache;
+
+import com.example.ecommercesystem.dto.ProductIdPage;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-entity list caching for products.
+ *
+ * Instead of caching the whole product table as one value, a listing is cached as:
+ * - an id-list (ProductIdPage) in "productIds" / "productIdPages" / "productIdPagesSorted"
+ * - plus one "product::<id>" entry per product (shared with getProductById)
+ *
+ * Invalidation on write:
+ * - update of an existing product → only its "product::<id>" entry and the pages sorted by
+ *   something other than id (the row may have moved); id-ordered lists are untouched.
+ * - insert of a new product → all id-lists (the new id shifts page boundaries), entity entries untouched.
+ * - delete → same as insert, plus the @CacheEvict of its "product::<id>" entry.
+ */
+@Component
+public class ProductListCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductListCache.class);
+
+    public static final String PRODUCT = "product";
+    public static final String PRODUCT_IDS = "productIds";
+    public static final String PRODUCT_ID_PAGES = "productIdPages";
+    public static final String PRODUCT_ID_PAGES_SORTED = "productIdPagesSorted";
+
+    private static final String ALL_KEY = "all";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    public List<Product> findAll() {
+        Cache idCache = cacheManager.getCache(PRODUCT_IDS);
+        ProductIdPage idPage = idCache.get(ALL_KEY, ProductIdPage.class);
+        if (idPage == null) {
+            logger.info("getting all product ids from db.");
+            List<Long> ids = productRepository.findAllIds();
+            idPage = new ProductIdPage(ids, ids.size());
+            idCache.put(ALL_KEY, idPage);
+        }
+        return hydrate(idPage.getIds());
+    }
+
+    public Page<Product> findPage(Pageable pageable) {
+        Cache idCache = cacheManager.getCache(isIdOrdered(pageable.getSort()) ? PRODUCT_ID_PAGES : PRODUCT_ID_PAGES_SORTED);
+        String key = pageKey(pageable);
+        ProductIdPage idPage = idCache.get(key, ProductIdPage.class);
+        if (idPage == null) {
+            Page<Long> ids = productRepository.findAllIds(pageable);
+            idPage = new ProductIdPage(new ArrayList<>(ids.getContent()), ids.getTotalElements());
+            idCache.put(key, idPage);
+        }
+        return new PageImpl<>(hydrate(idPage.getIds()), pageable, idPage.getTotalElements());
+    }
+
+    /**
+     * Resolves ids through the "product" cache: near-cache first, then one Redis MGET for the rest,
+     * then a single SELECT (category joined) for what is still missing, back-filled in one Redis pipeline.
+     * Input order (and duplicates) are preserved; ids that no longer exist are skipped.
+     */
+    public List<Product> hydrate(List<Long> ids) {
+        Cache productCache = cacheManager.getCache(PRODUCT);
+        Map<Long, Product> found = new HashMap<>();
+        if (productCache instanceof TwoTierCache) {
+            ((TwoTierCache) productCache).getAll(ids)
+                    .forEach((id, product) -> found.put((Long) id, (Product) product));
+        } else {
+            for (Long id : ids) {
+                Product cached = productCache.get(id, Product.class);
+                if (cached != null) {
+                    found.put(id, cached);
+                }
+            }
+        }
+
+        Set<Long> misses = new LinkedHashSet<>(ids);
+        misses.removeAll(found.keySet());
+        if (!misses.isEmpty()) {
+            Map<Long, Product> loaded = new LinkedHashMap<>();
+            for (Product product : productRepository.findAllWithCategoryByIdIn(misses)) {
+                loaded.put(product.getId(), product);
+            }
+            if (productCache instanceof TwoTierCache) {
+                ((TwoTierCache) productCache).putAll(loaded);
+            } else {
+                loaded.forEach(productCache::put);
+            }
+            found.putAll(loaded);
+        }
+
+        List<Product> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = found.get(id);
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Invalidates the id-lists affected by a write. The entity entry itself is refreshed by
+     * the @CachePut on ProductService.saveProduct.
+     */
+    public void onProductSaved(boolean inserted) {
+        if (inserted) {
+            cacheManager.getCache(PRODUCT_IDS).clear();
+            cacheManager.getCache(PRODUCT_ID_PAGES).clear();
+        }
+        cacheManager.getCache(PRODUCT_ID_PAGES_SORTED).clear();
+    }
+
+    /** A delete shifts every page after the removed row, like an insert does. */
+    public void onProductDeleted() {
+        onProductSaved(true);
+    }
+
+    private static boolean isIdOrdered(Sort sort) {
+        return sort.stream().allMatch(order -> "id".equals(order.getProperty()));
+    }
+
+    private static String pageKey(Pageable pageable) {
+        return pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+    }
+}
@@ -0,0 +1,526 @@
+package com.example.ecommercesystem.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link Cache} that reads through an on-heap L1 (Caffeine) before falling back to Redis (L2).
+ *
+ * Read path:  L1 hit → return without any network I/O.
+ *             L1 miss → Redis lookup → populate L1 on hit.
+ * Write path: Redis first (source of truth for the cache), then L1, then broadcast an
+ *             invalidation so other nodes drop their now-stale L1 copy.
+ *
+ * Loading path (get(key, valueLoader), i.e. @Cacheable(sync = true)):
+ * - Single-flight per node: concurrent misses for one key share a single in-flight load.
+ * - Optional Redis lease: across nodes only the lease holder loads, the others wait for its result.
+ * - Probabilistic early refresh (XFetch): hot keys are reloaded shortly before the Redis TTL
+ *   runs out, by one caller, while everyone else keeps getting the current value.
+ *
+ * Batch path (getAll/putAll): L1 per key, then a single MGET for the L1 misses, and a single
+ * pipeline to back-fill Redis. Used for multi-get endpoints and list hydration.
+ *
+ * With a Redis L2 the L1 holds the same serialized bytes as Redis and every hit decodes its own
+ * copy, so no two callers (and no caller and the persistence context that produced a value) ever
+ * share a mutable instance. Only a non-Redis L2 (tests) keeps plain object references.
+ *
+ * Keys are normalised to their String form for L1, which is also what RedisCache does when
+ * it builds the Redis key, so an invalidation message can address the same entry on every node.
+ */
+public class TwoTierCache implements Cache {
+
+    /**
+     * L1 value plus the (estimated) moment the Redis copy expires. Holds either the serialized
+     * value (Redis L2) or the object itself (any other L2); read it through {@link #read(NearEntry)}.
+     */
+    static final class NearEntry {
+        final Object value;
+        final byte[] bytes;
+        final long expiresAtMillis;
+
+        NearEntry(Object value, byte[] bytes, long expiresAtMillis) {
+            this.value = value;
+            this.bytes = bytes;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, NearEntry> nearCache;
+    private final Cache remoteCache;
+    private final TwoTierCacheManager owner;
+    private final CacheTierMetrics metrics;
+    private final TwoTierCacheProperties properties;
+    private final String remoteKeyPrefix;
+    private final long remoteTtlMillis;
+    /** Same as remoteCache when it is a RedisCache, enables the MGET/pipeline batch path. */
+    private final RedisCache redisCache;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /** Exponentially weighted average loader time in ms: the "delta" of XFetch. */
+    private volatile double averageLoadMillis;
+
+    TwoTierCache(String name,
+                 com.github.benmanes.caffeine.cache.Cache<String, NearEntry> nearCache,
+                 Cache remoteCache,
+                 TwoTierCacheManager owner,
+                 CacheTierMetrics metrics,
+                 TwoTierCacheProperties properties) {
+        this.name = name;
+        this.nearCache = nearCache;
+        this.remoteCache = remoteCache;
+        this.owner = owner;
+        this.metrics = metrics;
+        this.properties = properties;
+        if (remoteCache instanceof RedisCache) {
+            this.redisCache = (RedisCache) remoteCache;
+            Duration ttl = redisCache.getCacheConfiguration().getTtl();
+            this.remoteKeyPrefix = redisCache.getCacheConfiguration().getKeyPrefixFor(name);
+            this.remoteTtlMillis = ttl.isZero() || ttl.isNegative() ? 0 : ttl.toMillis();
+        } else {
+            this.redisCache = null;
+            this.remoteKeyPrefix = name + "::";
+            this.remoteTtlMillis = 0;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        NearEntry entry = lookup(key, nearKey(key));
+        return entry != null ? new SimpleValueWrapper(read(entry)) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String nearKey = nearKey(key);
+        NearEntry entry = lookup(key, nearKey);
+        if (entry == null) {
+            return (T) load(key, nearKey, valueLoader, false);
+        }
+        if (!shouldRefreshEarly(entry) || inFlight.containsKey(nearKey)) {
+            return (T) read(entry);
+        }
+        metrics.recordLoad("early-refresh");
+        return (T) load(key, nearKey, valueLoader, true);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        putLocal(nearKey(key), value);
+        owner.publishEvict(name, nearKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+        if (existing == null) {
+            putLocal(nearKey(key), value);
+            owner.publishEvict(name, nearKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        nearCache.invalidate(nearKey(key));
+        owner.publishEvict(name, nearKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        nearCache.invalidateAll();
+        owner.publishClear(name);
+    }
+
+    /**
+     * Multi-get: every key is tried in L1, the rest are fetched from Redis in one MGET round trip.
+     *
+     * @return values of the keys that were found, in key iteration order; misses are absent
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new LinkedHashMap<>();
+        Set<Object> remoteKeys = new LinkedHashSet<>();
+        for (Object key : keys) {
+            if (found.containsKey(key) || remoteKeys.contains(key)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            NearEntry local = nearCache.getIfPresent(nearKey(key));
+            metrics.recordL1(local != null, start);
+            if (local != null) {
+                found.put(key, read(local));
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+        if (redisCache == null) {
+            for (Object key : remoteKeys) {
+                NearEntry entry = lookup(key, nearKey(key));
+                if (entry != null) {
+                    found.put(key, read(entry));
+                }
+            }
+            return found;
+        }
+
+        List<Object> keyList = new ArrayList<>(remoteKeys);
+        List<byte[]> redisKeys = new ArrayList<>(keyList.size());
+        for (Object key : keyList) {
+            redisKeys.add(redisKey(key));
+        }
+        long start = System.nanoTime();
+        List<byte[]> values = owner.multiGet(redisKeys);
+        int hits = 0;
+        long expiresAt = freshExpiry(); // upper bound: no per-key PTTL on the batch path
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] raw = values != null ? values.get(i) : null;
+            if (raw == null) {
+                continue;
+            }
+            Object value = valuePair().read(ByteBuffer.wrap(raw));
+            if (value != null) {
+                hits++;
+                found.put(keyList.get(i), value);
+                nearCache.put(nearKey(keyList.get(i)), new NearEntry(null, raw, expiresAt));
+            }
+        }
+        metrics.recordL2Batch(hits, keyList.size() - hits, start);
+        return found;
+    }
+
+    /**
+     * Back-fills many entries in one pipeline. Meant for values just loaded from the database
+     * after a getAll miss, so no peer invalidation is broadcast (peers had no copy to go stale).
+     */
+    public void putAll(Map<?, ?> entries) {
+        putAll(entries, false);
+    }
+
+    /**
+     * Stores many just-written values in one pipeline, the peer invalidations riding in the same
+     * pipeline: the batch equivalent of {@link #put(Object, Object)}.
+     */
+    public void putAllAndInvalidatePeers(Map<?, ?> entries) {
+        putAll(entries, true);
+    }
+
+    private void putAll(Map<?, ?> entries, boolean invalidatePeers) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (redisCache == null) {
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                remoteCache.put(entry.getKey(), entry.getValue());
+                putLocal(nearKey(entry.getKey()), entry.getValue());
+                if (invalidatePeers) {
+                    owner.publishEvict(name, nearKey(entry.getKey()));
+                }
+            }
+            return;
+        }
+        Map<byte[], byte[]> raw = new LinkedHashMap<>();
+        Map<String, byte[]> near = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            byte[] bytes = entry.getValue() != null ? serialize(entry.getValue()) : null;
+            if (bytes != null) {
+                raw.put(redisKey(entry.getKey()), bytes);
+            }
+            near.put(nearKey(entry.getKey()), bytes);
+        }
+        owner.multiSet(raw, remoteTtlMillis, name,
+                invalidatePeers ? new ArrayList<>(near.keySet()) : Collections.emptyList());
+        long expiresAt = freshExpiry();
+        for (Map.Entry<String, byte[]> entry : near.entrySet()) {
+            if (entry.getValue() != null) {
+                nearCache.put(entry.getKey(), new NearEntry(null, entry.getValue(), expiresAt));
+            } else {
+                nearCache.invalidate(entry.getKey());
+            }
+        }
+    }
+
+    /** Drops a single L1 entry on this node only (invalidation received from a peer). */
+    void evictLocal(String nearKey) {
+        metrics.recordInvalidationReceived();
+        nearCache.invalidate(nearKey);
+    }
+
+    /** Drops every L1 entry on this node only (clear received from a peer). */
+    void clearLocal() {
+        metrics.recordInvalidationReceived();
+        nearCache.invalidateAll();
+    }
+
+    long nearCacheSize() {
+        return nearCache.estimatedSize();
+    }
+
+    // ---------------------------------------------------------------- read
+
+    private NearEntry lookup(Object key, String nearKey) {
+        long start = System.nanoTime();
+        NearEntry local = nearCache.getIfPresent(nearKey);
+        metrics.recordL1(local != null, start);
+        if (local != null) {
+            return local;
+        }
+
+        return lookupRemote(key, nearKey);
+    }
+
+    /**
+     * L2 read that back-fills L1. With a Redis TTL the value and its remaining TTL come from one
+     * GET + PTTL pipeline, so early refresh costs no extra round trip.
+     *
+     * @return an entry holding the caller's own decoded value; it is never the one put into L1
+     */
+    private NearEntry lookupRemote(Object key, String nearKey) {
+        long start = System.nanoTime();
+        Object value;
+        byte[] raw = null;
+        long expiresAt;
+        if (redisCache != null && remoteTtlMillis > 0) {
+            TwoTierCacheManager.RemoteEntry remote = owner.getWithTtl(redisKey(key));
+            raw = remote.value;
+            value = raw != null ? valuePair().read(ByteBuffer.wrap(raw)) : null;
+            if (value instanceof NullValue) {
+                value = null; // a cached null counts as a miss here, as in the RedisCache path below
+            }
+            // -1: no TTL, -2: gone meanwhile; fall back to the configured TTL as an upper bound
+            expiresAt = System.currentTimeMillis() + (remote.ttlMillis >= 0 ? remote.ttlMillis : remoteTtlMillis);
+        } else {
+            ValueWrapper remote = remoteCache.get(key);
+            value = remote != null ? remote.get() : null;
+            expiresAt = freshExpiry();
+        }
+        metrics.recordL2(value != null, start);
+        if (value == null) {
+            return null;
+        }
+        nearCache.put(nearKey, nearEntry(value, raw, expiresAt));
+        return new NearEntry(value, null, expiresAt);
+    }
+
+    /**
+     * XFetch: refresh when now - delta * beta * ln(rand) >= expiry.
+     * ln(rand) is negative, so the gap grows with load time and shrinks towards expiry.
+     */
+    private boolean shouldRefreshEarly(NearEntry entry) {
+        double beta = properties.getEarlyRefresh().getBeta();
+        if (beta <= 0 || entry.expiresAtMillis == Long.MAX_VALUE) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+        double gap = -averageLoadMillis * beta * Math.log(random);
+        return System.currentTimeMillis() + gap >= entry.expiresAtMillis;
+    }
+
+    // ---------------------------------------------------------------- load
+
+    private Object load(Object key, String nearKey, Callable<?> valueLoader, boolean refresh) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(nearKey, mine);
+        if (running != null) {
+            metrics.recordLoad("coalesced");
+            return copy(await(running)); // the leader's caller keeps the loaded instance itself
+        }
+        try {
+            Object value = properties.getLease().isEnabled()
+                    ? loadUnderLease(key, nearKey, valueLoader, refresh)
+                    : loadAndPut(key, nearKey, valueLoader);
+            mine.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            // Errors too: an uncompleted future would block every coalesced caller forever
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(nearKey, mine);
+        }
+    }
+
+    private Object loadUnderLease(Object key, String nearKey, Callable<?> valueLoader, boolean refresh) {
+        TwoTierCacheProperties.Lease lease = properties.getLease();
+        String leaseKey = "lease:" + remoteKeyPrefix + nearKey;
+        String token = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + lease.getTime();
+
+        boolean acquired = owner.tryAcquireLease(leaseKey, token, lease.getTime());
+        if (!acquired && refresh) {
+            NearEntry current = nearCache.getIfPresent(nearKey);
+            if (current != null) {
+                return read(current); // another node is refreshing already
+            }
+        }
+        while (!acquired) {
+            metrics.recordLoad("lease-wait");
+            NearEntry loaded = lookupRemote(key, nearKey);
+            if (loaded != null) {
+                return loaded.value;
+            }
+            if (System.currentTimeMillis() >= deadline || !sleep(lease.getPollInterval())) {
+                break; // holder is slow or died (or we were interrupted): load ourselves rather than fail
+            }
+            acquired = owner.tryAcquireLease(leaseKey, token, lease.getTime());
+        }
+        try {
+            return loadAndPut(key, nearKey, valueLoader);
+        } finally {
+            if (acquired) {
+                owner.releaseLease(leaseKey, token);
+            }
+        }
+    }
+
+    private Object loadAndPut(Object key, String nearKey, Callable<?> valueLoader) {
+        metrics.recordLoad("leader");
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            recordLoadTime(System.nanoTime() - start);
+        }
+        if (value != null) {
+            remoteCache.put(key, value);
+            nearCache.put(nearKey, nearEntry(value, null, freshExpiry()));
+            owner.publishEvict(name, nearKey);
+        }
+        return value;
+    }
+
+    private void recordLoadTime(long nanos) {
+        metrics.recordLoadLatency(nanos);
+        double millis = nanos / 1_000_000.0;
+        double previous = averageLoadMillis;
+        averageLoadMillis = previous == 0 ? millis : previous * 0.8 + millis * 0.2;
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause(); // same exception the leader saw
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    private void putLocal(String nearKey, Object value) {
+        if (value != null) {
+            nearCache.put(nearKey, nearEntry(value, null, freshExpiry()));
+        } else {
+            nearCache.invalidate(nearKey);
+        }
+    }
+
+    /** L1 entry for value, reusing raw when the serialized form is already at hand. */
+    private NearEntry nearEntry(Object value, byte[] raw, long expiresAt) {
+        if (redisCache == null) {
+            return new NearEntry(value, null, expiresAt);
+        }
+        return new NearEntry(null, raw != null ? raw : serialize(value), expiresAt);
+    }
+
+    /** The value of an L1 entry: a freshly decoded instance whenever L1 holds bytes. */
+    private Object read(NearEntry entry) {
+        return entry.bytes != null ? valuePair().read(ByteBuffer.wrap(entry.bytes)) : entry.value;
+    }
+
+    /** A private copy of a value handed out to more than one caller (coalesced loads). */
+    private Object copy(Object value) {
+        return redisCache != null && value != null ? valuePair().read(ByteBuffer.wrap(serialize(value))) : value;
+    }
+
+    private byte[] serialize(Object value) {
+        return ByteUtils.getBytes(valuePair().write(value));
+    }
+
+    private byte[] redisKey(Object key) {
+        return (remoteKeyPrefix + nearKey(key)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private RedisSerializationContext.SerializationPair<Object> valuePair() {
+        return redisCache.getCacheConfiguration().getValueSerializationPair();
+    }
+
+    /** Expiry of a Redis entry written just now. */
+    private long freshExpiry() {
+        return remoteTtlMillis == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + remoteTtlMillis;
+    }
+
+    private static String nearKey(Object key) {
+        return String.valueOf(key);
+    }
+}
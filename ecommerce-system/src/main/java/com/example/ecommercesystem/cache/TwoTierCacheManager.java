@@ -0,0 +1,211 @@
+package com.example.ecommercesystem.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Layered {@link CacheManager}: every cache is a {@link TwoTierCache} with a size- and TTL-bounded
+ * Caffeine L1 on this node and the existing Redis cache as L2.
+ *
+ * Cross-node invalidation:
+ * - Every put/evict/clear publishes "nodeId|op|cacheName|key" on {@link #INVALIDATION_CHANNEL}.
+ * - This manager is also the pub/sub listener; it ignores its own messages and drops the
+ *   matching L1 entries for messages from peers.
+ *
+ * The L1 TTL is the upper bound on staleness if a pub/sub message is ever lost
+ * (Redis pub/sub is fire-and-forget), so keep it short.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "cache:near:invalidate";
+
+    private static final String OP_EVICT = "E";
+    private static final String OP_CLEAR = "C";
+
+    /** Delete the lease only if we still own it (it may have expired and been taken by another node). */
+    private static final RedisScript<Long> RELEASE_LEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final TwoTierCacheProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager,
+                               StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               TwoTierCacheProperties properties) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> createCache(n, remote));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private TwoTierCache createCache(String name, Cache remote) {
+        com.github.benmanes.caffeine.cache.Cache<String, TwoTierCache.NearEntry> near = Caffeine.newBuilder()
+                .maximumSize(properties.getNear().getMaxSize())
+                .expireAfterWrite(properties.getNear().getTimeToLive(), TimeUnit.MILLISECONDS)
+                .build();
+        TwoTierCache cache = new TwoTierCache(name, near, remote, this,
+                new CacheTierMetrics(name, meterRegistry), properties);
+        Gauge.builder("cache.tier.size", cache, TwoTierCache::nearCacheSize)
+                .description("Estimated number of entries in the near-cache")
+                .tag("cache", name)
+                .tag("tier", CacheTierMetrics.L1)
+                .register(meterRegistry);
+        return cache;
+    }
+
+    void publishEvict(String cacheName, String nearKey) {
+        publish(OP_EVICT, cacheName, nearKey);
+    }
+
+    void publishClear(String cacheName) {
+        publish(OP_CLEAR, cacheName, "");
+    }
+
+    /** MGET in one round trip; the result has a null for every missing key. */
+    List<byte[]> multiGet(List<byte[]> redisKeys) {
+        return redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(redisKeys.toArray(new byte[0][])));
+    }
+
+    /** SET (PX ttl) for every entry, sent as one pipeline. */
+    void multiSet(Map<byte[], byte[]> entries, long ttlMillis) {
+        multiSet(entries, ttlMillis, null, Collections.emptyList());
+    }
+
+    /**
+     * SET (PX ttl) for every entry plus a peer invalidation for every near key of cacheName,
+     * all sent as one pipeline.
+     */
+    void multiSet(Map<byte[], byte[]> entries, long ttlMillis, String cacheName, Collection<String> evictedNearKeys) {
+        byte[] channel = INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<byte[], byte[]> entry : entries.entrySet()) {
+                if (ttlMillis > 0) {
+                    connection.stringCommands().pSetEx(entry.getKey(), ttlMillis, entry.getValue());
+                } else {
+                    connection.stringCommands().set(entry.getKey(), entry.getValue());
+                }
+            }
+            for (String nearKey : evictedNearKeys) {
+                connection.publish(channel, message(OP_EVICT, cacheName, nearKey).getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+    }
+
+    /** Raw value of one Redis key plus its remaining TTL in ms (-1: no TTL, -2: missing). */
+    static final class RemoteEntry {
+        final byte[] value;
+        final long ttlMillis;
+
+        RemoteEntry(byte[] value, long ttlMillis) {
+            this.value = value;
+            this.ttlMillis = ttlMillis;
+        }
+    }
+
+    /** GET and PTTL of one key, sent as one pipeline: a single round trip for an L1 miss. */
+    RemoteEntry getWithTtl(byte[] redisKey) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().get(redisKey);
+            connection.keyCommands().pTtl(redisKey);
+            return null;
+        }, RedisSerializer.byteArray());
+        Object ttl = results.get(1);
+        return new RemoteEntry((byte[]) results.get(0), ttl instanceof Long ? (Long) ttl : -2);
+    }
+
+    /** SET leaseKey token NX PX leaseMillis */
+    boolean tryAcquireLease(String leaseKey, String token, long leaseMillis) {
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseMillis, TimeUnit.MILLISECONDS);
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    void releaseLease(String leaseKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_LEASE, Collections.singletonList(leaseKey), token);
+        } catch (RuntimeException ex) {
+            // The lease expires on its own after leaseMillis
+            logger.warn("Failed to release cache load lease {}", leaseKey, ex);
+        }
+    }
+
+    private void publish(String op, String cacheName, String nearKey) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message(op, cacheName, nearKey));
+        } catch (RuntimeException ex) {
+            // Peers fall back to their L1 TTL; the write itself already reached Redis.
+            logger.warn("Failed to publish near-cache invalidation for {}::{}", cacheName, nearKey, ex);
+        }
+    }
+
+    private String message(String op, String cacheName, String nearKey) {
+        return nodeId + "|" + op + "|" + cacheName + "|" + nearKey;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 4);
+        if (parts.length < 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return; // never read on this node, so nothing to invalidate
+        }
+        if (OP_CLEAR.equals(parts[1])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[3]);
+        }
+    }
+}
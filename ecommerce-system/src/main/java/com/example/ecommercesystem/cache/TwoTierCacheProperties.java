@@ -0,0 +1,54 @@
+package com.example.ecommercesystem.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning knobs for the two-tier cache, bound from "app.cache.*" in application.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class TwoTierCacheProperties {
+
+    private final Near near = new Near();
+    private final Codec codec = new Codec();
+    private final Lease lease = new Lease();
+    private final EarlyRefresh earlyRefresh = new EarlyRefresh();
+
+    /** On-heap L1 per node. */
+    @Data
+    public static class Near {
+        private long maxSize = 10000;
+        /** ms; bounds staleness if a pub/sub invalidation is lost */
+        private long timeToLive = 30000;
+    }
+
+    /** Binary value codec. */
+    @Data
+    public static class Codec {
+        /** bytes; larger payloads are deflated, 0 disables compression */
+        private int compressionThreshold = 512;
+    }
+
+    /**
+     * Cross-node single-flight: on a miss, only the node holding a short Redis lease (SET NX PX)
+     * runs the loader; other nodes poll Redis for the result until the lease expires.
+     */
+    @Data
+    public static class Lease {
+        private boolean enabled = false;
+        /** ms; should exceed a normal load, it is also the wait cap for other nodes */
+        private long time = 2000;
+        /** ms between Redis polls while another node holds the lease */
+        private long pollInterval = 20;
+    }
+
+    /**
+     * Probabilistic early refresh (XFetch): a hit reloads ahead of the Redis TTL with probability
+     * rising as expiry approaches, scaled by the observed load time. 0 disables.
+     */
+    @Data
+    public static class EarlyRefresh {
+        private double beta = 1.0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ecommercesystem.config;
+
+/**
+ * How blocking service work (JDBC, Redis, simulated processing) is run, see ServiceExecutors.
+ *
+ * - PLATFORM: fixed pool of pool-size platform threads, extra tasks wait in the queue.
+ *   Throughput of blocking tasks = pool-size / task duration.
+ * - WORK_STEALING: ForkJoinPool with pool-size parallelism. Made for short CPU-bound tasks; a
+ *   task blocked in sleep/JDBC holds its worker, so for I/O it is no faster than PLATFORM.
+ * - VIRTUAL: one virtual thread per task (JDK 21+). A blocked virtual thread releases its carrier,
+ *   so thousands of blocking tasks run at once on a few platform threads.
+ */
+public enum ExecutorMode {
+    PLATFORM, WORK_STEALING, VIRTUAL
+}
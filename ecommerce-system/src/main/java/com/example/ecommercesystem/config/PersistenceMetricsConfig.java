@@ -0,0 +1,55 @@
+package com.example.ecommercesystem.config;
+
+import com.example.ecommercesystem.metrics.RepositoryMetricsInterceptor;
+import com.example.ecommercesystem.metrics.StatementCountingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Persistence instrumentation: a timer around every repository method and a statement
+ * counter on the DataSource (see RepositoryMetricsInterceptor and StatementCountFilter).
+ *
+ * Both are BeanPostProcessors, so they apply to every repository and to whichever
+ * DataSource is in use (the single Boot pool or the replica routing one) without the
+ * repositories or ReplicaRoutingConfig knowing about it. The methods are static so the
+ * post-processors do not force this configuration to be created early.
+ */
+@Configuration
+public class PersistenceMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                                    proxyFactory.addAdvice(new RepositoryMetricsInterceptor(
+                                            information.getRepositoryInterface().getSimpleName(), meterRegistry))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource
+                        && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.ecommercesystem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Product ids moved from IDENTITY (auto-increment) to the "product_seq" sequence.
+ *
+ * On MySQL the sequence is a one-row table that ddl-auto creates starting at 1, so on a database
+ * that already has products the first generated ids would collide with existing rows.
+ * This moves the sequence past MAX(id) once at startup; on later startups it is a no-op.
+ * Runs right after the EntityManagerFactory (and its schema update), before the web server or
+ * the Kafka listeners start, so no insert can draw an id ahead of it.
+ *
+ * Schemas managed by hand (ddl-auto=validate): run db/product-sequence-migration.sql instead.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSequenceInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignProductSequence() {
+        try {
+            int updated = jdbcTemplate.update(
+                    "UPDATE product_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM product) "
+                            + "WHERE next_val <= (SELECT COALESCE(MAX(id), 0) FROM product)");
+            if (updated > 0) {
+                logger.info("Moved product_seq past the existing product ids");
+            }
+        } catch (RuntimeException ex) {
+            // e.g. a database with native sequences: nothing to align, saves still work
+            logger.warn("Could not align product_seq with existing product ids: {}", ex.getMessage());
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.ecommercesystem.config;
 
-import org.springframework.cache.CacheManager;
+import com.example.ecommercesystem.cache.CompactCacheValueSerializer;
+import com.example.ecommercesystem.cache.TwoTierCacheManager;
+import com.example.ecommercesystem.cache.TwoTierCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,12 +13,18 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(TwoTierCacheProperties.class)
 public class RedisConfig {
 
     @Bean
@@ -29,15 +40,42 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Layered cache manager: Caffeine near-cache (L1, per node) in front of Redis (L2).
+     *
+     * The Redis manager below is the same one this config always built; it is now wrapped
+     * instead of exposed directly, so @Cacheable/@CachePut/@CacheEvict keep working unchanged.
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                            StringRedisTemplate stringRedisTemplate,
+                                            MeterRegistry meterRegistry,
+                                            TwoTierCacheProperties properties,
+                                            @Value("${spring.cache.redis.time-to-live:600000}") long redisTtlMillis) {
         StringRedisSerializer keySer = new StringRedisSerializer();
-        GenericJackson2JsonRedisSerializer valSer = new GenericJackson2JsonRedisSerializer(); // <-- preserves type info
+        // Binary layout for Product/Category/Loan, JSON (with type info) for everything else
+        CompactCacheValueSerializer valSer = new CompactCacheValueSerializer(
+                new GenericJackson2JsonRedisSerializer(), properties.getCodec().getCompressionThreshold());
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMillis(redisTtlMillis)) // early refresh (XFetch) works against this TTL
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(keySer))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valSer))
                 .disableCachingNullValues();
-        return RedisCacheManager.builder(connectionFactory).cacheDefaults(config).build();
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory).cacheDefaults(config).build();
+        redisCacheManager.initializeCaches(); // not a bean itself, so run the InitializingBean step by hand
+        return new TwoTierCacheManager(redisCacheManager, stringRedisTemplate, meterRegistry, properties);
+    }
+
+    /**
+     * Subscribes the cache manager to near-cache invalidations published by other nodes.
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           TwoTierCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        return container;
     }
 
 }
@@ -0,0 +1,26 @@
+package com.example.ecommercesystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, bound from "app.datasource.replica.*" in application.properties.
+ * Routing is only switched on when at least one url is configured (see ReplicaRoutingConfig).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    /** JDBC urls, one pool per replica; driver and spring.datasource.hikari.* are shared with the primary */
+    private List<String> urls = new ArrayList<>();
+    /** defaults to spring.datasource.username / password */
+    private String username;
+    private String password;
+    /** ms; a replica further behind the primary than this is skipped until it catches up */
+    private long maxLag = 5000;
+    /** ms between heartbeat writes / lag checks, should be well below max-lag */
+    private long checkInterval = 1000;
+}
@@ -0,0 +1,155 @@
+package com.example.ecommercesystem.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures replica lag with a heartbeat row and tells the ReplicaRoutingDataSource which
+ * replicas may serve reads.
+ *
+ * Why a heartbeat instead of SHOW REPLICA STATUS?:
+ * - Seconds_Behind_Source only has second resolution, needs the REPLICATION CLIENT privilege
+ *   and reads 0 while the replica's SQL thread is idle but its IO thread is behind.
+ * - A timestamp written to the primary and read back from each replica measures what a reader
+ *   actually sees, works on any database (the local H2 setup included) and needs no privileges.
+ *
+ * Every check first compares each replica's heartbeat with the last one written: equal means
+ * caught up (lag 0), older means it is at least now - that heartbeat behind. Then a new
+ * heartbeat is written. A replica whose lag exceeds max-lag, or that cannot be read, is left
+ * out until a later check finds it caught up. If the primary cannot be written, replicas that
+ * have the last heartbeat keep serving reads.
+ *
+ * All nodes share the heartbeat row; clock skew between nodes adds to the measured lag.
+ *
+ * Metrics: datasource.replica.lag{replica} (ms, NaN while unknown) and
+ * datasource.replica.available{replica} (1 or 0).
+ */
+public class ReplicaLagMonitor implements Closeable {
+
+    static final String TABLE = "replica_heartbeat";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final ReplicaRoutingDataSource routing;
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> lagMillis = new LinkedHashMap<>();
+    private final long maxLagMillis;
+    private volatile long lastBeat = -1;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routing, long maxLagMillis, MeterRegistry registry) {
+        this.routing = routing;
+        this.primary = new JdbcTemplate(routing.getPrimary());
+        this.maxLagMillis = maxLagMillis;
+        routing.getReplicas().forEach((name, dataSource) -> {
+            JdbcTemplate replica = new JdbcTemplate(dataSource);
+            replica.setQueryTimeout(5);
+            replicas.put(name, replica);
+            AtomicLong lag = new AtomicLong(-1);
+            lagMillis.put(name, lag);
+            Gauge.builder("datasource.replica.lag", lag, value -> value.get() < 0 ? Double.NaN : value.get())
+                    .description("Replica lag measured with the heartbeat row")
+                    .baseUnit("milliseconds")
+                    .tag("replica", name)
+                    .register(registry);
+            Gauge.builder("datasource.replica.available", routing, r -> r.getAvailable().contains(name) ? 1 : 0)
+                    .description("1 while the replica serves read-only transactions")
+                    .tag("replica", name)
+                    .register(registry);
+        });
+    }
+
+    /** Creates the heartbeat table on the primary (replication copies it) and starts checking. */
+    public void start(long checkIntervalMillis) {
+        createHeartbeatTable();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkSafely, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void createHeartbeatTable() {
+        primary.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (id INT NOT NULL PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+    }
+
+    /** One round: measure every replica against the last heartbeat, publish the result, write the next heartbeat. */
+    public void check() {
+        long now = System.currentTimeMillis();
+        List<String> available = new ArrayList<>(replicas.size());
+        replicas.forEach((name, replica) -> {
+            long lag = measure(name, replica, now);
+            long previous = lagMillis.get(name).getAndSet(lag);
+            boolean ok = lag >= 0 && lag <= maxLagMillis;
+            if (ok) {
+                available.add(name);
+            }
+            if (ok != (previous >= 0 && previous <= maxLagMillis)) {
+                logger.info("Replica {} {} (lag {} ms)", name, ok ? "serves reads again" : "skipped for reads", lag);
+            }
+        });
+        routing.setAvailable(available);
+
+        try {
+            if (primary.update("UPDATE " + TABLE + " SET beat_millis = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO " + TABLE + " (id, beat_millis) VALUES (1, ?)", now);
+            }
+            lastBeat = now;
+        } catch (DataAccessException ex) {
+            logger.warn("Could not write the replica heartbeat: {}", ex.getMessage());
+        }
+    }
+
+    /** @return last measured lag in ms, -1 while unknown (no heartbeat yet or replica unreachable) */
+    public long getLag(String replica) {
+        return lagMillis.get(replica).get();
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private long measure(String name, JdbcTemplate replica, long now) {
+        if (lastBeat < 0) {
+            return -1; // nothing written yet, nothing to compare with
+        }
+        try {
+            List<Long> beats = replica.queryForList("SELECT beat_millis FROM " + TABLE + " WHERE id = 1", Long.class);
+            if (beats.isEmpty()) {
+                return -1;
+            }
+            long beat = beats.get(0);
+            return beat >= lastBeat ? 0 : now - beat;
+        } catch (DataAccessException ex) {
+            logger.debug("Lag check of replica {} failed: {}", name, ex.getMessage());
+            return -1;
+        }
+    }
+
+    private void checkSafely() {
+        try {
+            check();
+        } catch (RuntimeException ex) {
+            logger.warn("Replica lag check failed", ex);
+        }
+    }
+}
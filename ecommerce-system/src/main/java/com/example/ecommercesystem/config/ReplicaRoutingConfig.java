@@ -0,0 +1,94 @@
+package com.example.ecommercesystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primary/replica routing, active once app.datasource.replica.urls is set; without it the
+ * application keeps Spring Boot's single auto-configured pool.
+ *
+ * Builds one Hikari pool for spring.datasource.* ("primary") and one per replica url
+ * ("replica-1", "replica-2", ...), all with the spring.datasource.hikari.* settings and
+ * Micrometer metrics (hikaricp.connections.*{pool=...}). The DataSource everyone injects is a
+ * LazyConnectionDataSourceProxy over the ReplicaRoutingDataSource.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "urls")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaDataSourceProperties replicaProperties,
+                                                             Environment environment,
+                                                             MeterRegistry meterRegistry) {
+        HikariDataSource primary = pool(ReplicaRoutingDataSource.PRIMARY,
+                dataSourceProperties.initializeDataSourceBuilder(), environment, meterRegistry);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<String> urls = replicaProperties.getUrls();
+        for (int i = 0; i < urls.size(); i++) {
+            DataSourceBuilder<?> builder = dataSourceProperties.initializeDataSourceBuilder().url(urls.get(i));
+            if (replicaProperties.getUsername() != null) {
+                builder.username(replicaProperties.getUsername()).password(replicaProperties.getPassword());
+            }
+            String name = "replica-" + (i + 1);
+            replicas.put(name, pool(name, builder, environment, meterRegistry));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, meterRegistry);
+    }
+
+    // The physical connection is chosen at the first statement, after the read-only flag is set
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaDataSourceProperties replicaProperties,
+                                               MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaRoutingDataSource, replicaProperties.getMaxLag(), meterRegistry);
+        monitor.start(replicaProperties.getCheckInterval());
+        return monitor;
+    }
+
+    /**
+     * Spring holds a Hibernate session's connection until the session closes, which with
+     * open-in-view is the end of the request: a write after a read in the same request would
+     * reuse the replica connection. Releasing it after each transaction re-routes every one.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static HikariDataSource pool(String name, DataSourceBuilder<?> builder, Environment environment,
+                                         MeterRegistry meterRegistry) {
+        HikariDataSource pool = builder.type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+}
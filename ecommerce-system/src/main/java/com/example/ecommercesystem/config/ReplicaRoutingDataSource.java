@@ -0,0 +1,158 @@
+package com.example.ecommercesystem.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections of read-only transactions to a replica, everything else to the primary.
+ *
+ * Why?:
+ * - Product and loan listings compete with writes for the primary's connections and buffer pool.
+ *   Read-only service methods (@Transactional(readOnly = true)) can be served by replicas.
+ *   Methods whose results end up in a cache must not be read-only: a replica row cached on a
+ *   miss would outlive the lag window (see ProductServiceImpl).
+ * - The decision uses the transaction's read-only flag, which Spring only sets after the
+ *   transaction has begun. Wrap this in a LazyConnectionDataSourceProxy so the physical
+ *   connection is picked at the first statement, once the flag is known.
+ *
+ * Replicas are used round-robin, but only those the ReplicaLagMonitor currently reports as
+ * caught up; with none available, or if a replica refuses a connection, the read goes to the
+ * primary. Connections outside a transaction always go to the primary.
+ *
+ * Metrics: datasource.routing.connections{target=primary|replica-N} and
+ * datasource.routing.fallbacks (read-only connections that had to use the primary).
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final Map<String, Counter> routed = new HashMap<>();
+    private final Counter fallbacks;
+    private final AtomicInteger next = new AtomicInteger();
+    // Replicas currently within max-lag; replaced as a whole (copy-on-write)
+    private volatile List<String> available = Collections.emptyList();
+
+    /**
+     * @param replicas by name; none are used until {@link #setAvailable} lists them
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, MeterRegistry registry) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+        this.routed.put(PRIMARY, connections(registry, PRIMARY));
+        this.replicas.keySet().forEach(name -> routed.put(name, connections(registry, name)));
+        this.fallbacks = Counter.builder("datasource.routing.fallbacks")
+                .description("Read-only connections served by the primary because no replica was available")
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primaryConnection();
+        }
+        List<String> candidates = available;
+        if (candidates.isEmpty()) {
+            fallbacks.increment();
+            return primaryConnection();
+        }
+        String name = candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+        try {
+            Connection connection = replicas.get(name).getConnection();
+            routed.get(name).increment();
+            return connection;
+        } catch (SQLException ex) {
+            // Skipped until the next lag check finds it healthy again
+            logger.warn("Replica {} refused a connection, reading from the primary: {}", name, ex.getMessage());
+            markUnavailable(name);
+            fallbacks.increment();
+            return primaryConnection();
+        }
+    }
+
+    // Explicit credentials are only known to be valid for the primary
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        routed.get(PRIMARY).increment();
+        return primary.getConnection(username, password);
+    }
+
+    /** Replicas that may serve reads from now on; unknown names are ignored. */
+    public synchronized void setAvailable(Collection<String> names) {
+        List<String> known = new ArrayList<>(names);
+        known.retainAll(replicas.keySet());
+        available = Collections.unmodifiableList(known);
+    }
+
+    public List<String> getAvailable() {
+        return available;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /** Closes the pools of the primary and every replica. */
+    @Override
+    public void close() {
+        for (DataSource target : replicas.values()) {
+            closeQuietly(target);
+        }
+        closeQuietly(primary);
+    }
+
+    private Connection primaryConnection() throws SQLException {
+        Connection connection = primary.getConnection();
+        routed.get(PRIMARY).increment();
+        return connection;
+    }
+
+    private synchronized void markUnavailable(String name) {
+        List<String> remaining = new ArrayList<>(available);
+        if (remaining.remove(name)) {
+            available = Collections.unmodifiableList(remaining);
+        }
+    }
+
+    private static void closeQuietly(DataSource target) {
+        if (target instanceof Closeable) {
+            try {
+                ((Closeable) target).close();
+            } catch (IOException | RuntimeException ex) {
+                logger.warn("Closing pool failed", ex);
+            }
+        }
+    }
+
+    private static Counter connections(MeterRegistry registry, String target) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out, by target database")
+                .tag("target", target)
+                .register(registry);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.ecommercesystem.config;
+
+import com.example.ecommercesystem.metrics.InstrumentedExecutorService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Executor strategy (app.executor.*): the service layer's executor (productServiceExecutor), and
+ * with app.executor.virtual-requests=true virtual request threads as well.
+ */
+@Configuration
+@EnableConfigurationProperties(ServiceExecutorProperties.class)
+public class ServiceExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceExecutorConfig.class);
+
+    // Platform pool, work-stealing pool or virtual threads, per app.executor.mode (see ExecutorMode),
+    // bounded to max-in-flight tasks (default per mode, see ServiceExecutorProperties) and drained on shutdown
+    @Bean(destroyMethod = "drain")
+    public InstrumentedExecutorService productServiceExecutor(ServiceExecutorProperties properties,
+                                                             MeterRegistry meterRegistry) {
+        int maxInFlight = properties.effectiveMaxInFlight();
+        logger.info("Product service executor: {} (pool size {}, at most {} tasks in flight, {} when full)",
+                properties.getMode(), properties.getPoolSize(), maxInFlight, properties.getRejectionPolicy());
+        return new InstrumentedExecutorService("product-service",
+                ServiceExecutors.create(properties.getMode(), properties.getPoolSize(), "product-service-"),
+                maxInFlight, properties.getRejectionPolicy(), properties.getAwaitTermination(), meterRegistry);
+    }
+
+    /**
+     * Spring Boot only creates its applicationTaskExecutor (async MVC requests, @Async) when there
+     * is no other Executor bean (@ConditionalOnMissingBean(Executor.class)); productServiceExecutor
+     * is one, so it is declared here the way Boot would, from spring.task.execution.*.
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Why virtual request threads?:
+     * - Tomcat serves at most server.tomcat.threads.max (200) requests at once, each thread blocked
+     *   on JDBC/Redis most of the time. With a virtual thread per request the limit becomes the
+     *   connection pools, not the thread count. Spring Boot 2.7 has no switch for it
+     *   (spring.threads.virtual.enabled is 3.2+), hence this configuration.
+     *
+     * Below JDK 21 it logs a warning and leaves Tomcat's pool in place.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "app.executor", name = "virtual-requests", havingValue = "true")
+    static class VirtualRequestThreads implements WebMvcConfigurer, DisposableBean {
+
+        private static final Logger logger = LoggerFactory.getLogger(VirtualRequestThreads.class);
+
+        private final ExecutorService executor;
+
+        VirtualRequestThreads() {
+            if (ServiceExecutors.virtualThreadsSupported()) {
+                executor = ServiceExecutors.newVirtualThreadPerTaskExecutor();
+            } else {
+                logger.warn("app.executor.virtual-requests needs JDK 21+, running on {}: keeping Tomcat's thread pool",
+                        System.getProperty("java.version"));
+                executor = null;
+            }
+        }
+
+        // Each request on its own virtual thread instead of Tomcat's worker pool
+        @Bean
+        public TomcatProtocolHandlerCustomizer<?> virtualThreadRequests() {
+            return protocolHandler -> {
+                if (executor != null) {
+                    protocolHandler.setExecutor(executor);
+                }
+            };
+        }
+
+        // Async requests (StreamingResponseBody exports and streams) as well
+        @Override
+        public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+            if (executor != null) {
+                configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+            }
+        }
+
+        @Override
+        public void destroy() {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+}
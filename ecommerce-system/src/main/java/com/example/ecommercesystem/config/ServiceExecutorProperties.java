@@ -0,0 +1,45 @@
+package com.example.ecommercesystem.config;
+
+import com.example.ecommercesystem.metrics.InstrumentedExecutorService.RejectionPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Service-layer executor, bound from "app.executor.*" in application.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.executor")
+public class ServiceExecutorProperties {
+
+    /** Default cap on tasks in flight with virtual threads: there is no pool, only the connection pools limit them */
+    public static final int VIRTUAL_MAX_IN_FLIGHT = 10_000;
+
+    /** platform, work-stealing or virtual (falls back to platform below JDK 21) */
+    private ExecutorMode mode = ExecutorMode.PLATFORM;
+    /** threads of the platform pool / parallelism of the work-stealing pool; unused for virtual */
+    private int poolSize = 10;
+    /** tasks that may wait for a thread (platform / work-stealing) */
+    private int queueCapacity = 1000;
+    /**
+     * tasks queued or running before rejection-policy applies; 0 = per mode: pool-size + queue-capacity
+     * for platform and work-stealing, {@link #VIRTUAL_MAX_IN_FLIGHT} for virtual threads
+     */
+    private int maxInFlight = 0;
+    /** abort (RejectedExecutionException, 503) or caller-runs once max-in-flight tasks are in flight */
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+    /** ms to wait for queued and running tasks on shutdown before interrupting them */
+    private long awaitTermination = 30000;
+    /** run Tomcat requests and async (streaming) responses on virtual threads, JDK 21+ */
+    private boolean virtualRequests = false;
+
+    /** max-in-flight, or the default of the mode actually used (virtual falls back to platform below JDK 21) */
+    public int effectiveMaxInFlight() {
+        if (maxInFlight > 0) {
+            return maxInFlight;
+        }
+        if (mode == ExecutorMode.VIRTUAL && ServiceExecutors.virtualThreadsSupported()) {
+            return VIRTUAL_MAX_IN_FLIGHT;
+        }
+        return poolSize + queueCapacity;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ecommercesystem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executor for an ExecutorMode.
+ *
+ * The project compiles for Java 8 (java.version), where Executors.newVirtualThreadPerTaskExecutor
+ * does not exist, so it is looked up by reflection: the same jar uses virtual threads when started
+ * on JDK 21+ and falls back to a platform pool (with a warning) on older runtimes.
+ */
+public final class ServiceExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceExecutors.class);
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadFactoryMethod();
+
+    private ServiceExecutors() {
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @param poolSize         platform threads / work-stealing parallelism, ignored for VIRTUAL
+     * @param threadNamePrefix name prefix of platform threads ("service-" → service-1, service-2, ...)
+     */
+    public static ExecutorService create(ExecutorMode mode, int poolSize, String threadNamePrefix) {
+        switch (mode) {
+            case VIRTUAL:
+                if (virtualThreadsSupported()) {
+                    return newVirtualThreadPerTaskExecutor();
+                }
+                logger.warn("Virtual threads need JDK 21+, running on {}: using a platform pool of {} threads",
+                        System.getProperty("java.version"), poolSize);
+                return platform(poolSize, threadNamePrefix);
+            case WORK_STEALING:
+                return Executors.newWorkStealingPool(poolSize);
+            case PLATFORM:
+            default:
+                return platform(poolSize, threadNamePrefix);
+        }
+    }
+
+    /** @throws UnsupportedOperationException below JDK 21 */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!virtualThreadsSupported()) {
+            throw new UnsupportedOperationException("Virtual threads need JDK 21+, running on "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalStateException("Could not create a virtual thread executor", ex);
+        }
+    }
+
+    private static ExecutorService platform(int poolSize, String threadNamePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize,
+                runnable -> new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet()));
+    }
+
+    private static Method findVirtualThreadFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.ecommercesystem.controller;
+
+import com.example.ecommercesystem.dto.CategoryStats;
+import com.example.ecommercesystem.service.CategoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/categories")
+public class CategoryController {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    // e.g. /api/categories/stats?minProducts=10 → categories with more than 10 products
+    @GetMapping("/stats")
+    public List<CategoryStats> getCategoryStats(@RequestParam(defaultValue = "0") long minProducts) {
+        return categoryService.getCategoryStats(minProducts);
+    }
+}
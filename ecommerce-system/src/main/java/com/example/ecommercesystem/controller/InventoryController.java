@@ -0,0 +1,46 @@
+package com.example.ecommercesystem.controller;
+
+import com.example.ecommercesystem.dto.InventoryLevel;
+import com.example.ecommercesystem.dto.InventoryReservation;
+import com.example.ecommercesystem.service.InventoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/inventory")
+public class InventoryController {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @GetMapping("/{productId}")
+    public InventoryLevel getLevel(@PathVariable Long productId) {
+        return inventoryService.getLevel(productId);
+    }
+
+    // 201 with the reservation, 409 when not enough units are free
+    @PostMapping("/{productId}/reservations")
+    public ResponseEntity<InventoryReservation> reserve(@PathVariable Long productId,
+                                                       @RequestParam(defaultValue = "1") int quantity) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(inventoryService.reserve(productId, quantity));
+    }
+
+    // 404 once the reservation was released or has expired
+    @PostMapping("/reservations/{reservationId}/commit")
+    public InventoryReservation commit(@PathVariable String reservationId) {
+        return inventoryService.commit(reservationId);
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    public void release(@PathVariable String reservationId) {
+        inventoryService.release(reservationId);
+    }
+
+    // 400 unless 1 <= quantity <= 1000 and the stock stays at most 1000
+    @PostMapping("/{productId}/restock")
+    public InventoryLevel restock(@PathVariable Long productId, @RequestParam int quantity) {
+        return inventoryService.restock(productId, quantity);
+    }
+}
@@ -1,19 +1,39 @@
 package com.example.ecommercesystem.controller;
 
+import com.example.ecommercesystem.dto.FacetPage;
 import com.example.ecommercesystem.dto.KafkaMessage;
+import com.example.ecommercesystem.dto.KeysetPage;
 import com.example.ecommercesystem.dto.ProcessResponse;
+import com.example.ecommercesystem.dto.ProductFilter;
+import com.example.ecommercesystem.dto.ProductImportReport;
+import com.example.ecommercesystem.dto.ProductJob;
+import com.example.ecommercesystem.dto.ProductProcessingReport;
+import com.example.ecommercesystem.dto.ProductSuggestion;
+import com.example.ecommercesystem.dto.ProductSummary;
+import com.example.ecommercesystem.exception.InvalidRequestException;
 import com.example.ecommercesystem.kafka.TestProducer;
 import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.search.ProductFacetIndex;
+import com.example.ecommercesystem.service.ProductExportFormat;
+import com.example.ecommercesystem.service.ProductJobService;
 import com.example.ecommercesystem.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 @RestController
@@ -25,17 +45,54 @@ public class ProductController {
     @Autowired
     private TestProducer testProducer;
 
+    @Autowired
+    private ProductJobService productJobService;
+
     @GetMapping
     public List<Product> getAllProducts() {
         return productService.getAllProducts();
     }
 
+    // Summary view (?view=summary on the list, page and search endpoints): flat ProductSummary rows
+    // from one SQL statement, no Category entities or EAGER follow-up selects
+    @GetMapping(params = "view=summary")
+    public List<ProductSummary> getAllProductSummaries() {
+        return productService.getProductSummaries();
+    }
+
 
     @GetMapping("/pagelist")
     public Page<Product> list(@PageableDefault(size = 12, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
         return productService.getAllProducts(pageable);
     }
 
+    @GetMapping(value = "/pagelist", params = {"view=summary", "mode!=keyset"})
+    public Page<ProductSummary> listSummaries(@PageableDefault(size = 12, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
+        return productService.getProductSummaries(pageable);
+    }
+
+    // Keyset mode: /pagelist?mode=keyset&size=12&sort=price,desc then &cursor=<nextCursor> for the next page.
+    // "page" is ignored; the count query only runs with withTotal=true.
+    @GetMapping(value = "/pagelist", params = "mode=keyset")
+    public KeysetPage<Product> keysetList(@PageableDefault(size = 12, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "false") boolean withTotal) {
+        Sort.Order order = pageable.getSort().iterator().next();
+        return productService.getProductsKeyset(order, pageable.getPageSize(), cursor, withTotal);
+    }
+
+    // Filter: any of name (prefix), description (substring), minPrice, maxPrice, status, categoryId,
+    // launchedFrom, launchedTo, expiresFrom, expiresTo (yyyy-MM-dd), e.g.
+    // /filter?categoryId=3&minPrice=100&maxPrice=500&sort=price,asc&size=20, then &cursor=<nextCursor>
+    @GetMapping("/filter")
+    public KeysetPage<Product> filter(ProductFilter filter,
+                                      @PageableDefault(size = 12, sort = "id", direction = Sort.Direction.ASC) Pageable pageable,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "false") boolean withTotal) {
+        Sort.Order order = pageable.getSort().iterator().next();
+        return productService.filterProducts(filter, order, pageable.getPageSize(), cursor, withTotal);
+    }
+
 
     @PostMapping
     // @NotBlank (and all the other Bean Validation annotations like @Size, @Email, etc.) only declare the rule.
@@ -44,23 +101,142 @@ public class ProductController {
         return productService.saveProduct(product);
     }
 
+    // Update of an existing product (id in the body), queued for the next group commit (see ProductWriteBehind).
+    // The response is sent once that commit is durable.
+    @PostMapping(params = "mode=write-behind")
+    public CompletableFuture<Product> updateProductWriteBehind(@Valid @RequestBody Product product) {
+        return productService.saveProductWriteBehind(product);
+    }
+
+    // Full catalog export, written to the response while rows are read: /export?format=ndjson|csv
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        ProductExportFormat exportFormat = ProductExportFormat.from(format);
+        StreamingResponseBody body = out -> productService.exportProducts(out, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + exportFormat.getExtension())
+                .body(body);
+    }
+
+    // Bulk import in the same formats: POST /import?format=ndjson|csv with the file as the raw body
+    @PostMapping("/import")
+    public ProductImportReport importProducts(@RequestParam(defaultValue = "ndjson") String format, InputStream body) {
+        return productService.importProducts(body, ProductExportFormat.from(format));
+    }
+
     @GetMapping("/search")
     public List<Product> searchProduct(@RequestParam String name, @RequestParam(required = false) String description) {
         return productService.getProductsByNameAndDescription(name, description);
     }
 
+    @GetMapping(value = "/search", params = {"view=summary", "mode!=index"})
+    public List<ProductSummary> searchProductSummaries(@RequestParam String name, @RequestParam(required = false) String description) {
+        return productService.searchProductSummaries(name, description);
+    }
+
+    // Index mode: /search?mode=index&q=gaming lap&limit=20 → ranked matches, no table scan
+    @GetMapping(value = "/search", params = "mode=index")
+    public List<Product> searchIndexed(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return productService.searchProducts(q, limit);
+    }
+
+    // Search-box suggestions, one call per keystroke: /autocomplete?prefix=lap&limit=10
+    @GetMapping("/autocomplete")
+    public List<ProductSuggestion> autocomplete(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return productService.suggestProducts(prefix, limit);
+    }
+
+    // e.g. /facets?category=3,5&status=IN_STOCK&price=100-500&launchYear=2023&page=0&size=20
+    // Values within a facet are OR-ed, facets are AND-ed; counts come back for every facet
+    @GetMapping("/facets")
+    public FacetPage facets(@RequestParam(required = false) List<String> category,
+                            @RequestParam(required = false) List<String> status,
+                            @RequestParam(required = false) List<String> price,
+                            @RequestParam(required = false) List<String> launchYear,
+                            @RequestParam(defaultValue = "0") int page,
+                            @RequestParam(defaultValue = "20") int size) {
+        Map<String, List<String>> filters = new HashMap<>();
+        filters.put(ProductFacetIndex.CATEGORY, category);
+        filters.put(ProductFacetIndex.STATUS, status);
+        filters.put(ProductFacetIndex.PRICE, price);
+        filters.put(ProductFacetIndex.LAUNCH_YEAR, launchYear);
+        return productService.getProductFacets(filters, page, size);
+    }
+
+    // e.g. /price-range?min=100&max=500&sort=desc&page=0&size=20 (sort=desc, page 0 = the 20 most expensive)
+    @GetMapping("/price-range")
+    public Page<Product> priceRange(@RequestParam(defaultValue = "0") double min,
+                                   @RequestParam(required = false) Double max,
+                                   @RequestParam(defaultValue = "asc") String sort,
+                                   @RequestParam(defaultValue = "0") int page,
+                                   @RequestParam(defaultValue = "20") int size) {
+        boolean descending = "desc".equalsIgnoreCase(sort);
+        if (!descending && !"asc".equalsIgnoreCase(sort)) {
+            throw new InvalidRequestException("sort must be asc or desc, got " + sort);
+        }
+        return productService.getProductsByPriceRange(min, max != null ? max : Double.MAX_VALUE, descending, page, size);
+    }
+
     @GetMapping("/{id}")
     public Product getProductById(@PathVariable Long id) {
         return productService.getProductById(id);
     }
 
-    // New endpoint to process products concurrently
+    @DeleteMapping("/{id}")
+    public void deleteProduct(@PathVariable Long id) {
+        productService.deleteProduct(id);
+    }
+
+    // e.g. /api/products/batch?ids=3,1,2 → products in the same order, unknown ids skipped
+    @GetMapping("/batch")
+    public List<Product> getProductsByIds(@RequestParam List<Long> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    // New endpoint to process products concurrently; progress (chunks acknowledged, checkpoint) at GET /process
     @PostMapping("/process")
     public String processProducts() {
         productService.processProductsConcurrently();
         return "Products are being processed";
     }
 
+    @GetMapping("/process")
+    public ResponseEntity<ProductProcessingReport> processingStatus() {
+        ProductProcessingReport report = productService.getProcessingStatus();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+
+    // Processing as a background job: 202 with the job id, then poll /jobs/{id}, page /jobs/{id}/results,
+    // DELETE /jobs/{id} to cancel. 503 when too many jobs are queued.
+    @PostMapping("/jobs")
+    public ResponseEntity<ProductJob> submitJob() {
+        ProductJob job = productService.submitProcessingJob();
+        return ResponseEntity.accepted().location(URI.create("/api/products/jobs/" + job.getId())).body(job);
+    }
+
+    @GetMapping("/jobs")
+    public List<ProductJob> getJobs() {
+        return productJobService.getJobs();
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ProductJob getJob(@PathVariable String jobId) {
+        return productJobService.getJob(jobId);
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    public ProductJob cancelJob(@PathVariable String jobId) {
+        return productJobService.cancel(jobId);
+    }
+
+    @GetMapping("/jobs/{jobId}/results")
+    public Page<String> getJobResults(@PathVariable String jobId,
+                                      @RequestParam(defaultValue = "0") int page,
+                                      @RequestParam(defaultValue = "100") int size) {
+        return productJobService.getResults(jobId, page, size);
+    }
+
     @PostMapping("/send-test-message")
     public String sendTestMessage(@RequestBody KafkaMessage kafkaMessage) {
         testProducer.sendMessage(kafkaMessage.getMessage());
@@ -79,4 +255,12 @@ public class ProductController {
         return new ProcessResponse("completable future results", details);
     }
 
+    // Streaming variant: ?mode=stream writes one NDJSON line per product as its future completes,
+    // &ordered=true keeps catalog order. Runs as an async request, so no servlet thread waits on it.
+    @PostMapping(value = "/process-async-with-cf", params = "mode=stream")
+    public ResponseEntity<StreamingResponseBody> streamProductsAsyncWithCF(@RequestParam(defaultValue = "false") boolean ordered) {
+        StreamingResponseBody body = out -> productService.streamProductsWithCF(out, ordered);
+        return ResponseEntity.ok().contentType(ProductExportFormat.NDJSON.getMediaType()).body(body);
+    }
+
 }
@@ -0,0 +1,22 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Product counts of one category, read from the in-memory counter mirror.
+ * byStatus is keyed by AvailabilityStatus name, "NONE" for products without a status.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryStats {
+
+    private Long categoryId;
+    private String categoryName;
+    private long totalProducts;
+    private Map<String, Long> byStatus;
+}
@@ -0,0 +1,27 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of product ids matching a facet filter, plus the counts for every facet value.
+ *
+ * facets: facet name → (value → matching products), most frequent value first. The counts for a
+ * facet apply the filters of all the other facets but not its own, so a shopper sees how many
+ * results each alternative value would give.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetPage {
+
+    private List<Long> ids;
+    private long totalElements;
+    private int page;
+    private int size;
+    private Map<String, Map<String, Integer>> facets;
+}
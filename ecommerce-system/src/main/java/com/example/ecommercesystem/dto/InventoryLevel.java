@@ -0,0 +1,22 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock of one product as seen by this node.
+ * available: product.quantity_available as last read by this node's reserve/restock (or loaded).
+ * reserved: units held by this node's open reservations.
+ * pendingWriteBack: released or expired units not yet given back to product.quantity_available.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryLevel {
+
+    private Long productId;
+    private int available;
+    private long reserved;
+    private int pendingWriteBack;
+}
@@ -0,0 +1,22 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Units of one product held for a buyer until expiresAt.
+ * Commit turns them into a sale, release (or expiry) puts them back on sale.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReservation {
+
+    private String id;
+    private Long productId;
+    private int quantity;
+    private Instant expiresAt;
+}
@@ -0,0 +1,24 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (seek) listing.
+ *
+ * - nextCursor: opaque token for the following page, null on the last page
+ * - totalElements: only filled when the caller asked for it (it costs a count(*))
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+}
@@ -0,0 +1,25 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * An HTTP request that prepared more JDBC statements than the N+1 threshold.
+ * repositoryCalls counts the repository methods it invoked ("CategoryRepository.findById" → 48),
+ * most frequent first: usually the method called once per row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NPlusOneSuspect {
+
+    private Instant time;
+    private String method;
+    private String uri;
+    private int statements;
+    private Map<String, Integer> repositoryCalls;
+}
@@ -0,0 +1,40 @@
+package com.example.ecommercesystem.dto;
+
+import com.example.ecommercesystem.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria of the product filter endpoint, bound from query parameters. Every field is optional;
+ * only the ones supplied become predicates (see ProductSpecifications).
+ *
+ * - name: prefix match ("lap" matches "Laptop 15"), can use idx_product_name_id. Case-insensitive
+ *   through the column collation (MySQL's default utf8mb4 collations are _ci), not LOWER(name),
+ *   which would stop the index from being used
+ * - description: substring match, case-insensitive the same way, cannot use an index: combine
+ *   with a selective criterion
+ * - minPrice / maxPrice, launchedFrom / launchedTo, expiresFrom / expiresTo: inclusive bounds
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+    private String name;
+    private String description;
+    private Double minPrice;
+    private Double maxPrice;
+    private Product.AvailabilityStatus status;
+    private Long categoryId;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate launchedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate launchedTo;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiresFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiresTo;
+}
@@ -0,0 +1,26 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Lightweight cached value for a product listing: just the ordered ids plus the total row count.
+ * The products themselves are hydrated from the per-entity "product" cache.
+ *
+ * Kept as a typed wrapper (not a bare List<Long>) so the JSON serializer restores Long ids
+ * instead of Integers.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductIdPage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Long> ids;
+    private long totalElements;
+}
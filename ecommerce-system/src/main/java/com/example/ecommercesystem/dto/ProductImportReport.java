@@ -0,0 +1,31 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import: totals plus one entry per committed chunk.
+ */
+@Data
+public class ProductImportReport {
+    private int chunkSize;
+    private long accepted;
+    private long rejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<ChunkResult> chunks = new ArrayList<>();
+
+    @Data
+    public static class ChunkResult {
+        private int chunk;
+        /** 1-based number of the first data row in this chunk */
+        private long firstRow;
+        private int accepted;
+        private int rejected;
+        private long elapsedMillis;
+        /** First few validation/parse errors, "row N: message" */
+        private List<String> errors = new ArrayList<>();
+    }
+}
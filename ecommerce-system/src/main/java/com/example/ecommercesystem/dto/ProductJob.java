@@ -0,0 +1,34 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Status of a background product processing job (see ProductJobService).
+ *
+ * - total: products in the catalog when the job started (0 while QUEUED)
+ * - processed / failed: products done so far; results: result rows available for paging
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private String id;
+    private Status status;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long total;
+    private long processed;
+    private long failed;
+    private long results;
+    private String error;
+}
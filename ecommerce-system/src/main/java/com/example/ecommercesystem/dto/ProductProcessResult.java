@@ -0,0 +1,20 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the streaming CompletableFuture endpoint: sequence is the product's position in
+ * catalog (id) order, so a client of the unordered stream can still restore the order.
+ * Exactly one of details / error is set.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductProcessResult {
+    private long sequence;
+    private Long productId;
+    private String details;
+    private String error;
+}
@@ -0,0 +1,32 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Progress of a product processing run (see ProductProcessingPipeline).
+ *
+ * - total: products in the catalog when the run started
+ * - checkpointId: every product with an id up to this one has been processed (its chunk and all
+ *   chunks before it are acknowledged); null until the first chunk is. A rerun could resume after it.
+ * - error: why the reader stopped early, null if it read the whole catalog
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductProcessingReport {
+    private boolean running;
+    private boolean cancelled;
+    private Instant startedAt;
+    private long elapsedMillis;
+    private long total;
+    private long itemsRead;
+    private long itemsProcessed;
+    private long itemsFailed;
+    private long chunksAcknowledged;
+    private Long checkpointId;
+    private String error;
+}
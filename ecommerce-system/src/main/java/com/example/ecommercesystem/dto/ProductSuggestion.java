@@ -0,0 +1,18 @@
+package com.example.ecommercesystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One autocomplete entry: just enough to render the suggestion and link to the product.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestion {
+
+    private Long id;
+    private String name;
+    private int quantityAvailable;
+}
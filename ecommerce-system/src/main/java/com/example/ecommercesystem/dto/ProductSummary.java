@@ -0,0 +1,34 @@
+package com.example.ecommercesystem.dto;
+
+import com.example.ecommercesystem.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Read model for product listings: the columns a list/search screen shows, plus the category
+ * id and name flattened in.
+ *
+ * Why not return Product?:
+ * - Product.category is EAGER, so a list of N entities costs 1 query + 1 per distinct category,
+ *   and serializing Category can pull in its whole products collection.
+ * - Built with a JPQL constructor expression over an explicit join (see ProductRepository),
+ *   a listing is exactly one SELECT of these columns, no entities, no persistence-context cost.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String name;
+    private double price;
+    private int quantityAvailable;
+    private Product.AvailabilityStatus status;
+    private Long categoryId;
+    private String categoryName;
+}
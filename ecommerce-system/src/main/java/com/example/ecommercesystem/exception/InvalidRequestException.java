@@ -0,0 +1,14 @@
+package com.example.ecommercesystem.exception;
+
+/**
+ * A request parameter or body the API rejects (out-of-range limit, malformed cursor, empty
+ * range, ...): mapped to 400 by GlobalExceptionHandler.
+ *
+ * A dedicated type rather than IllegalArgumentException, so a bug that throws one elsewhere in
+ * the application still surfaces as a 500 instead of being blamed on the client.
+ */
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
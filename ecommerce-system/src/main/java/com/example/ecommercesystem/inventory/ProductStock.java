@@ -0,0 +1,24 @@
+package com.example.ecommercesystem.inventory;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What this node last saw of one product's stock. Read side only: whether units can be taken is
+ * decided by the guarded UPDATE on product.quantity_available, never by these numbers.
+ *
+ * - available: product.quantity_available as read right after this node's last reserve or
+ *   restock; other nodes' reservations and flushed give-backs are not in it until the next one.
+ * - reserved: units held by this node's open reservations (a striped counter, no CAS retries).
+ */
+final class ProductStock {
+
+    static final int UNKNOWN = -1;
+
+    volatile int available;
+
+    final LongAdder reserved = new LongAdder();
+
+    ProductStock(int available) {
+        this.available = available;
+    }
+}
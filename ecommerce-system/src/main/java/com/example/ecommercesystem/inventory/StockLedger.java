@@ -0,0 +1,156 @@
+package com.example.ecommercesystem.inventory;
+
+import com.example.ecommercesystem.dto.InventoryLevel;
+import com.example.ecommercesystem.dto.InventoryReservation;
+import com.example.ecommercesystem.exception.ResourceNotFoundException;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Per-node bookkeeping for reservations whose units the database already took: open reservations
+ * with their expiry, the units still to be given back to product.quantity_available, and a
+ * read-side view of each product's stock ({@link ProductStock}).
+ *
+ * - reserve: records a reservation; call it only after the guarded UPDATE took the units
+ * - commit: the units are sold; nothing to write, they already left quantity_available
+ * - release / expire: +quantity is queued as a give-back for the caller to write
+ * - seen: the quantity_available the caller just read, for {@link #level(Long)}
+ *
+ * Each reservation is removed from the map exactly once (commit, release and expiry all go
+ * through ConcurrentMap.remove), so a reservation can never be both sold and given back.
+ *
+ * No I/O here: stock not seen yet comes from the loader, give-backs are drained by the caller.
+ * Losing the ledger (a crash) loses open reservations and queued give-backs: those units stay out
+ * of quantity_available until a restock, they are never sold twice.
+ */
+public class StockLedger {
+
+    private final Function<Long, Integer> loader;
+    private final ConcurrentMap<Long, ProductStock> stocks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, InventoryReservation> reservations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Integer> writeBack = new ConcurrentHashMap<>();
+
+    /** @param loader quantity_available of a product (null if the product does not exist) */
+    public StockLedger(Function<Long, Integer> loader) {
+        this.loader = loader;
+    }
+
+    public InventoryReservation reserve(Long productId, int quantity, long ttlMillis) {
+        stock(productId).reserved.add(quantity);
+        InventoryReservation reservation = new InventoryReservation(UUID.randomUUID().toString(), productId, quantity,
+                Instant.ofEpochMilli(System.currentTimeMillis() + ttlMillis));
+        reservations.put(reservation.getId(), reservation);
+        return reservation;
+    }
+
+    public InventoryReservation commit(String reservationId) {
+        InventoryReservation reservation = reservations.remove(reservationId);
+        if (reservation != null && isExpired(reservation, System.currentTimeMillis())) {
+            giveBack(reservation);
+            reservation = null;
+        }
+        if (reservation == null) {
+            throw new ResourceNotFoundException("Reservation not found or expired: " + reservationId);
+        }
+        ProductStock stock = stocks.get(reservation.getProductId());
+        if (stock != null) {
+            stock.reserved.add(-reservation.getQuantity());
+        }
+        return reservation;
+    }
+
+    public InventoryReservation release(String reservationId) {
+        InventoryReservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            throw new ResourceNotFoundException("Reservation not found or expired: " + reservationId);
+        }
+        giveBack(reservation);
+        return reservation;
+    }
+
+    /** Releases every reservation that expired before {@code nowMillis}; returns how many. */
+    public int expire(long nowMillis) {
+        int expired = 0;
+        for (InventoryReservation reservation : reservations.values()) {
+            if (isExpired(reservation, nowMillis) && reservations.remove(reservation.getId(), reservation)) {
+                giveBack(reservation);
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /** Records the quantity_available just read from the database. */
+    public void seen(Long productId, int available) {
+        stock(productId).available = Math.max(0, available);
+    }
+
+    /** The stored quantity changed behind this node's back (e.g. give-backs written): reload it on the next level. */
+    public void invalidate(Long productId) {
+        ProductStock stock = stocks.get(productId);
+        if (stock != null) {
+            stock.available = ProductStock.UNKNOWN;
+        }
+    }
+
+    public InventoryLevel level(Long productId) {
+        ProductStock stock = stocks.get(productId);
+        if (stock == null || stock.available == ProductStock.UNKNOWN) {
+            Integer quantity = loader.apply(productId);
+            if (quantity == null) {
+                throw new ResourceNotFoundException("Product not found with id " + productId);
+            }
+            seen(productId, quantity);
+            stock = stock(productId);
+        }
+        return new InventoryLevel(productId, stock.available, stock.reserved.sum(), writeBack.getOrDefault(productId, 0));
+    }
+
+    /** Drops a deleted product; its open reservations simply expire. */
+    public void forget(Long productId) {
+        stocks.remove(productId);
+        writeBack.remove(productId);
+    }
+
+    public int openReservations() {
+        return reservations.size();
+    }
+
+    /** Takes the queued give-backs (product id → units); call {@link #requeue(Map)} if writing them fails. */
+    public Map<Long, Integer> drainWriteBack() {
+        Map<Long, Integer> drained = new HashMap<>();
+        for (Long productId : writeBack.keySet()) {
+            Integer delta = writeBack.remove(productId); // atomic with concurrent merges: nothing is lost
+            if (delta != null && delta != 0) {
+                drained.put(productId, delta);
+            }
+        }
+        return drained;
+    }
+
+    public void requeue(Map<Long, Integer> deltas) {
+        deltas.forEach((productId, delta) -> writeBack.merge(productId, delta, Integer::sum));
+    }
+
+    private ProductStock stock(Long productId) {
+        return stocks.computeIfAbsent(productId, id -> new ProductStock(ProductStock.UNKNOWN));
+    }
+
+    private void giveBack(InventoryReservation reservation) {
+        ProductStock stock = stocks.get(reservation.getProductId());
+        if (stock != null) { // null: the product was deleted, nothing to give back to
+            stock.reserved.add(-reservation.getQuantity());
+            writeBack.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+        }
+    }
+
+    private static boolean isExpired(InventoryReservation reservation, long nowMillis) {
+        return reservation.getExpiresAt().toEpochMilli() <= nowMillis;
+    }
+}
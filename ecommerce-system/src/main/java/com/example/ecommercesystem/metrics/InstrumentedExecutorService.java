@@ -0,0 +1,198 @@
+package com.example.ecommercesystem.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds and measures an executor of any ExecutorMode (platform pool, work-stealing pool or
+ * virtual threads), so all three report the same way.
+ *
+ * Why?:
+ * - Executors.newFixedThreadPool queues without limit and reports nothing: a burst of work
+ *   shows up as memory and latency, never as a number. Here at most maxInFlight tasks are
+ *   waiting or running; beyond that the RejectionPolicy applies and is counted.
+ * - Waiting and running are timed separately: a long wait with a short run means too few
+ *   threads, a long run means slow tasks (database, remote calls) that more threads won't fix.
+ *
+ * Published with tag name (queued, active, completed, idle and executor as named by Micrometer's
+ * ExecutorServiceMetrics, so the same dashboards work):
+ * - executor.queued / executor.active: tasks submitted but not started / running
+ * - executor.capacity: maxInFlight, executor.completed: finished tasks
+ * - executor.idle: wait from submit to start, executor: run time (both percentile histograms)
+ * - executor.rejected{policy}: tasks refused (abort) or run by the submitting thread (caller-runs)
+ */
+public class InstrumentedExecutorService extends AbstractExecutorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentedExecutorService.class);
+
+    public enum RejectionPolicy {
+        /** throw RejectedExecutionException (mapped to 503 by GlobalExceptionHandler) */
+        ABORT,
+        /** run the task on the submitting thread, which slows submitters down to the executor's pace */
+        CALLER_RUNS
+    }
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final int maxInFlight;
+    private final RejectionPolicy rejectionPolicy;
+    private final long drainTimeoutMillis;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final Timer waitTimer;
+    private final Timer executionTimer;
+    private final Counter rejected;
+
+    public InstrumentedExecutorService(String name, ExecutorService delegate, int maxInFlight,
+                                       RejectionPolicy rejectionPolicy, long drainTimeoutMillis,
+                                       MeterRegistry registry) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.name = name;
+        this.delegate = delegate;
+        this.maxInFlight = maxInFlight;
+        this.rejectionPolicy = rejectionPolicy;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+        this.permits = new Semaphore(maxInFlight);
+
+        Gauge.builder("executor.queued", queued, AtomicInteger::get)
+                .description("Tasks submitted and not started yet").tag("name", name).register(registry);
+        Gauge.builder("executor.active", active, AtomicInteger::get)
+                .description("Tasks running").tag("name", name).register(registry);
+        Gauge.builder("executor.capacity", this, executor -> executor.maxInFlight)
+                .description("Tasks that may be waiting or running at once").tag("name", name).register(registry);
+        FunctionCounter.builder("executor.completed", completed, LongAdder::sum)
+                .description("Finished tasks").tag("name", name).register(registry);
+        waitTimer = timer("executor.idle", "Time from submit to start", registry);
+        executionTimer = timer("executor", "Run time of a task", registry);
+        rejected = Counter.builder("executor.rejected")
+                .description("Tasks submitted while the executor was full or shut down")
+                .tag("name", name)
+                .tag("policy", rejectionPolicy.name().toLowerCase())
+                .register(registry);
+    }
+
+    private Timer timer(String metric, String description, MeterRegistry registry) {
+        return Timer.builder(metric)
+                .description(description)
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            if (rejectionPolicy == RejectionPolicy.CALLER_RUNS && !isShutdown()) {
+                run(command);
+                return;
+            }
+            throw new RejectedExecutionException("Executor " + name + " is full: " + maxInFlight
+                    + " tasks waiting or running");
+        }
+        long submitted = System.nanoTime();
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                waitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    run(command);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) { // shut down
+            queued.decrementAndGet();
+            permits.release();
+            rejected.increment();
+            throw ex;
+        }
+    }
+
+    private void run(Runnable command) {
+        active.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            command.run();
+        } finally {
+            executionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            active.decrementAndGet();
+            completed.increment();
+        }
+    }
+
+    /**
+     * Graceful shutdown: stops accepting tasks and waits up to drainTimeoutMillis for the queued
+     * and running ones; whatever is left after that is interrupted.
+     * @return true if every task finished in time
+     */
+    public boolean drain() throws InterruptedException {
+        int pending = queued.get() + active.get();
+        delegate.shutdown();
+        if (pending > 0) {
+            logger.info("Executor {}: waiting up to {} ms for {} tasks", name, drainTimeoutMillis, pending);
+        }
+        if (delegate.awaitTermination(drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        List<Runnable> dropped = delegate.shutdownNow();
+        logger.warn("Executor {}: {} tasks still running after {} ms were interrupted, {} never started",
+                name, active.get(), drainTimeoutMillis, dropped.size());
+        return false;
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
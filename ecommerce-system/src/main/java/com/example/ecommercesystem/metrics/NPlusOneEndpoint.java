@@ -0,0 +1,32 @@
+package com.example.ecommercesystem.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/nplusone: the threshold and the most recent requests above it, with the
+ * repository methods they called most. The counts per endpoint are metrics:
+ *   /actuator/metrics/http.server.requests.statements?tag=uri:/api/products
+ *   /actuator/metrics/http.server.requests.nplusone
+ *   /actuator/metrics/repository.invocations?tag=repository:ProductRepository&tag=method:findAll
+ */
+@Component
+@Endpoint(id = "nplusone")
+public class NPlusOneEndpoint {
+
+    @Autowired
+    private StatementCountFilter statementCountFilter;
+
+    @ReadOperation
+    public Map<String, Object> suspects() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("threshold", statementCountFilter.getThreshold());
+        body.put("suspects", statementCountFilter.getRecentSuspects());
+        return body;
+    }
+}
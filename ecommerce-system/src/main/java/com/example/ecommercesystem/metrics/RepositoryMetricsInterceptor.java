@@ -0,0 +1,118 @@
+package com.example.ecommercesystem.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Times every call of one Spring Data repository (added to its proxy by PersistenceMetricsConfig).
+ *
+ * Why?:
+ * - spring.jpa.show-sql logs every statement as text, for everything or nothing, and says
+ *   nothing about time. A timer per repository method shows which one is slow, and the size
+ *   tag tells a slow query from one that just returns too many rows.
+ *
+ * Published as repository.invocations{repository, method, outcome, exception, size}
+ * with a percentile histogram (1 ms - 10 s). size is bucketed to keep the number of time
+ * series bounded: 0, 1, 2-10, 11-100, 101-1000, 1001+, "none" for counts / exists / void /
+ * failures, "stream" for Stream results (timed up to the first row only).
+ *
+ * The time covers the query and entity mapping; the transaction boundary of the repository
+ * method (begin/commit) runs outside. Also counts the call into the current request's
+ * RequestStatementStats.
+ */
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    public static final String METRIC = "repository.invocations";
+
+    private final String repository;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public RepositoryMetricsInterceptor(String repository, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (invocation.getMethod().getDeclaringClass() == Object.class) {
+            return invocation.proceed(); // toString / equals / hashCode of the proxy
+        }
+        String method = invocation.getMethod().getName();
+        RequestStatementStats.repositoryCalled(repository + "." + method);
+        long start = System.nanoTime();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable ex) {
+            failure = ex;
+            throw ex;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            boolean noResult = failure != null || invocation.getMethod().getReturnType() == void.class;
+            timer(method, failure, noResult ? "none" : sizeBucket(result)).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static String sizeBucket(Object result) {
+        long size;
+        if (result == null) {
+            size = 0;
+        } else if (result instanceof Collection) {
+            size = ((Collection<?>) result).size();
+        } else if (result instanceof Slice) {
+            size = ((Slice<?>) result).getNumberOfElements();
+        } else if (result instanceof Optional) {
+            size = ((Optional<?>) result).isPresent() ? 1 : 0;
+        } else if (result instanceof Number || result instanceof Boolean) {
+            return "none";
+        } else if (result instanceof Stream) {
+            return "stream";
+        } else {
+            size = 1; // an entity or projection
+        }
+        if (size <= 1) {
+            return Long.toString(size);
+        }
+        return size <= 10 ? "2-10" : size <= 100 ? "11-100" : size <= 1000 ? "101-1000" : "1001+";
+    }
+
+    private Timer timer(String method, Throwable failure, String size) {
+        String exception = failure == null ? "none" : failure.getClass().getSimpleName();
+        return timers.computeIfAbsent(method + '|' + exception + '|' + size, key -> Timer.builder(METRIC)
+                .description("Spring Data repository method latency")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", failure == null ? "success" : "error")
+                .tag("exception", exception)
+                .tag("size", size)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry()));
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry current = registry;
+        if (current == null) {
+            current = meterRegistry.getObject();
+            registry = current;
+        }
+        return current;
+    }
+}
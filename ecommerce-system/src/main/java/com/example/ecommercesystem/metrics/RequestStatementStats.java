@@ -0,0 +1,55 @@
+package com.example.ecommercesystem.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JDBC statements and repository calls of the HTTP request running on the current thread.
+ * Opened and closed by StatementCountFilter; outside a request recording is a no-op.
+ *
+ * Work handed to other threads (async executors, write-behind flusher) is not attributed
+ * to the request.
+ */
+public final class RequestStatementStats {
+
+    private static final ThreadLocal<RequestStatementStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private final Map<String, Integer> repositoryCalls = new HashMap<>();
+
+    private RequestStatementStats() {
+    }
+
+    static RequestStatementStats begin() {
+        RequestStatementStats stats = new RequestStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** Called for every prepareStatement / prepareCall / createStatement. */
+    static void statementPrepared() {
+        RequestStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+        }
+    }
+
+    static void repositoryCalled(String repositoryMethod) {
+        RequestStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.repositoryCalls.merge(repositoryMethod, 1, Integer::sum);
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public Map<String, Integer> getRepositoryCalls() {
+        return repositoryCalls;
+    }
+}
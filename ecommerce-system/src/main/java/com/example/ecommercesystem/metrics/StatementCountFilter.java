@@ -0,0 +1,129 @@
+package com.example.ecommercesystem.metrics;
+
+import com.example.ecommercesystem.dto.NPlusOneSuspect;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the JDBC statements each HTTP request prepares and flags probable N+1 queries.
+ *
+ * Why?:
+ * - An N+1 (one query for a list, then one per row for an association) looks fine with
+ *   10 rows in development and sends 1000 statements per request in production.
+ *   The statement count per endpoint exposes it long before latency does.
+ *
+ * Published as:
+ * - http.server.requests.statements{method, uri}: statements per request (uri is the route
+ *   template, as in http.server.requests)
+ * - http.server.requests.nplusone{method, uri}: requests above n-plus-one-threshold, also
+ *   logged at WARN and kept (most recent recent-suspects) for /actuator/nplusone
+ *
+ * Only statements of the request thread count; async work is not attributed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementCountFilter.class);
+    private static final int TOP_REPOSITORY_CALLS = 10;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.jdbc-metrics.n-plus-one-threshold:20}")
+    private int threshold;
+
+    @Value("${app.jdbc-metrics.recent-suspects:100}")
+    private int recentCapacity;
+
+    // Newest last; guarded by itself
+    private final Deque<NPlusOneSuspect> recent = new ArrayDeque<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestStatementStats stats = RequestStatementStats.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestStatementStats.end();
+            record(request, stats);
+        }
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /** Flagged requests, newest first. */
+    public List<NPlusOneSuspect> getRecentSuspects() {
+        List<NPlusOneSuspect> suspects;
+        synchronized (recent) {
+            suspects = new ArrayList<>(recent);
+        }
+        Collections.reverse(suspects);
+        return suspects;
+    }
+
+    private void record(HttpServletRequest request, RequestStatementStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        int statements = stats.getStatements();
+
+        DistributionSummary.builder("http.server.requests.statements")
+                .description("JDBC statements prepared per HTTP request")
+                .tags("method", method, "uri", uri)
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100, 500)
+                .register(meterRegistry)
+                .record(statements);
+        if (statements <= threshold) {
+            return;
+        }
+
+        Counter.builder("http.server.requests.nplusone")
+                .description("Requests that prepared more statements than the N+1 threshold")
+                .tags("method", method, "uri", uri)
+                .register(meterRegistry)
+                .increment();
+        Map<String, Integer> topCalls = new LinkedHashMap<>();
+        stats.getRepositoryCalls().entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(TOP_REPOSITORY_CALLS)
+                .forEach(entry -> topCalls.put(entry.getKey(), entry.getValue()));
+        logger.warn("Probable N+1: {} {} prepared {} statements (threshold {}), repository calls {}",
+                method, request.getRequestURI(), statements, threshold, topCalls);
+
+        NPlusOneSuspect suspect = new NPlusOneSuspect(Instant.now(), method, uri, statements, topCalls);
+        synchronized (recent) {
+            if (recent.size() >= recentCapacity) {
+                recent.removeFirst();
+            }
+            recent.addLast(suspect);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.ecommercesystem.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -58,8 +60,28 @@ import java.util.List;
  * 🔥 Common Pitfall:
  *    - Do NOT use CascadeType.ALL blindly in @ManyToOne (e.g., Product → Category),
  *      or deleting a product might delete the shared category as well!
+ *
+ * 🗄️ SECOND-LEVEL CACHE
+ * ======================================================
+ *
+ * Products reference their Category EAGERly, so every product query used to load the
+ * categories again (one extra SELECT per distinct category). Categories are few and rarely
+ * written, so they live in Hibernate's second-level cache ("category" region):
+ *    - READ_WRITE: writes through JPA update the entry on commit, readers never see
+ *      uncommitted data.
+ *    - Writes that bypass Hibernate (JDBC, SQL console) are not seen until the entry expires
+ *      (application.conf).
+ *    - IDENTITY inserts are not put in the cache (Hibernate learns the id only from the INSERT):
+ *      a new category is cached by its first read.
+ *    - Update a managed (loaded) category. Merging a detached one whose products is null
+ *      dereferences the orphan-removal collection, and Hibernate refuses the flush.
+ *    - The products collection is NOT cached: Product is not in the second-level cache
+ *      (it has its own Redis cache), so a cached list of ids would load each product with
+ *      its own SELECT, and product writes through JDBC (write-behind) would leave it stale.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
 @Data // Lombok generates getters, setters, equals, hashCode, and toString
 public class Category implements Serializable {
 
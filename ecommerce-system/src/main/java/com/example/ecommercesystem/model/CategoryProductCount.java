@@ -0,0 +1,60 @@
+package com.example.ecommercesystem.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+/**
+ * Denormalized product count per (category, availability status).
+ *
+ * Why?:
+ * - "How many products does this category have" via size(c.products) is a correlated
+ *   COUNT(*) subquery over the product table on every call.
+ * - Here it is a lookup of at most 4 small rows per category.
+ *
+ * Kept exact by applying +1/-1 deltas in the same transaction as the product write
+ * (see CategoryCounters); products without a status are counted under NO_STATUS.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "category_product_count")
+@IdClass(CategoryProductCount.Key.class)
+public class CategoryProductCount {
+
+    /** Primary key columns cannot be NULL, so a missing status is stored as this value. */
+    public static final String NO_STATUS = "NONE";
+
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Id
+    @Column(length = 20)
+    private String status;
+
+    @Column(name = "product_count", nullable = false)
+    private long productCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long categoryId;
+        private String status;
+    }
+
+    public static String statusKey(Product.AvailabilityStatus status) {
+        return status != null ? status.name() : NO_STATUS;
+    }
+}
@@ -17,6 +17,11 @@ import java.time.LocalDate;
  */
 @Entity
 @Data
+// (column, id) indexes let keyset paging seek straight to the first row of a page
+@Table(indexes = {
+        @Index(name = "idx_product_name_id", columnList = "name, id"),
+        @Index(name = "idx_product_price_id", columnList = "price, id")
+})
 public class Product implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -31,10 +36,19 @@ public class Product implements Serializable {
      * TABLE        | Hibernate via a table    | Before INSERT       | ✅ YES
      * AUTO         | Hibernate chooses        | Varies              | 🤷 Depends
      *
-     * IDENTITY is chosen here for simplicity, but beware: it disables JDBC batch inserts.
+     * SEQUENCE is used so bulk imports can batch their INSERTs (IDENTITY disables JDBC batching).
+     * MySQL has no sequences, so Hibernate emulates "product_seq" with a one-row table.
+     *
+     * allocationSize = 100 + the pooled-lo optimizer (hibernate.id.optimizer.pooled.preferred):
+     * one sequence round trip hands out 100 ids, so ids are cheap even for single saves.
+     * Gaps after a restart are expected and harmless.
+     *
+     * Existing rows created under IDENTITY are handled by ProductSequenceInitializer, which moves
+     * the sequence past MAX(id) at startup.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 100)
     private Long id;
 
     /**
@@ -93,9 +107,15 @@ public class Product implements Serializable {
     /**
      * Quantity available in stock.
      * Demonstrates numeric constraints.
+     *
+     * Set on insert only: afterwards stock moves through the inventory API (InventoryService),
+     * which uses guarded relative UPDATEs. An entity update writing an absolute value read
+     * earlier would silently overwrite sales made in between. Updates sending a different value
+     * are rejected (ProductServiceImpl.saveProduct, ProductWriteBehind).
      */
     @Min(0)
     @Max(1000)
+    @Column(updatable = false)
     private int quantityAvailable;
 
     /**
@@ -0,0 +1,24 @@
+package com.example.ecommercesystem.repository;
+
+import com.example.ecommercesystem.model.CategoryProductCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoryProductCountRepository extends JpaRepository<CategoryProductCount, CategoryProductCount.Key>,
+        CategoryProductCountRepositoryCustom {
+
+    @Query("SELECT k.categoryId AS categoryId, c.name AS categoryName, k.status AS status, k.productCount AS productCount "
+            + "FROM CategoryProductCount k, Category c WHERE c.id = k.categoryId")
+    List<CountRow> findAllWithCategoryName();
+
+    interface CountRow {
+        Long getCategoryId();
+        String getCategoryName();
+        String getStatus();
+        long getProductCount();
+    }
+}
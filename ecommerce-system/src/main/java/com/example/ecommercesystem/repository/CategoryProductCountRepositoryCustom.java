@@ -0,0 +1,25 @@
+package com.example.ecommercesystem.repository;
+
+/**
+ * Native counter statements, implemented by CategoryProductCountRepositoryImpl.
+ *
+ * Why not @Modifying @Query(nativeQuery = true)?:
+ * - Hibernate cannot tell which tables a native INSERT/UPDATE touches, so after executing one it
+ *   evicts every second-level cache region. increment runs on every product write, which
+ *   would empty the Category cache just as often.
+ * - The implementation declares category_product_count as the only affected table, so
+ *   only that entity's (uncached) region is invalidated.
+ */
+public interface CategoryProductCountRepositoryCustom {
+
+    /**
+     * Atomic "counter += delta", creating the row on first use.
+     * One statement, and the row lock it takes serializes concurrent writers of the same
+     * (category, status) until their transactions end.
+     * ON DUPLICATE KEY UPDATE is MySQL syntax (H2 accepts it in MODE=MySQL).
+     */
+    int increment(Long categoryId, String status, long delta);
+
+    /** Recounts everything from the product table (one GROUP BY); used to seed an empty counter table. */
+    int insertCountsFromProducts();
+}
@@ -0,0 +1,44 @@
+package com.example.ecommercesystem.repository;
+
+import com.example.ecommercesystem.model.CategoryProductCount;
+import com.example.ecommercesystem.model.Product;
+import org.hibernate.query.NativeQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class CategoryProductCountRepositoryImpl implements CategoryProductCountRepositoryCustom {
+
+    private static final String INCREMENT = "INSERT INTO category_product_count (category_id, status, product_count) "
+            + "VALUES (:categoryId, :status, :delta) "
+            + "ON DUPLICATE KEY UPDATE product_count = product_count + :delta";
+
+    private static final String INSERT_FROM_PRODUCTS = "INSERT INTO category_product_count (category_id, status, product_count) "
+            + "SELECT category_id, COALESCE(status, '" + CategoryProductCount.NO_STATUS + "'), COUNT(*) FROM product "
+            + "GROUP BY category_id, COALESCE(status, '" + CategoryProductCount.NO_STATUS + "')";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int increment(Long categoryId, String status, long delta) {
+        return counterStatement(INCREMENT)
+                .setParameter("categoryId", categoryId)
+                .setParameter("status", status)
+                .setParameter("delta", delta)
+                .executeUpdate();
+    }
+
+    @Override
+    public int insertCountsFromProducts() {
+        // Reads product too: pending product inserts are flushed first
+        return counterStatement(INSERT_FROM_PRODUCTS).addSynchronizedEntityClass(Product.class).executeUpdate();
+    }
+
+    // Declares the affected table, so Hibernate only invalidates that region (see the interface)
+    private NativeQuery<?> counterStatement(String sql) {
+        return (NativeQuery<?>) entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(CategoryProductCount.class);
+    }
+}
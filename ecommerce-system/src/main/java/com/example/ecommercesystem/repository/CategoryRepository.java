@@ -3,9 +3,11 @@ package com.example.ecommercesystem.repository;
 import com.example.ecommercesystem.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 @Repository
@@ -15,14 +17,19 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     /**
      * Finds category by name.
      * Useful for ensuring uniqueness and dropdown list selections.
+     * Cacheable: the result (the id) is kept in the query cache until the category table is
+     * written through Hibernate, the entity itself comes from the "category" region.
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Category findByName(String name);
 
 
     /**
      * Checks if a category exists by name.
      * Prevents duplication before insertion.
+     * Cacheable, like findByName.
      */
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     boolean existsByName(String name);
 
 
@@ -30,9 +37,15 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      * Finds all categories with product count greater than specified.
      * Advanced JPQL usage.
      *
+     * Reads the denormalized counters (a few rows per category) instead of size(c.products),
+     * which was a correlated COUNT(*) over the product table for every category.
+     * min is a long because SUM(productCount) is one: Hibernate binds an int parameter as
+     * Integer and refuses to compare it with the Long sum. int callers widen implicitly.
+     *
      * @Param("minParam") → Demonstrates flexibility in param naming
      * Allows method param name to differ from JPQL variable
      */
-    @Query("SELECT c FROM Category c WHERE size(c.products) > :minParam")
-    List<Category> findCategoriesWithMoreThanXProducts(@Param("minParam") int min);
+    @Query("SELECT c FROM Category c WHERE c.id IN (" +
+            "SELECT k.categoryId FROM CategoryProductCount k GROUP BY k.categoryId HAVING SUM(k.productCount) > :minParam)")
+    List<Category> findCategoriesWithMoreThanXProducts(@Param("minParam") long min);
 }
@@ -1,15 +1,29 @@
 package com.example.ecommercesystem.repository;
 
+import com.example.ecommercesystem.dto.ProductSummary;
 import com.example.ecommercesystem.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.READ_ONLY;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product,Long> {
+public interface ProductRepository extends JpaRepository<Product,Long>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
 
     // Automatically generated queries based on method names
     List<Product> findByName(String name);
@@ -28,10 +42,86 @@ public interface ProductRepository extends JpaRepository<Product,Long> {
 
     void deleteByName(String name);
 
+    // Id-only listings: the cached id-lists are built from these, products are hydrated from the "product" cache
+    @Query("SELECT p.id FROM Product p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    @Query(value = "SELECT p.id FROM Product p", countQuery = "SELECT count(p) FROM Product p")
+    Page<Long> findAllIds(Pageable pageable);
+
+    /**
+     * Entities by id with their category fetched in the same SELECT.
+     *
+     * findAllById loads the EAGER category with one extra select per distinct category;
+     * the entity graph turns that into a LEFT JOIN, so hydrating N ids is always one statement.
+     */
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    String STORED_STATE = "SELECT p.id AS id, p.category.id AS categoryId, p.status AS status, "
+            + "p.quantityAvailable AS quantityAvailable FROM Product p ";
+
+    /**
+     * Category, status and stock as currently stored: counter deltas for an update or delete, and
+     * the quantityAvailable an update keeps (stock only moves through the inventory API).
+     */
+    @Query(STORED_STATE + "WHERE p.id = :id")
+    Optional<StoredState> findStoredState(@Param("id") Long id);
+
+    /** Stored state of many products in one statement (write-behind batches). */
+    @Query(STORED_STATE + "WHERE p.id IN :ids")
+    List<StoredState> findStoredStates(@Param("ids") Collection<Long> ids);
+
+    interface StoredState {
+        Long getId();
+        Long getCategoryId();
+        Product.AvailabilityStatus getStatus();
+        int getQuantityAvailable();
+    }
+
+    // ---- Summary projections: one SELECT of the listed columns, no entities (see ProductSummary) ----
+
+    String SUMMARY = "SELECT new com.example.ecommercesystem.dto.ProductSummary("
+            + "p.id, p.name, p.price, p.quantityAvailable, p.status, c.id, c.name) "
+            + "FROM Product p JOIN p.category c";
+
+    @Query(SUMMARY + " ORDER BY p.id")
+    List<ProductSummary> findAllSummaries();
+
+    @Query(value = SUMMARY, countQuery = "SELECT count(p) FROM Product p")
+    Page<ProductSummary> findAllSummaries(Pageable pageable);
+
+    // Same filter as the /search endpoint: exact name, description only when given
+    @Query(SUMMARY + " WHERE p.name = :name AND (:description IS NULL OR p.description = :description) ORDER BY p.id")
+    List<ProductSummary> findSummariesByNameAndDescription(@Param("name") String name,
+                                                           @Param("description") String description);
+
+    /**
+     * Whole catalog as a forward-only stream instead of a List.
+     *
+     * - FETCH_SIZE Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one
+     *   instead of buffering the full result set in the driver.
+     * - JOIN FETCH loads the EAGER category in the same query (no select per row).
+     * - READ_ONLY skips Hibernate's dirty-checking snapshots.
+     *
+     * Must be consumed inside a (read-only) transaction and closed, e.g. try-with-resources.
+     * Detach each entity once processed, or the persistence context grows with every row.
+     */
+    @QueryHints({
+            @QueryHint(name = FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = CACHEABLE, value = "false"),
+            @QueryHint(name = READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.category ORDER BY p.id")
+    Stream<Product> streamAll();
+
 //    @Query("SELECT p FROM Product p WHERE p.name LIKE %:name%")
 //    List<Product> findByNameContaining(@Param("name") String name);
 
-    // Example of handling null values
+    // Example of handling null values - and why not to: MySQL can use no index for an OR'd
+    // "IS NULL" check and scans the table. Use ProductSpecifications (/api/products/filter) instead.
+    @Deprecated
     @Query("SELECT p FROM Product p WHERE " +
             "(:name IS NULL OR p.name = :name) AND " +
             "(:description IS NULL OR p.description = :description) OR " +
@@ -0,0 +1,48 @@
+package com.example.ecommercesystem.repository;
+
+import com.example.ecommercesystem.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Hand-written queries that derived methods / @Query cannot express.
+ * Implemented by ProductRepositoryImpl (Spring Data picks it up by the "Impl" suffix).
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset (seek) page of product ids ordered by (sortField, id).
+     *
+     * WHERE sortField > :lastValue OR (sortField = :lastValue AND id > :lastId)   -- ASC
+     * ORDER BY sortField, id LIMIT :limit
+     *
+     * With an index on (sortField, id) MySQL seeks straight to the start of the page,
+     * so page N costs the same as page 1 (no OFFSET rows scanned and thrown away).
+     *
+     * @param lastValue sort value of the last row of the previous page, null for the first page
+     * @param lastId    id of the last row of the previous page, null for the first page
+     */
+    List<Long> findIdsAfter(String sortField, Sort.Direction direction, Object lastValue, Long lastId, int limit);
+
+    /**
+     * Same keyset page restricted to the products matching filter (see ProductSpecifications):
+     * the filter predicates are ANDed with the seek predicate. Returns the (sortValue, id) of each
+     * row as read by the query, so the next cursor never comes from a cached, possibly stale copy.
+     *
+     * @param filter null for all products
+     */
+    List<SeekKey> findKeysAfter(Specification<Product> filter, String sortField, Sort.Direction direction,
+                                Object lastValue, Long lastId, int limit);
+
+    /** Position of one row in a keyset listing; sortValue is the id itself when sorting by id. */
+    @Getter
+    @AllArgsConstructor
+    final class SeekKey {
+        private final Object sortValue;
+        private final Long id;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ecommercesystem.repository;
+
+import com.example.ecommercesystem.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIdsAfter(String sortField, Sort.Direction direction, Object lastValue, Long lastId, int limit) {
+        return findKeysAfter(null, sortField, direction, lastValue, lastId, limit).stream()
+                .map(SeekKey::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<SeekKey> findKeysAfter(Specification<Product> filter, String sortField, Sort.Direction direction,
+                                       Object lastValue, Long lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Product> product = query.from(Product.class);
+        Path<Long> id = product.get("id");
+        Path<Comparable> sort = product.get(sortField);
+        boolean asc = direction.isAscending();
+        boolean byIdOnly = "id".equals(sortField);
+
+        List<Predicate> where = new ArrayList<>();
+        Predicate matching = filter != null ? filter.toPredicate(product, query, cb) : null;
+        if (matching != null) {
+            where.add(matching);
+        }
+        if (lastId != null) {
+            Predicate afterId = asc ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+            if (byIdOnly) {
+                where.add(afterId);
+            } else {
+                Comparable value = (Comparable) lastValue;
+                where.add(cb.or(
+                        asc ? cb.greaterThan(sort, value) : cb.lessThan(sort, value),
+                        cb.and(cb.equal(sort, value), afterId)));
+            }
+        }
+        if (!where.isEmpty()) {
+            query.where(where.toArray(new Predicate[0]));
+        }
+
+        // Always two columns (id twice when sorting by id): Hibernate returns a lone selection unwrapped
+        query.multiselect(sort, id);
+        if (byIdOnly) {
+            query.orderBy(asc ? cb.asc(id) : cb.desc(id));
+        } else {
+            query.orderBy(asc ? cb.asc(sort) : cb.desc(sort), asc ? cb.asc(id) : cb.desc(id));
+        }
+        List<SeekKey> keys = new ArrayList<>();
+        for (Object[] row : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            keys.add(new SeekKey(row[0], (Long) row[1]));
+        }
+        return keys;
+    }
+}
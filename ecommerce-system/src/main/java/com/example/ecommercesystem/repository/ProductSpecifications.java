@@ -0,0 +1,95 @@
+package com.example.ecommercesystem.repository;
+
+import com.example.ecommercesystem.dto.ProductFilter;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the WHERE clause of the product filter from the criteria actually supplied.
+ *
+ * Why not one @Query with "(:name IS NULL OR p.name = :name) AND ..."?:
+ * - MySQL plans a statement once for all parameter values, so an OR'd IS NULL check can use no
+ *   index for that column: every optional criterion turns the query into a full table scan.
+ * - Here an absent criterion is simply not in the SQL, so each query only has sargable
+ *   predicates (price BETWEEN, name LIKE 'prefix%', category_id = ?) the optimizer can index.
+ *   LIKE compares with the column collation, case-insensitive on MySQL's default _ci ones;
+ *   wrapping the column in LOWER() would make the name predicate unsargable.
+ *
+ * Plan caching: predicates are always added in the same order and values are bound as
+ * parameters (hibernate.criteria.literal_handling_mode=bind), so the SQL depends only on which
+ * criteria are present. There is one statement text per combination, reused by Hibernate's query
+ * plan cache and the driver's prepared statement cache whatever the values.
+ */
+public final class ProductSpecifications {
+
+    // Not a backslash: MySQL reads '\' in the ESCAPE clause as an escaped quote
+    private static final char ESCAPE = '!';
+
+    private ProductSpecifications() {
+    }
+
+    /** All products matching every supplied criterion; no criteria matches everything. */
+    public static Specification<Product> matching(ProductFilter filter) {
+        checkRange("price", filter.getMinPrice(), filter.getMaxPrice());
+        checkRange("launch date", filter.getLaunchedFrom(), filter.getLaunchedTo());
+        checkRange("expiry date", filter.getExpiresFrom(), filter.getExpiresTo());
+
+        return (product, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (hasText(filter.getName())) {
+                predicates.add(cb.like(product.<String>get("name"), escape(filter.getName()) + "%", ESCAPE));
+            }
+            if (hasText(filter.getDescription())) {
+                predicates.add(cb.like(product.<String>get("description"), "%" + escape(filter.getDescription()) + "%", ESCAPE));
+            }
+            between(predicates, cb, product.<Double>get("price"), filter.getMinPrice(), filter.getMaxPrice());
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(product.get("status"), filter.getStatus()));
+            }
+            if (filter.getCategoryId() != null) {
+                // category.id is the FK column itself: no join
+                predicates.add(cb.equal(product.get("category").get("id"), filter.getCategoryId()));
+            }
+            between(predicates, cb, product.<LocalDate>get("launchDate"), filter.getLaunchedFrom(), filter.getLaunchedTo());
+            between(predicates, cb, product.<LocalDate>get("expiryDate"), filter.getExpiresFrom(), filter.getExpiresTo());
+            return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static <T extends Comparable<? super T>> void between(List<Predicate> predicates, CriteriaBuilder cb,
+                                                                  Path<T> path, T from, T to) {
+        if (from != null && to != null) {
+            predicates.add(cb.between(path, from, to));
+        } else if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(path, from));
+        } else if (to != null) {
+            predicates.add(cb.lessThanOrEqualTo(path, to));
+        }
+    }
+
+    private static <T extends Comparable<? super T>> void checkRange(String what, T from, T to) {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            throw new InvalidRequestException("Empty " + what + " range: " + from + " > " + to);
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    // User input is matched literally: % and _ are not wildcards
+    private static String escape(String value) {
+        return value.trim()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+    }
+}
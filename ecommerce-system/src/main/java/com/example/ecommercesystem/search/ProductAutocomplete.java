@@ -0,0 +1,286 @@
+package com.example.ecommercesystem.search;
+
+import com.example.ecommercesystem.dto.ProductSuggestion;
+import com.example.ecommercesystem.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix autocomplete over product names: a compressed (radix) trie on the lowercased name
+ * where every node caches the best MAX_SUGGESTIONS products below it.
+ *
+ * Why?:
+ * - findByNameContaining on every keystroke is a full table scan per keystroke.
+ * - Here a lookup walks at most prefix-length characters and copies a precomputed array,
+ *   so it costs microseconds no matter how many products share the prefix.
+ *
+ * Ranking: quantityAvailable (what we can actually sell) desc, then name, then id.
+ *
+ * Compressed: a node's edge holds a whole run of characters ("lap" → "top"), so the trie has
+ * at most ~2 nodes per distinct name instead of one per character.
+ *
+ * A save removes the old entry and inserts the new one, touching only the nodes on the two
+ * paths whose cached lists actually change.
+ */
+@Component
+public class ProductAutocomplete {
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private static final Comparator<ProductSuggestion> RANKING = Comparator
+            .comparingInt(ProductSuggestion::getQuantityAvailable).reversed()
+            .thenComparing(ProductSuggestion::getName)
+            .thenComparing(ProductSuggestion::getId);
+
+    private static final ProductSuggestion[] NONE = new ProductSuggestion[0];
+
+    private final Node root = new Node("");
+    private final Map<Long, ProductSuggestion> byId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Adds or replaces a product's entry. */
+    public void index(Product product) {
+        if (product.getName() == null) {
+            remove(product.getId());
+            return;
+        }
+        ProductSuggestion suggestion = new ProductSuggestion(product.getId(), product.getName(), product.getQuantityAvailable());
+        lock.writeLock().lock();
+        try {
+            ProductSuggestion previous = byId.put(product.getId(), suggestion);
+            if (previous != null) {
+                removeLocked(previous);
+            }
+            insertLocked(suggestion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            ProductSuggestion previous = byId.remove(productId);
+            if (previous != null) {
+                removeLocked(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return up to {@code limit} (max MAX_SUGGESTIONS) products whose name starts with the prefix,
+     *         case-insensitively, best first; empty for a blank prefix
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        ProductSuggestion[] top;
+        lock.readLock().lock();
+        try {
+            top = find(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+        // top arrays are replaced, never mutated, so copying outside the lock is safe
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(top, Math.min(limit, top.length))));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private ProductSuggestion[] find(String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                return NONE;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (i + common == key.length()) {
+                return child.top; // the prefix ends on (or inside) this edge
+            }
+            if (common < child.label.length()) {
+                return NONE; // diverges inside the edge
+            }
+            node = child;
+            i += common;
+        }
+        return node.top;
+    }
+
+    private void insertLocked(ProductSuggestion suggestion) {
+        String key = normalize(suggestion.getName());
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.addChild(child);
+                node = child;
+                path.add(node);
+                break;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge: node → middle("lap") → child("top")
+                Node middle = new Node(child.label.substring(0, common));
+                node.replaceChild(child, middle);
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                middle.top = child.top;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+        node.terminals.add(suggestion);
+        for (int p = path.size() - 1; p >= 0; p--) {
+            if (!offer(path.get(p), suggestion)) {
+                break; // not good enough here, so not good enough for any ancestor either
+            }
+        }
+    }
+
+    private void removeLocked(ProductSuggestion suggestion) {
+        String key = normalize(suggestion.getName());
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return;
+            }
+            node = child;
+            path.add(node);
+            i += child.label.length();
+        }
+        node.terminals.remove(suggestion);
+
+        // Drop nodes that no longer lead anywhere
+        for (int p = path.size() - 1; p > 0; p--) {
+            Node current = path.get(p);
+            if (!current.terminals.isEmpty() || current.childCount > 0) {
+                break;
+            }
+            path.get(p - 1).removeChild(current);
+            path.remove(p);
+        }
+        // Bottom-up: a node's best = best of its own terminals and its children's cached bests.
+        // A node whose list never held the entry is unaffected, and so are its ancestors.
+        for (int p = path.size() - 1; p >= 0; p--) {
+            Node current = path.get(p);
+            if (!Arrays.asList(current.top).contains(suggestion)) {
+                break;
+            }
+            List<ProductSuggestion> candidates = new ArrayList<>(current.terminals);
+            for (int c = 0; c < current.childCount; c++) {
+                candidates.addAll(Arrays.asList(current.children[c].top));
+            }
+            candidates.sort(RANKING);
+            current.top = candidates.subList(0, Math.min(MAX_SUGGESTIONS, candidates.size())).toArray(NONE);
+        }
+    }
+
+    /** Inserts into the node's sorted top list (copy-on-write); false if it did not make the cut. */
+    private static boolean offer(Node node, ProductSuggestion suggestion) {
+        ProductSuggestion[] top = node.top;
+        int index = Arrays.binarySearch(top, suggestion, RANKING);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index >= MAX_SUGGESTIONS) {
+            return false;
+        }
+        ProductSuggestion[] updated = new ProductSuggestion[Math.min(MAX_SUGGESTIONS, top.length + 1)];
+        System.arraycopy(top, 0, updated, 0, index);
+        updated[index] = suggestion;
+        System.arraycopy(top, index, updated, index + 1, updated.length - index - 1);
+        node.top = updated;
+        return true;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int n = 0;
+        while (n < max && label.charAt(n) == key.charAt(offset + n)) {
+            n++;
+        }
+        return n;
+    }
+
+    /** Children are kept in parallel arrays sorted by first character: compact and binary-searchable. */
+    private static final class Node {
+        String label;
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        int childCount;
+        List<ProductSuggestion> terminals = new ArrayList<>(1);
+        ProductSuggestion[] top = NONE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void addChild(Node child) {
+            char c = child.label.charAt(0);
+            int index = -Arrays.binarySearch(keys, 0, childCount, c) - 1;
+            if (childCount == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(2, childCount * 2));
+                children = Arrays.copyOf(children, keys.length);
+            }
+            System.arraycopy(keys, index, keys, index + 1, childCount - index);
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            keys[index] = c;
+            children[index] = child;
+            childCount++;
+        }
+
+        void replaceChild(Node old, Node replacement) {
+            children[Arrays.binarySearch(keys, 0, childCount, old.label.charAt(0))] = replacement;
+        }
+
+        void removeChild(Node child) {
+            int index = Arrays.binarySearch(keys, 0, childCount, child.label.charAt(0));
+            System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            childCount--;
+            children[childCount] = null;
+        }
+    }
+}
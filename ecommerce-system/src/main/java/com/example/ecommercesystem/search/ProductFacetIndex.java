@@ -0,0 +1,234 @@
+package com.example.ecommercesystem.search;
+
+import com.example.ecommercesystem.dto.FacetPage;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.model.Product;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Faceted navigation over compressed (Roaring) bitmaps.
+ *
+ * Every product gets a dense int ordinal; for each facet value (category 3, status IN_STOCK,
+ * price 100-500, launchYear 2023 ...) a bitmap holds the ordinals of the products having it.
+ * - filter = OR of the selected values within a facet, AND across facets
+ * - facet count = cardinality of (value bitmap AND filters of the other facets)
+ * All of it is word-level bitmap arithmetic: no GROUP BY, no row access.
+ *
+ * Ordinals are handed out in insertion order (the startup scan goes by id), so pages come back
+ * in roughly ascending id order. A deleted product's ordinal is not reused.
+ *
+ * Built and kept up to date by {@link ProductIndexes}.
+ */
+@Component
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String STATUS = "status";
+    public static final String PRICE = "price";
+    public static final String LAUNCH_YEAR = "launchYear";
+    public static final List<String> FACETS = Collections.unmodifiableList(Arrays.asList(CATEGORY, STATUS, PRICE, LAUNCH_YEAR));
+
+    /** Value for products without a status or launch date. */
+    static final String NONE = "none";
+
+    /** Upper bounds of the price buckets: "0-10", "10-50", ..., "1000+" */
+    private static final double[] PRICE_BOUNDS = {10, 50, 100, 500, 1000};
+
+    private final Map<String, Map<String, RoaringBitmap>> bitmaps = new HashMap<>();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] idsByOrdinal = new long[1024];
+    private String[][] valuesByOrdinal = new String[1024][];
+    private int nextOrdinal;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductFacetIndex() {
+        for (String facet : FACETS) {
+            bitmaps.put(facet, new HashMap<>());
+        }
+    }
+
+    /** Adds or replaces a product's entry. */
+    public void index(Product product) {
+        String[] values = valuesOf(product);
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(product.getId());
+            if (ordinal != null) {
+                unset(ordinal);
+            } else {
+                ordinal = nextOrdinal++;
+                if (ordinal == idsByOrdinal.length) {
+                    idsByOrdinal = Arrays.copyOf(idsByOrdinal, ordinal * 2);
+                    valuesByOrdinal = Arrays.copyOf(valuesByOrdinal, ordinal * 2);
+                }
+                ordinals.put(product.getId(), ordinal);
+                idsByOrdinal[ordinal] = product.getId();
+            }
+            for (int f = 0; f < FACETS.size(); f++) {
+                bitmaps.get(FACETS.get(f)).computeIfAbsent(values[f], v -> new RoaringBitmap()).add(ordinal);
+            }
+            valuesByOrdinal[ordinal] = values;
+            all.add(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(productId);
+            if (ordinal != null) {
+                unset(ordinal);
+                valuesByOrdinal[ordinal] = null;
+                all.remove(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param filters facet name → accepted values; facets that are absent or empty do not filter
+     * @throws InvalidRequestException for an unknown facet name
+     */
+    public FacetPage query(Map<String, ? extends Collection<String>> filters, int page, int size) {
+        for (String facet : filters.keySet()) {
+            if (!FACETS.contains(facet)) {
+                throw new InvalidRequestException("Unknown facet " + facet + ", expected one of " + FACETS);
+            }
+        }
+        lock.readLock().lock();
+        try {
+            Map<String, RoaringBitmap> selections = new HashMap<>();
+            for (Map.Entry<String, ? extends Collection<String>> filter : filters.entrySet()) {
+                if (filter.getValue() != null && !filter.getValue().isEmpty()) {
+                    selections.put(filter.getKey(), union(filter.getKey(), filter.getValue()));
+                }
+            }
+
+            RoaringBitmap matches = intersect(selections, null);
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                // Disjunctive counts: ignore this facet's own selection
+                RoaringBitmap base = selections.containsKey(facet) ? intersect(selections, facet) : matches;
+                facets.put(facet, counts(facet, base));
+            }
+            return new FacetPage(page(matches, page, size), matches.getLongCardinality(), page, size, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String priceBucket(double price) {
+        double lower = 0;
+        for (double upper : PRICE_BOUNDS) {
+            if (price < upper) {
+                return format(lower) + "-" + format(upper);
+            }
+            lower = upper;
+        }
+        return format(lower) + "+";
+    }
+
+    private static String format(double bound) {
+        return bound == Math.rint(bound) ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+
+    // In FACETS order
+    private static String[] valuesOf(Product product) {
+        return new String[]{
+                product.getCategory() != null && product.getCategory().getId() != null
+                        ? String.valueOf(product.getCategory().getId()) : NONE,
+                product.getStatus() != null ? product.getStatus().name() : NONE,
+                priceBucket(product.getPrice()),
+                product.getLaunchDate() != null ? String.valueOf(product.getLaunchDate().getYear()) : NONE
+        };
+    }
+
+    private void unset(int ordinal) {
+        String[] previous = valuesByOrdinal[ordinal];
+        for (int f = 0; f < FACETS.size(); f++) {
+            Map<String, RoaringBitmap> facet = bitmaps.get(FACETS.get(f));
+            RoaringBitmap bitmap = facet.get(previous[f]);
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                facet.remove(previous[f]);
+            }
+        }
+    }
+
+    private RoaringBitmap union(String facet, Collection<String> values) {
+        RoaringBitmap union = new RoaringBitmap();
+        for (String value : values) {
+            RoaringBitmap bitmap = bitmaps.get(facet).get(value);
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    private RoaringBitmap intersect(Map<String, RoaringBitmap> selections, String skipFacet) {
+        RoaringBitmap result = all.clone();
+        for (Map.Entry<String, RoaringBitmap> selection : selections.entrySet()) {
+            if (!selection.getKey().equals(skipFacet)) {
+                result.and(selection.getValue());
+            }
+        }
+        return result;
+    }
+
+    // Most frequent first, values without matches left out
+    private Map<String, Integer> counts(String facet, RoaringBitmap base) {
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+        for (Map.Entry<String, RoaringBitmap> value : bitmaps.get(facet).entrySet()) {
+            int count = RoaringBitmap.andCardinality(base, value.getValue());
+            if (count > 0) {
+                counts.add(new AbstractMap.SimpleImmutableEntry<>(value.getKey(), count));
+            }
+        }
+        counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Integer> ordered = new LinkedHashMap<>();
+        counts.forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+        return ordered;
+    }
+
+    private List<Long> page(RoaringBitmap matches, int page, int size) {
+        long offset = (long) page * size;
+        if (offset >= matches.getLongCardinality()) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = new ArrayList<>(size);
+        PeekableIntIterator iterator = matches.getIntIterator();
+        iterator.advanceIfNeeded(matches.select((int) offset)); // jump straight to the page's first ordinal
+        while (iterator.hasNext() && ids.size() < size) {
+            ids.add(idsByOrdinal[iterator.next()]);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.ecommercesystem.search;
+
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the in-memory product indexes ({@link ProductSearchIndex}, {@link ProductAutocomplete},
+ * {@link ProductFacetIndex}, {@link ProductPriceIndex}) in step with the product table.
+ *
+ * - Built once at startup from a single streaming scan shared by all indexes.
+ * - Updated through {@link #onSaved(Product)} / {@link #onDeleted(Long)} on every save, import
+ *   and delete handled by this node.
+ *
+ * The web server takes requests before the scan ends, and a row the scan read before a
+ * concurrent write committed would otherwise be indexed after that write's update and win.
+ * Updates arriving during the build are therefore applied right away and also recorded, then
+ * replayed once the scan is done, so the last update of every product is the live one.
+ *
+ * The indexes are per node and nothing is broadcast: search, autocomplete, facet and price-range
+ * results only reflect writes handled by this node since its start, and writes handled by other
+ * nodes show up here after the next restart.
+ */
+@Component
+public class ProductIndexes {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductIndexes.class);
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductAutocomplete autocomplete;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductPriceIndex priceIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Updates seen while build() scans the table; null when no build is running
+    private List<Runnable> duringBuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        int[] count = {0};
+        synchronized (this) {
+            duringBuild = new ArrayList<>();
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                try (Stream<Product> products = productRepository.streamAll()) {
+                    products.forEach(product -> {
+                        index(product);
+                        entityManager.detach(product);
+                        count[0]++;
+                    });
+                }
+            });
+        } catch (RuntimeException ex) {
+            // Keep the application up; search just returns fewer hits until the next start
+            logger.error("Building the product indexes failed after {} products", count[0], ex);
+            return;
+        } finally {
+            replayUpdatesDuringBuild();
+            priceIndex.refresh();
+        }
+        logger.info("Product indexes built: {} products, {} search terms in {} ms",
+                count[0], searchIndex.termCount(), System.currentTimeMillis() - start);
+    }
+
+    public void onSaved(Product product) {
+        record(() -> index(product));
+        index(product);
+    }
+
+    public void onDeleted(Long productId) {
+        record(() -> remove(productId));
+        remove(productId);
+    }
+
+    private synchronized void record(Runnable update) {
+        if (duringBuild != null) {
+            duringBuild.add(update);
+        }
+    }
+
+    // Holding the lock: an update recorded after the replay started is replayed too, one arriving
+    // after it finished is no longer recorded and cannot be overwritten by the scan any more
+    private synchronized void replayUpdatesDuringBuild() {
+        List<Runnable> updates = duringBuild;
+        duringBuild = null;
+        updates.forEach(Runnable::run);
+        if (!updates.isEmpty()) {
+            logger.info("Replayed {} product updates received while the indexes were built", updates.size());
+        }
+    }
+
+    private void index(Product product) {
+        searchIndex.index(product);
+        autocomplete.index(product);
+        facetIndex.index(product);
+        priceIndex.index(product);
+    }
+
+    private void remove(Long productId) {
+        searchIndex.remove(productId);
+        autocomplete.remove(productId);
+        facetIndex.remove(productId);
+        priceIndex.remove(productId);
+    }
+}
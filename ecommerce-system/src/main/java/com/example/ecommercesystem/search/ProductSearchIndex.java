@@ -0,0 +1,180 @@
+package com.example.ecommercesystem.search;
+
+import com.example.ecommercesystem.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over Product.name and Product.description.
+ *
+ * Why?:
+ * - LIKE '%laptop%' cannot use a B-tree index, so every search scans the product table.
+ * - Here a search is a few sorted-map range lookups, independent of catalog size.
+ *
+ * Structure:
+ * - term → (product id → weighted term frequency); a name hit counts NAME_WEIGHT, a description hit 1
+ * - terms are kept sorted, so "lap" matches "laptop", "laptops" via one range scan
+ * - product id → its terms, so a re-index can remove the old postings first
+ *
+ * Ranking: every query token must match (AND); per token the best matching term scores
+ * tf * idf, halved for a prefix (vs exact) match; scores are summed over tokens.
+ *
+ * Built and kept up to date by {@link ProductIndexes}.
+ */
+@Component
+public class ProductSearchIndex {
+
+    static final int NAME_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByProduct = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Adds or replaces a product's entry. */
+    public void index(Product product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(product.getName())) {
+            frequencies.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(product.getDescription())) {
+            frequencies.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.getId());
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(product.getId(), entry.getValue());
+            }
+            termsByProduct.put(product.getId(), frequencies.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of the best matching products, best first (ties by id); empty for a blank query
+     */
+    public List<Long> search(String query, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Double> scores = null;
+        lock.readLock().lock();
+        try {
+            int documents = termsByProduct.size();
+            for (String token : tokens) {
+                Map<Long, Double> tokenScores = scoreToken(token, documents);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + tokenScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Lowercase alphanumeric runs: "Gaming-Laptop 15\"" → [gaming, laptop, 15] */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Best tf-idf per product over every term starting with the token
+    private Map<Long, Double> scoreToken(String token, int documents) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> term
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            Map<Long, Integer> products = term.getValue();
+            double idf = Math.log(1 + (double) documents / products.size());
+            double factor = term.getKey().equals(token) ? 1.0 : PREFIX_MATCH_FACTOR;
+            for (Map.Entry<Long, Integer> posting : products.entrySet()) {
+                scores.merge(posting.getKey(), posting.getValue() * idf * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void removeLocked(Long productId) {
+        Set<String> terms = termsByProduct.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> products = postings.get(term);
+            if (products != null) {
+                products.remove(productId);
+                if (products.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
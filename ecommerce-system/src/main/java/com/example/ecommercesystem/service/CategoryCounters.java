@@ -0,0 +1,188 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.CategoryStats;
+import com.example.ecommercesystem.model.CategoryProductCount;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryProductCountRepository;
+import com.example.ecommercesystem.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-category product counters: the category_product_count table is the source of truth,
+ * an in-memory mirror serves the reads.
+ *
+ * Writes ({@link #apply(Deltas)}):
+ * - run inside the caller's transaction (MANDATORY), so a rolled-back product write never
+ *   moves a counter; deltas for the same key are summed first, then applied in key order
+ *   (a fixed lock order, so two transactions cannot deadlock on each other's counter rows)
+ * - the mirror is bumped only after commit
+ *
+ * Reads: the mirror holds a LongAdder per (category, status), i.e. striped cells instead of one
+ * contended word, and is reloaded from the table every refresh-interval ms to pick up writes
+ * made by other nodes.
+ */
+@Component
+public class CategoryCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryCounters.class);
+
+    @Autowired
+    private CategoryProductCountRepository countRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.category-counters.refresh-interval:5000}")
+    private long refreshIntervalMillis;
+
+    private volatile Mirror mirror = new Mirror();
+    private volatile long loadedAtMillis;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    /** Seeds an empty counter table (first start after this table was introduced), then loads the mirror. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (countRepository.count() == 0 && productRepository.count() > 0) {
+                    int rows = countRepository.insertCountsFromProducts();
+                    logger.info("Seeded {} category counters from the product table", rows);
+                }
+            });
+            reload();
+        } catch (RuntimeException ex) {
+            logger.error("Could not initialize category counters", ex);
+        }
+    }
+
+    public Deltas deltas() {
+        return new Deltas();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Deltas deltas) {
+        deltas.values.entrySet().removeIf(entry -> entry.getValue() == 0);
+        if (deltas.values.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<CategoryProductCount.Key, Long> entry : deltas.values.entrySet()) {
+            countRepository.increment(entry.getKey().getCategoryId(), entry.getKey().getStatus(), entry.getValue());
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Mirror current = mirror;
+                deltas.values.forEach((key, delta) -> current.adder(key.getCategoryId(), key.getStatus()).add(delta));
+            }
+        });
+    }
+
+    /** @return stats of every category with more than {@code minProducts} products, largest first */
+    public List<CategoryStats> stats(long minProducts) {
+        refreshIfStale();
+        Mirror current = mirror;
+        List<CategoryStats> result = new ArrayList<>();
+        for (Map.Entry<Long, ConcurrentMap<String, LongAdder>> category : current.counts.entrySet()) {
+            Map<String, Long> byStatus = new TreeMap<>();
+            long total = 0;
+            for (Map.Entry<String, LongAdder> status : category.getValue().entrySet()) {
+                long count = status.getValue().sum();
+                if (count != 0) {
+                    byStatus.put(status.getKey(), count);
+                    total += count;
+                }
+            }
+            if (total > minProducts) {
+                result.add(new CategoryStats(category.getKey(), current.names.get(category.getKey()), total, byStatus));
+            }
+        }
+        result.sort(Comparator.comparingLong(CategoryStats::getTotalProducts).reversed()
+                .thenComparing(CategoryStats::getCategoryId));
+        return result;
+    }
+
+    /** Replaces the mirror with the current table contents. */
+    public void reload() {
+        Mirror fresh = new Mirror();
+        for (CategoryProductCountRepository.CountRow row : countRepository.findAllWithCategoryName()) {
+            fresh.adder(row.getCategoryId(), row.getStatus()).add(row.getProductCount());
+            fresh.names.put(row.getCategoryId(), row.getCategoryName());
+        }
+        mirror = fresh;
+        loadedAtMillis = System.currentTimeMillis();
+    }
+
+    // One caller reloads; everyone else keeps reading the current mirror meanwhile
+    private void refreshIfStale() {
+        if (System.currentTimeMillis() - loadedAtMillis < refreshIntervalMillis || !reloading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException ex) {
+            logger.warn("Category counter refresh failed, serving the previous snapshot", ex);
+            loadedAtMillis = System.currentTimeMillis(); // do not retry on every request
+        } finally {
+            reloading.set(false);
+        }
+    }
+
+    /** Counter changes collected during one transaction. */
+    public static final class Deltas {
+        private final Map<CategoryProductCount.Key, Long> values = new TreeMap<>(
+                Comparator.comparing(CategoryProductCount.Key::getCategoryId).thenComparing(CategoryProductCount.Key::getStatus));
+
+        public Deltas add(Long categoryId, Product.AvailabilityStatus status, long delta) {
+            values.merge(new CategoryProductCount.Key(categoryId, CategoryProductCount.statusKey(status)), delta, Long::sum);
+            return this;
+        }
+
+        public Deltas inserted(Product product) {
+            return add(product.getCategory().getId(), product.getStatus(), 1);
+        }
+
+        public Deltas deleted(Long categoryId, Product.AvailabilityStatus status) {
+            return add(categoryId, status, -1);
+        }
+
+        /** A move to another category and/or status: -1 on the old key, +1 on the new one. */
+        public Deltas changed(Long oldCategoryId, Product.AvailabilityStatus oldStatus, Product product) {
+            return deleted(oldCategoryId, oldStatus).inserted(product);
+        }
+    }
+
+    private static final class Mirror {
+        final ConcurrentMap<Long, ConcurrentMap<String, LongAdder>> counts = new ConcurrentHashMap<>();
+        final ConcurrentMap<Long, String> names = new ConcurrentHashMap<>();
+
+        LongAdder adder(Long categoryId, String status) {
+            return counts.computeIfAbsent(categoryId, id -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(status, s -> new LongAdder());
+        }
+    }
+}
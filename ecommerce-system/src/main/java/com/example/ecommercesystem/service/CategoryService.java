@@ -0,0 +1,14 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.CategoryStats;
+
+import java.util.List;
+
+public interface CategoryService {
+
+    /**
+     * Product counts per category and availability status, largest categories first.
+     * Served from the in-memory counter mirror (refreshed every few seconds), no product scan.
+     */
+    List<CategoryStats> getCategoryStats(long minProducts);
+}
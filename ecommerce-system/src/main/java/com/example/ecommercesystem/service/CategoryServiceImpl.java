@@ -0,0 +1,19 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.CategoryStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class CategoryServiceImpl implements CategoryService {
+
+    @Autowired
+    private CategoryCounters categoryCounters;
+
+    @Override
+    public List<CategoryStats> getCategoryStats(long minProducts) {
+        return categoryCounters.stats(minProducts);
+    }
+}
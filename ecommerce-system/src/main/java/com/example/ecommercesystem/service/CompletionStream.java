@@ -0,0 +1,103 @@
+package com.example.ecommercesystem.service;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * Starts one asynchronous task per item and hands each result to a sink as soon as it is ready,
+ * instead of waiting for CompletableFuture.allOf(...) of the whole batch.
+ *
+ * Why?:
+ * - With allOf the first result is available when the slowest task finishes. Here the caller
+ *   sees the first result when the fastest one does, and memory holds at most window results.
+ *
+ * - At most window tasks are started and not yet handed to the sink: the items iterator is only
+ *   advanced as results go out, so a large (lazily read) source is never materialized.
+ * - ordered = false: results in completion order.
+ * - ordered = true: results in item order; completed results wait in a reorder buffer that the
+ *   window bounds, so one slow task stalls the stream after window more results, not the heap.
+ *
+ * Everything happens on the calling thread (the sink included); the tasks run wherever start
+ * schedules them. If the sink throws, no new tasks are started and the exception is rethrown;
+ * tasks already running finish and their results are dropped.
+ */
+public final class CompletionStream {
+
+    /** Receives results in emission order; error is the task's failure (result is then null). */
+    @FunctionalInterface
+    public interface Sink<T, R> {
+        void accept(long sequence, T item, R result, Throwable error) throws IOException;
+    }
+
+    private CompletionStream() {
+    }
+
+    /** @return the number of results handed to the sink */
+    public static <T, R> long forEachCompleted(Iterator<T> items, Function<T, CompletableFuture<R>> start,
+                                               int window, boolean ordered, Sink<T, R> sink)
+            throws IOException, InterruptedException {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be >= 1, got " + window);
+        }
+        BlockingQueue<Done<T, R>> completed = new LinkedBlockingQueue<>();
+        Map<Long, Done<T, R>> reorderBuffer = new TreeMap<>();
+        long started = 0;
+        long emitted = 0;
+
+        while (true) {
+            while (started - emitted < window && items.hasNext()) {
+                long sequence = started++;
+                T item = items.next();
+                CompletableFuture<R> future;
+                try {
+                    future = start.apply(item);
+                } catch (RuntimeException ex) {
+                    future = new CompletableFuture<>();
+                    future.completeExceptionally(ex);
+                }
+                future.whenComplete((result, error) -> completed.add(new Done<>(sequence, item, result, unwrap(error))));
+            }
+            if (started == emitted) {
+                return emitted; // source exhausted, everything emitted
+            }
+
+            Done<T, R> done = completed.take();
+            if (!ordered) {
+                sink.accept(done.sequence, done.item, done.result, done.error);
+                emitted++;
+                continue;
+            }
+            reorderBuffer.put(done.sequence, done);
+            Done<T, R> next;
+            while ((next = reorderBuffer.remove(emitted)) != null) {
+                sink.accept(next.sequence, next.item, next.result, next.error);
+                emitted++;
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static final class Done<T, R> {
+        final long sequence;
+        final T item;
+        final R result;
+        final Throwable error;
+
+        Done(long sequence, T item, R result, Throwable error) {
+            this.sequence = sequence;
+            this.item = item;
+            this.result = result;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.InventoryLevel;
+import com.example.ecommercesystem.dto.InventoryReservation;
+
+public interface InventoryService {
+
+    /**
+     * Takes units from product.quantity_available and holds them for a buyer until the reservation
+     * TTL runs out. Returns only once the database has taken them.
+     * @throws com.example.ecommercesystem.exception.InsufficientStockException when not enough units are free
+     */
+    InventoryReservation reserve(Long productId, int quantity);
+
+    /** Sells the reserved units (already taken from the product table by reserve). */
+    InventoryReservation commit(String reservationId);
+
+    /** Puts the reserved units back on sale; they reach the product table with the next write-back. */
+    void release(String reservationId);
+
+    /**
+     * Adds units to product.quantity_available.
+     * @throws com.example.ecommercesystem.exception.InvalidRequestException when quantity is not 1..1000
+     *         or the stock would end up above 1000
+     */
+    InventoryLevel restock(Long productId, int quantity);
+
+    InventoryLevel getLevel(Long productId);
+
+    /** Stops tracking a deleted product. */
+    void onProductDeleted(Long productId);
+}
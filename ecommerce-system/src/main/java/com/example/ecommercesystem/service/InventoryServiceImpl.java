@@ -0,0 +1,239 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.cache.ProductListCache;
+import com.example.ecommercesystem.dto.InventoryLevel;
+import com.example.ecommercesystem.dto.InventoryReservation;
+import com.example.ecommercesystem.exception.InsufficientStockException;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.exception.ResourceNotFoundException;
+import com.example.ecommercesystem.inventory.StockLedger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Inventory reservations against product.quantity_available.
+ *
+ * Why not read quantityAvailable, subtract, saveProduct?:
+ * - Two buyers read 5, both write 4: one sale is lost (and the item oversold).
+ * Here a reservation takes its units with one guarded UPDATE in its own transaction, and is only
+ * acknowledged after that transaction committed:
+ *   UPDATE product SET quantity_available = quantity_available - ? WHERE id = ? AND quantity_available >= ?
+ * The row lock and the guard make the database the only arbiter, so no node, however many run,
+ * can sell a unit twice. The {@link StockLedger} keeps this node's open reservations (for expiry)
+ * and a read-side view of the stock; it never decides whether units are free.
+ *
+ * - commit: no database write, the units already left quantity_available
+ * - release / expiry: the units are given back asynchronously, summed per product in one batched
+ *   UPDATE every flush-interval ms. Lost give-backs (node crash) undercount stock, never oversell.
+ * - restock: synchronous guarded UPDATE; a restock taking quantity_available above 1000 (Product's
+ *   bound) is refused with 400. Give-backs are capped at the same bound.
+ *
+ * Trade-offs:
+ * - Buyers of one product serialize on its row lock for the length of one UPDATE.
+ * - Reservations are per node: commit or release one on the node that made it, otherwise it
+ *   answers 404 and the units come back when it expires.
+ * - quantityAvailable is not updatable through saveProduct any more; stock moves through this API.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryServiceImpl.class);
+    private static final int MAX_QUANTITY = 1000; // same bound as Product.quantityAvailable
+
+    private static final String TAKE = "UPDATE product SET quantity_available = quantity_available - ? "
+            + "WHERE id = ? AND quantity_available >= ?";
+    private static final String RESTOCK = "UPDATE product SET quantity_available = quantity_available + ? "
+            + "WHERE id = ? AND quantity_available <= " + MAX_QUANTITY + " - ?";
+    // Capped: a restock may have filled the product up while these units were out
+    private static final String GIVE_BACK = "UPDATE product SET quantity_available = LEAST(quantity_available + ?, "
+            + MAX_QUANTITY + ") WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${app.inventory.reservation-ttl:300000}")
+    private long reservationTtlMillis;
+
+    @Value("${app.inventory.sweep-interval:1000}")
+    private long sweepIntervalMillis;
+
+    @Value("${app.inventory.flush-interval:500}")
+    private long flushIntervalMillis;
+
+    private StockLedger ledger;
+    private ScheduledExecutorService scheduler;
+    private TransactionTemplate transactionTemplate;
+
+    /** Products whose stored stock changed since the last flush: their cached entity is stale. */
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        ledger = new StockLedger(this::loadQuantity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::expireReservations, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        flush(); // released units must not stay in memory only
+    }
+
+    @Override
+    public InventoryReservation reserve(Long productId, int quantity) {
+        checkQuantity(quantity);
+        update(TAKE, productId, quantity, left -> new InsufficientStockException("Only " + left
+                + " units of product " + productId + " available, requested " + quantity));
+        // Acknowledged only now: the units are gone from the database, not just from this node
+        return ledger.reserve(productId, quantity, reservationTtlMillis);
+    }
+
+    @Override
+    public InventoryReservation commit(String reservationId) {
+        return ledger.commit(reservationId);
+    }
+
+    @Override
+    public void release(String reservationId) {
+        ledger.release(reservationId);
+    }
+
+    @Override
+    public InventoryLevel restock(Long productId, int quantity) {
+        checkQuantity(quantity);
+        update(RESTOCK, productId, quantity, stored -> new InvalidRequestException("Restocking " + quantity
+                + " units would take product " + productId + " above " + MAX_QUANTITY + " units (" + stored + " available)"));
+        return ledger.level(productId);
+    }
+
+    @Override
+    public InventoryLevel getLevel(Long productId) {
+        return ledger.level(productId);
+    }
+
+    @Override
+    public void onProductDeleted(Long productId) {
+        ledger.forget(productId);
+    }
+
+    /**
+     * Runs a guarded stock UPDATE (quantity, id, quantity) and reads the row back in the same
+     * transaction, so the ledger's view and the refusal message show what the guard saw.
+     * @param refused exception for a row the guard kept unchanged, given its quantity_available
+     */
+    private void update(String sql, Long productId, int quantity, IntFunction<RuntimeException> refused) {
+        int[] updated = new int[1];
+        Integer available = transactionTemplate.execute(status -> {
+            updated[0] = jdbcTemplate.update(sql, quantity, productId, quantity);
+            return loadQuantity(productId);
+        });
+        if (available == null) {
+            throw new ResourceNotFoundException("Product not found with id " + productId);
+        }
+        ledger.seen(productId, available);
+        if (updated[0] == 0) {
+            throw refused.apply(available);
+        }
+        changed.add(productId);
+    }
+
+    /** Writes the queued give-backs in one batched transaction (on failure they are queued again), then evicts stale products. */
+    private void flush() {
+        Map<Long, Integer> deltas = ledger.drainWriteBack();
+        if (!deltas.isEmpty()) {
+            giveBack(deltas);
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Long id : changed) {
+            if (changed.remove(id)) {
+                ids.add(id);
+            }
+        }
+        try {
+            Cache productCache = cacheManager.getCache(ProductListCache.PRODUCT);
+            if (productCache != null) {
+                ids.forEach(productCache::evict); // cached products carry the old quantityAvailable
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Could not evict {} products after an inventory change", ids.size(), ex);
+        }
+    }
+
+    private void giveBack(Map<Long, Integer> deltas) {
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{deltas.get(id), id});
+        }
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(GIVE_BACK, args));
+        } catch (RuntimeException ex) {
+            logger.warn("Giving back released units of {} products failed, retrying with the next flush", ids.size(), ex);
+            ledger.requeue(deltas);
+            return;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            if (counts != null && counts[i] == 0) {
+                logger.warn("Released units of deleted product {} dropped ({})", ids.get(i), deltas.get(ids.get(i)));
+            }
+            ledger.invalidate(ids.get(i));
+            changed.add(ids.get(i));
+        }
+    }
+
+    private void expireReservations() {
+        try {
+            int expired = ledger.expire(System.currentTimeMillis());
+            if (expired > 0) {
+                logger.debug("Released {} expired reservations", expired);
+            }
+        } catch (RuntimeException ex) {
+            logger.error("Reservation expiry failed", ex); // keep the schedule alive
+        }
+    }
+
+    private Integer loadQuantity(Long productId) {
+        List<Integer> rows = jdbcTemplate.queryForList("SELECT quantity_available FROM product WHERE id = ?", Integer.class, productId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static void checkQuantity(int quantity) {
+        if (quantity < 1 || quantity > MAX_QUANTITY) {
+            throw new InvalidRequestException("quantity must be between 1 and " + MAX_QUANTITY + ", got " + quantity);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.repository.ProductRepository;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation token for keyset paging: the sort it was issued for plus the
+ * (sortValue, id) of the last row returned.
+ *
+ * Wire format: base64url("v1|field|direction|lastId|lastValue"). Clients must treat it as opaque.
+ */
+@Getter
+public final class KeysetCursor {
+
+    private static final String VERSION = "v1";
+
+    /**
+     * Columns that can drive keyset paging: NOT NULL (NULLs break the row-value comparison) and
+     * backed by an (column, id) index on the product table (see Product). quantityAvailable is
+     * left out on purpose: it changes on every reservation, and an index on it would be rewritten
+     * with it.
+     */
+    private static final Map<String, Function<String, Object>> PARSERS = new LinkedHashMap<>();
+
+    static {
+        PARSERS.put("id", Long::valueOf);
+        PARSERS.put("name", s -> s);
+        PARSERS.put("price", Double::valueOf);
+    }
+
+    private final String sortField;
+    private final Sort.Direction direction;
+    private final Long lastId;
+    private final Object lastValue;
+
+    private KeysetCursor(String sortField, Sort.Direction direction, Long lastId, Object lastValue) {
+        this.sortField = sortField;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public static boolean supports(String sortField) {
+        return PARSERS.containsKey(sortField);
+    }
+
+    public static Iterable<String> supportedFields() {
+        return PARSERS.keySet();
+    }
+
+    /** Cursor pointing just after the given row. */
+    public static KeysetCursor after(ProductRepository.SeekKey last, String sortField, Sort.Direction direction) {
+        return new KeysetCursor(sortField, direction, last.getId(), last.getSortValue());
+    }
+
+    public String encode() {
+        String raw = VERSION + "|" + sortField + "|" + direction + "|" + lastId + "|" + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 5);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Malformed cursor");
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0]) || !supports(parts[1])) {
+            throw new InvalidRequestException("Malformed cursor");
+        }
+        try {
+            return new KeysetCursor(parts[1], Sort.Direction.fromString(parts[2]),
+                    Long.valueOf(parts[3]), PARSERS.get(parts[1]).apply(parts[4]));
+        } catch (IllegalArgumentException ex) { // NumberFormatException included
+            throw new InvalidRequestException("Malformed cursor");
+        }
+    }
+}
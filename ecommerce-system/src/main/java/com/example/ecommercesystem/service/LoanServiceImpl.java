@@ -4,6 +4,7 @@ import com.example.ecommercesystem.model.Loan;
 import com.example.ecommercesystem.repository.LoanRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,10 +14,13 @@ public class LoanServiceImpl implements LoanService {
     @Autowired
     private LoanRepository loanRepository;
 
+    // Read-only: served by a replica when app.datasource.replica.urls is set
+    @Transactional(readOnly = true)
     public List<Loan> getAllLoans() {
         return loanRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Loan getLoanById(Long id) {
         return loanRepository.findById(id).orElse(null);
     }
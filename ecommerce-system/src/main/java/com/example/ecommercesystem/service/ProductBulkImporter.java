@@ -0,0 +1,243 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.cache.ProductListCache;
+import com.example.ecommercesystem.dto.ProductImportReport;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import com.example.ecommercesystem.search.ProductIndexes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk product import with real JDBC batching.
+ *
+ * Why is this faster than looping over saveProduct?:
+ * - Product ids come from a pooled-lo sequence (allocationSize rows per round trip), so Hibernate
+ *   can batch INSERTs; IDENTITY would force one INSERT + generated-key fetch per row.
+ * - hibernate.jdbc.batch_size + order_inserts group the INSERTs, and MySQL's
+ *   rewriteBatchedStatements turns each batch into one multi-row INSERT.
+ * - One transaction per chunk instead of per row, and flush() + clear() after each chunk keeps
+ *   the persistence context (and heap) flat.
+ * - No per-row cache work: only the id-lists are invalidated once at the end.
+ * - Category counters get one summed update per (category, status) per chunk.
+ *
+ * Each chunk is validated first; invalid rows are reported and skipped, valid rows committed.
+ */
+@Component
+public class ProductBulkImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductBulkImporter.class);
+    private static final int MAX_ERRORS_PER_CHUNK = 20;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductListCache productListCache;
+
+    @Autowired
+    private ProductIndexes productIndexes;
+
+    @Autowired
+    private CategoryCounters categoryCounters;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ProductImportReport importProducts(InputStream in, ProductExportFormat format) {
+        ProductImportReport report = new ProductImportReport();
+        report.setChunkSize(chunkSize);
+        long start = System.currentTimeMillis();
+        Map<String, Category> categoriesByName = new HashMap<>();
+
+        ProductImportReader reader = ProductImportReader.create(format, in, objectMapper);
+        long rowNumber = 0;
+        List<Map<String, String>> rows = new ArrayList<>(chunkSize);
+        while (reader.hasNext()) {
+            rows.add(reader.next());
+            if (rows.size() == chunkSize) {
+                report.getChunks().add(importChunk(report.getChunks().size() + 1, rowNumber + 1, rows, categoriesByName));
+                rowNumber += rows.size();
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            report.getChunks().add(importChunk(report.getChunks().size() + 1, rowNumber + 1, rows, categoriesByName));
+        }
+
+        for (ProductImportReport.ChunkResult chunk : report.getChunks()) {
+            report.setAccepted(report.getAccepted() + chunk.getAccepted());
+            report.setRejected(report.getRejected() + chunk.getRejected());
+        }
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        report.setRowsPerSecond(report.getElapsedMillis() == 0 ? report.getAccepted()
+                : report.getAccepted() * 1000.0 / report.getElapsedMillis());
+        if (report.getAccepted() > 0) {
+            productListCache.onProductSaved(true);
+        }
+        logger.info("Product import finished: {} accepted, {} rejected in {} ms ({} rows/s)",
+                report.getAccepted(), report.getRejected(), report.getElapsedMillis(), (long) report.getRowsPerSecond());
+        return report;
+    }
+
+    private ProductImportReport.ChunkResult importChunk(int chunkNumber, long firstRow, List<Map<String, String>> rows,
+                                                         Map<String, Category> categoriesByName) {
+        long start = System.currentTimeMillis();
+        ProductImportReport.ChunkResult result = new ProductImportReport.ChunkResult();
+        result.setChunk(chunkNumber);
+        result.setFirstRow(firstRow);
+
+        List<Product> persisted = new ArrayList<>(rows.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < rows.size(); i++) {
+                    Product product = toValidProduct(rows.get(i), firstRow + i, categoriesByName, result);
+                    if (product != null) {
+                        entityManager.persist(product);
+                        persisted.add(product);
+                        result.setAccepted(result.getAccepted() + 1);
+                    }
+                }
+                // One counter update per (category, status) in the chunk, not per row
+                CategoryCounters.Deltas deltas = categoryCounters.deltas();
+                persisted.forEach(deltas::inserted);
+                categoryCounters.apply(deltas);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            // Only committed rows become searchable
+            persisted.forEach(productIndexes::onSaved);
+        } catch (RuntimeException ex) {
+            // The whole chunk rolled back: report every row of it as rejected and move on
+            logger.warn("Import chunk {} (rows {}-{}) failed", chunkNumber, firstRow, firstRow + rows.size() - 1, ex);
+            result.setAccepted(0);
+            result.setRejected(rows.size());
+            addError(result, "chunk rolled back: " + ex.getMessage());
+            categoriesByName.clear(); // categories created in this chunk were rolled back too
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        logger.info("Import chunk {}: rows {}-{}, {} accepted, {} rejected, {} ms", chunkNumber, firstRow,
+                firstRow + rows.size() - 1, result.getAccepted(), result.getRejected(), result.getElapsedMillis());
+        return result;
+    }
+
+    private Product toValidProduct(Map<String, String> row, long rowNumber, Map<String, Category> categoriesByName,
+                                   ProductImportReport.ChunkResult result) {
+        Product product;
+        try {
+            product = toProduct(row, categoriesByName);
+        } catch (RuntimeException ex) { // NumberFormatException, DateTimeParseException, unknown enum ...
+            reject(result, rowNumber, ex.getMessage());
+            return null;
+        }
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            StringBuilder message = new StringBuilder();
+            for (ConstraintViolation<Product> violation : violations) {
+                message.append(message.length() > 0 ? "; " : "")
+                        .append(violation.getPropertyPath()).append(' ').append(violation.getMessage());
+            }
+            reject(result, rowNumber, message.toString());
+            return null;
+        }
+        if (product.getCategory() == null) {
+            reject(result, rowNumber, "categoryId or categoryName is required");
+            return null;
+        }
+        return product;
+    }
+
+    private Product toProduct(Map<String, String> row, Map<String, Category> categoriesByName) {
+        Product product = new Product(); // "id" is ignored: imported rows are always new products
+        product.setName(row.get("name"));
+        product.setDescription(row.get("description"));
+        product.setPrice(row.get("price") != null ? Double.parseDouble(row.get("price")) : 0);
+        product.setRegisteredTime(row.get("registeredTime") != null
+                ? Timestamp.from(Instant.parse(row.get("registeredTime")))
+                : new Timestamp(System.currentTimeMillis()));
+        product.setContactEmail(row.get("contactEmail"));
+        product.setQuantityAvailable(row.get("quantityAvailable") != null ? Integer.parseInt(row.get("quantityAvailable")) : 0);
+        product.setWeight(row.get("weight") != null ? new BigDecimal(row.get("weight")) : null);
+        product.setLaunchDate(row.get("launchDate") != null ? LocalDate.parse(row.get("launchDate")) : null);
+        product.setExpiryDate(row.get("expiryDate") != null ? LocalDate.parse(row.get("expiryDate")) : null);
+        product.setStatus(row.get("status") != null ? Product.AvailabilityStatus.valueOf(row.get("status")) : null);
+        product.setCategory(resolveCategory(row.get("categoryId"), row.get("categoryName"), categoriesByName));
+        return product;
+    }
+
+    /** By id (a reference, no SELECT) or by name, creating unknown names once per import. */
+    private Category resolveCategory(String id, String name, Map<String, Category> categoriesByName) {
+        if (id != null) {
+            return entityManager.getReference(Category.class, Long.valueOf(id));
+        }
+        if (name == null) {
+            return null;
+        }
+        Category known = categoriesByName.get(name);
+        if (known == null) {
+            known = categoryRepository.findByName(name);
+            if (known == null) {
+                known = new Category();
+                known.setName(name);
+                known = categoryRepository.save(known);
+            }
+            categoriesByName.put(name, known);
+        }
+        // Cached across chunks but the persistence context is cleared per chunk: use a reference
+        return entityManager.getReference(Category.class, known.getId());
+    }
+
+    private static void reject(ProductImportReport.ChunkResult result, long rowNumber, String message) {
+        result.setRejected(result.getRejected() + 1);
+        addError(result, "row " + rowNumber + ": " + message);
+    }
+
+    private static void addError(ProductImportReport.ChunkResult result, String message) {
+        if (result.getErrors().size() < MAX_ERRORS_PER_CHUNK) {
+            result.getErrors().add(message);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import org.springframework.http.MediaType;
+
+/**
+ * Output formats of the streaming catalog export.
+ */
+public enum ProductExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ProductExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ProductExportFormat from(String value) {
+        for (ProductExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new InvalidRequestException("Unsupported export format: " + value + " (use ndjson or csv)");
+    }
+}
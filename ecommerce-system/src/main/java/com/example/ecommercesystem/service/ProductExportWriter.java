@@ -0,0 +1,142 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.model.Product;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes one flat row per product, straight to the response stream.
+ *
+ * Rows are written field by field instead of serializing the entity, so the lazy
+ * Category.products collection is never touched and internalSku (@JsonIgnore) stays private.
+ */
+abstract class ProductExportWriter implements AutoCloseable {
+
+    static final String[] COLUMNS = {
+            "id", "name", "description", "price", "registeredTime", "contactEmail", "quantityAvailable",
+            "weight", "launchDate", "expiryDate", "status", "categoryId", "categoryName"
+    };
+
+    static ProductExportWriter create(ProductExportFormat format, OutputStream out, JsonFactory jsonFactory) throws IOException {
+        return format == ProductExportFormat.CSV ? new Csv(out) : new NdJson(out, jsonFactory);
+    }
+
+    abstract void write(Product product) throws IOException;
+
+    /** Pushes buffered rows to the client (called every chunk so bytes flow while the query runs). */
+    abstract void flush() throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    private static Object[] values(Product p) {
+        return new Object[]{
+                p.getId(), p.getName(), p.getDescription(), p.getPrice(),
+                p.getRegisteredTime() != null ? p.getRegisteredTime().toInstant().toString() : null,
+                p.getContactEmail(), p.getQuantityAvailable(), p.getWeight(),
+                p.getLaunchDate(), p.getExpiryDate(), p.getStatus(),
+                p.getCategory() != null ? p.getCategory().getId() : null,
+                p.getCategory() != null ? p.getCategory().getName() : null
+        };
+    }
+
+    private static final class NdJson extends ProductExportWriter {
+        private final JsonGenerator json;
+
+        NdJson(OutputStream out, JsonFactory jsonFactory) throws IOException {
+            this.json = jsonFactory.createGenerator(out);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // the container owns the response stream
+        }
+
+        @Override
+        void write(Product product) throws IOException {
+            Object[] values = values(product);
+            json.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    json.writeNullField(COLUMNS[i]);
+                } else if (value instanceof Number) {
+                    json.writeFieldName(COLUMNS[i]);
+                    writeNumber((Number) value);
+                } else {
+                    json.writeStringField(COLUMNS[i], value.toString());
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        private void writeNumber(Number value) throws IOException {
+            if (value instanceof Double) {
+                json.writeNumber(value.doubleValue());
+            } else if (value instanceof BigDecimal) {
+                json.writeNumber((BigDecimal) value);
+            } else {
+                json.writeNumber(value.longValue());
+            }
+        }
+
+        @Override
+        void flush() throws IOException {
+            json.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+
+    private static final class Csv extends ProductExportWriter {
+        private final Writer writer;
+
+        Csv(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+            writeRow(COLUMNS);
+        }
+
+        @Override
+        void write(Product product) throws IOException {
+            writeRow(values(product));
+        }
+
+        private void writeRow(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(escape(values[i].toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        /** RFC 4180: quote fields containing separators, quotes or line breaks; double embedded quotes. */
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush(); // do not close: the container owns the response stream
+        }
+    }
+}
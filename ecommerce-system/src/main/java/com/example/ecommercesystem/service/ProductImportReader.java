@@ -0,0 +1,170 @@
+package com.example.ecommercesystem.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads import rows one at a time as column → text maps, in the same column layout the
+ * export writes (see ProductExportWriter.COLUMNS), so an export can be re-imported as is.
+ *
+ * Rows are pulled lazily from the request stream; nothing is buffered beyond one row.
+ */
+abstract class ProductImportReader implements Iterator<Map<String, String>> {
+
+    static ProductImportReader create(ProductExportFormat format, InputStream in, ObjectMapper objectMapper) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        return format == ProductExportFormat.CSV ? new Csv(reader) : new NdJson(reader, objectMapper);
+    }
+
+    private Map<String, String> next;
+
+    /** @return the next row, or null at end of input */
+    abstract Map<String, String> readRow() throws IOException;
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readRow();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map<String, String> row = next;
+        next = null;
+        return row;
+    }
+
+    private static final class NdJson extends ProductImportReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+
+        NdJson(BufferedReader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Map<String, String> readRow() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.trim().isEmpty());
+
+            Map<String, String> row = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = objectMapper.readTree(line).fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                row.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText());
+            }
+            return row;
+        }
+    }
+
+    /** RFC 4180 reader: quoted fields may contain commas, doubled quotes and line breaks. */
+    private static final class Csv extends ProductImportReader {
+        private final BufferedReader reader;
+        private List<String> header;
+
+        Csv(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        Map<String, String> readRow() throws IOException {
+            if (header == null) {
+                header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+            }
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0) == null); // blank line
+
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < header.size() && i < record.size(); i++) {
+                row.put(header.get(i), record.get(i));
+            }
+            return row;
+        }
+
+        /** Empty unquoted fields are returned as null. */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        throw new IOException("Unterminated quoted CSV field");
+                    }
+                    if (c == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (c == ',' || c == '\n' || c == '\r' || c < 0) {
+                    fields.add(field.length() == 0 && !wasQuoted ? null : field.toString());
+                    field.setLength(0);
+                    wasQuoted = false;
+                    if (c != ',') {
+                        if (c == '\r') {
+                            reader.mark(1);
+                            if (reader.read() != '\n') {
+                                reader.reset();
+                            }
+                        }
+                        return fields;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+    }
+}
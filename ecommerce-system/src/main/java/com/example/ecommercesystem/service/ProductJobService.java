@@ -0,0 +1,30 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.ProductJob;
+import com.example.ecommercesystem.model.Product;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.function.Function;
+
+public interface ProductJobService {
+
+    /**
+     * Queues a job running task over every product; each non-null return value is kept as a result.
+     * Returns at once with the job's id.
+     * @throws java.util.concurrent.RejectedExecutionException when app.jobs.max-queued jobs are already waiting
+     */
+    ProductJob submit(Function<Product, String> task);
+
+    /** @throws com.example.ecommercesystem.exception.ResourceNotFoundException unknown or expired job */
+    ProductJob getJob(String id);
+
+    /** Jobs still retained, newest first. */
+    List<ProductJob> getJobs();
+
+    /** Cancels a queued or running job; results produced so far stay available. No-op once finished. */
+    ProductJob cancel(String id);
+
+    /** A page of the job's results in the order they were produced; available while the job runs. */
+    Page<String> getResults(String id, int page, int size);
+}
@@ -0,0 +1,242 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.ProductJob;
+import com.example.ecommercesystem.dto.ProductProcessingReport;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.exception.ResourceNotFoundException;
+import com.example.ecommercesystem.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Background product processing jobs: submit returns a job id at once, status, cancel and results
+ * are separate requests.
+ *
+ * Why?:
+ * - process-async-with-futures / -with-cf hold a Tomcat thread until the last product is done and
+ *   return every result in one response; a big catalog ties up the thread for minutes and the
+ *   response for megabytes. A job runs on its own threads and its results are read a page at a time.
+ *
+ * - At most app.jobs.max-running jobs run at once (each on a ProductProcessingPipeline run with its
+ *   own workers); up to max-queued more wait in FIFO order, beyond that submit is rejected (503).
+ * - Jobs and results live in memory on this node: they outlive the request, not a restart.
+ *   Finished jobs are dropped retention ms after they end.
+ */
+@Service
+public class ProductJobServiceImpl implements ProductJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductJobServiceImpl.class);
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ProductProcessingPipeline productProcessingPipeline;
+
+    @Value("${app.jobs.max-running:2}")
+    private int maxRunning;
+
+    @Value("${app.jobs.max-queued:10}")
+    private int maxQueued;
+
+    @Value("${app.jobs.retention:3600000}")
+    private long retentionMillis;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor runners;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Fixed size = max-running; the bounded queue holds the QUEUED jobs, AbortPolicy rejects the rest
+        runners = new ThreadPoolExecutor(maxRunning, maxRunning, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxQueued), runnable -> {
+            Thread thread = new Thread(runnable, "product-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        jobs.values().forEach(Job::cancel);
+        runners.shutdownNow();
+    }
+
+    @Override
+    public ProductJob submit(Function<Product, String> task) {
+        purgeExpired();
+        Job job = new Job(UUID.randomUUID().toString(), task);
+        jobs.put(job.id, job);
+        try {
+            runners.execute(job);
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.id);
+            throw new RejectedExecutionException("Too many product jobs: " + maxRunning + " running, "
+                    + maxQueued + " waiting");
+        }
+        return job.view();
+    }
+
+    @Override
+    public ProductJob getJob(String id) {
+        return find(id).view();
+    }
+
+    @Override
+    public List<ProductJob> getJobs() {
+        purgeExpired();
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((Job job) -> job.submittedAt).reversed())
+                .map(Job::view)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ProductJob cancel(String id) {
+        Job job = find(id);
+        if (job.cancel()) {
+            runners.remove(job); // frees its place in the queue if it had not started
+        }
+        return job.view();
+    }
+
+    @Override
+    public Page<String> getResults(String id, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        Job job = find(id);
+        List<String> content;
+        long total;
+        synchronized (job.results) {
+            total = job.results.size();
+            int from = (int) Math.min((long) page * size, total);
+            int to = (int) Math.min((long) from + size, total);
+            content = new ArrayList<>(job.results.subList(from, to));
+        }
+        return new PageImpl<>(content, PageRequest.of(page, size), total);
+    }
+
+    private Job find(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Job not found with id " + id);
+        }
+        return job;
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minusMillis(retentionMillis);
+        jobs.values().removeIf(job -> {
+            Instant finishedAt = job.finishedAt;
+            return finishedAt != null && finishedAt.isBefore(cutoff);
+        });
+    }
+
+    /** One job; runs on a runner thread, which it holds (one of max-running) until the pipeline is done. */
+    private final class Job implements Runnable {
+        final String id;
+        final Function<Product, String> task;
+        final Instant submittedAt = Instant.now();
+        final List<String> results = Collections.synchronizedList(new ArrayList<>());
+        // Guarded by this
+        private ProductJob.Status status = ProductJob.Status.QUEUED;
+        private ProductProcessingPipeline.Run run;
+        private ProductProcessingReport report;
+        private Instant startedAt;
+        private volatile Instant finishedAt;
+
+        Job(String id, Function<Product, String> task) {
+            this.id = id;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            ProductProcessingPipeline.Run started;
+            synchronized (this) {
+                if (status != ProductJob.Status.QUEUED) {
+                    return; // cancelled while waiting
+                }
+                status = ProductJob.Status.RUNNING;
+                startedAt = Instant.now();
+                started = productProcessingPipeline.start(product -> {
+                    String result = task.apply(product);
+                    if (result != null) {
+                        results.add(result);
+                    }
+                });
+                run = started;
+            }
+            ProductProcessingReport finalReport;
+            try {
+                finalReport = started.completion().get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                started.cancel();
+                finish(ProductJob.Status.CANCELLED, started.report());
+                return;
+            } catch (ExecutionException ex) { // the pipeline reports errors in the report instead
+                logger.error("Product job {} failed", id, ex.getCause());
+                finish(ProductJob.Status.FAILED, started.report());
+                return;
+            }
+            finish(finalReport.isCancelled() ? ProductJob.Status.CANCELLED
+                    : finalReport.getError() != null ? ProductJob.Status.FAILED
+                    : ProductJob.Status.COMPLETED, finalReport);
+        }
+
+        /** @return true if the job had not started yet */
+        synchronized boolean cancel() {
+            if (status == ProductJob.Status.QUEUED) {
+                finish(ProductJob.Status.CANCELLED, null);
+                return true;
+            }
+            if (run != null) {
+                run.cancel();
+            }
+            return false;
+        }
+
+        private synchronized void finish(ProductJob.Status finalStatus, ProductProcessingReport finalReport) {
+            status = finalStatus;
+            report = finalReport;
+            finishedAt = Instant.now();
+            logger.info("Product job {} {}: {}", id, finalStatus, finalReport);
+        }
+
+        synchronized ProductJob view() {
+            ProductProcessingReport current = report != null ? report : run != null ? run.report() : null;
+            return new ProductJob(id, status, submittedAt, startedAt, finishedAt,
+                    current != null ? current.getTotal() : 0,
+                    current != null ? current.getItemsProcessed() : 0,
+                    current != null ? current.getItemsFailed() : 0,
+                    results.size(),
+                    current != null ? current.getError() : null);
+        }
+    }
+}
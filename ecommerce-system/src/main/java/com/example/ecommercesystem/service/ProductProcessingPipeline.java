@@ -0,0 +1,354 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.ProductProcessingReport;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs a per-product task over the whole catalog as a staged pipeline:
+ *
+ *   reader (1 thread) --chunks--> bounded queue --> workers (app.processing.workers threads)
+ *
+ * Why?:
+ * - findAll() + one executor.submit per row holds the whole catalog in memory, plus one queued
+ *   Runnable per row in the executor's unbounded LinkedBlockingQueue, before any work is done.
+ * - Here the reader loads chunk-size products at a time (keyset on id, category joined, one
+ *   read-only transaction per chunk) and blocks when queue-capacity chunks are waiting: at most
+ *   (queue-capacity + workers + 1) chunks per run are ever in memory, whatever the catalog size.
+ * - A worker acknowledges a chunk once all its products are processed; the checkpoint is the last
+ *   id of the longest run of acknowledged chunks (chunks finish out of order).
+ *
+ * Each run has its own reader, queue and workers; callers cap how many run at once
+ * (ProductServiceImpl: one /process run, ProductJobServiceImpl: app.jobs.max-running).
+ * Readers and workers of all runs share one fixed pool of (workers + 1) * (1 + app.jobs.max-running)
+ * threads, enough for every run the callers admit. Tasks are taken in submission order and a run
+ * submits its reader before its workers, so a run beyond that waits for threads, it cannot stall.
+ * A failing product is logged and counted, the rest of its chunk is still processed.
+ * A cancelled run stops reading; chunks already queued are dropped without being acknowledged.
+ *
+ * Metrics (product.pipeline.*):
+ * - items{stage=read|processed|failed}: throughput per stage
+ * - queue.depth: chunks waiting for a worker, all runs
+ * - stage.latency{stage=read|queued|process}: per chunk, load time / loaded until picked up by a
+ *   worker / processing time
+ * - reader.blocked: time the reader waited for queue space (backpressure)
+ * - chunks.acknowledged
+ */
+@Component
+public class ProductProcessingPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductProcessingPipeline.class);
+    private static final Chunk END = new Chunk(-1, Collections.emptyList());
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.processing.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${app.processing.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Value("${app.processing.workers:10}")
+    private int workers;
+
+    @Value("${app.jobs.max-running:2}")
+    private int maxRunningJobs;
+
+    private ExecutorService threads;
+    private TransactionTemplate readTransaction;
+    private final Set<Run> active = ConcurrentHashMap.newKeySet();
+
+    private Counter itemsRead;
+    private Counter itemsProcessed;
+    private Counter itemsFailed;
+    private Counter chunksAcknowledged;
+    private Timer readLatency;
+    private Timer queuedLatency;
+    private Timer processLatency;
+    private Timer readerBlocked;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        threads = Executors.newFixedThreadPool((workers + 1) * (1 + maxRunningJobs), runnable -> {
+            Thread thread = new Thread(runnable, "product-pipeline-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+
+        itemsRead = items("read");
+        itemsProcessed = items("processed");
+        itemsFailed = items("failed");
+        chunksAcknowledged = Counter.builder("product.pipeline.chunks.acknowledged").register(meterRegistry);
+        readLatency = stageLatency("read");
+        queuedLatency = stageLatency("queued");
+        processLatency = stageLatency("process");
+        readerBlocked = Timer.builder("product.pipeline.reader.blocked")
+                .description("Time the reader waited for queue space")
+                .register(meterRegistry);
+        Gauge.builder("product.pipeline.queue.depth", active, runs -> runs.stream().mapToInt(run -> run.queue.size()).sum())
+                .description("Chunks waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /** Interrupts the runs in progress; unacknowledged chunks are not processed. */
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        threads.shutdownNow();
+        threads.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Starts processing every product with the given task on a new run.
+     * Run.completion() completes with the final report once the workers have drained the queue.
+     */
+    public Run start(Consumer<Product> task) {
+        Run run = new Run(task, workers, queueCapacity, productRepository.count());
+        active.add(run);
+        run.done.whenComplete((report, ex) -> active.remove(run));
+        threads.execute(() -> read(run));
+        for (int i = 0; i < workers; i++) {
+            threads.execute(() -> work(run));
+        }
+        return run;
+    }
+
+    private void read(Run run) {
+        Long lastId = null;
+        long sequence = 0;
+        boolean interrupted = false;
+        try {
+            while (!run.cancelled) {
+                long start = System.nanoTime();
+                List<Product> products = readChunk(lastId);
+                if (products.isEmpty()) {
+                    break;
+                }
+                readLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                itemsRead.increment(products.size());
+                run.itemsRead.addAndGet(products.size());
+                lastId = products.get(products.size() - 1).getId();
+
+                long putStart = System.nanoTime();
+                run.queue.put(new Chunk(sequence++, products));
+                readerBlocked.record(System.nanoTime() - putStart, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            interrupted = true;
+            run.error = "Interrupted";
+        } catch (RuntimeException ex) {
+            logger.error("Product pipeline reader failed after id {}", lastId, ex);
+            run.error = ex.toString();
+        }
+        if (!interrupted) {
+            // One end marker per worker; they are all still taking from the queue
+            for (int i = 0; i < workers; i++) {
+                try {
+                    run.queue.put(END);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Next chunk by id; the category is joined so workers never go back to the database
+    private List<Product> readChunk(Long afterId) {
+        return readTransaction.execute(status -> {
+            List<Long> ids = productRepository.findIdsAfter("id", Sort.Direction.ASC, null, afterId, chunkSize);
+            if (ids.isEmpty()) {
+                return Collections.<Product>emptyList();
+            }
+            List<Product> products = productRepository.findAllWithCategoryByIdIn(ids);
+            products.sort(Comparator.comparing(Product::getId));
+            return products;
+        });
+    }
+
+    private void work(Run run) {
+        try {
+            while (true) {
+                Chunk chunk = run.queue.take();
+                if (chunk == END) {
+                    return;
+                }
+                if (run.cancelled) {
+                    continue; // drain, so the reader is not left blocked on a full queue
+                }
+                queuedLatency.record(System.nanoTime() - chunk.enqueuedNanos, TimeUnit.NANOSECONDS);
+                long start = System.nanoTime();
+                int attempted = 0;
+                int failed = 0;
+                for (Product product : chunk.products) {
+                    if (run.cancelled) {
+                        break;
+                    }
+                    attempted++;
+                    try {
+                        run.task.accept(product);
+                    } catch (RuntimeException ex) {
+                        failed++;
+                        logger.warn("Processing product {} failed", product.getId(), ex);
+                    }
+                }
+                processLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                itemsProcessed.increment(attempted - failed);
+                itemsFailed.increment(failed);
+                if (run.acknowledge(chunk, attempted, failed)) {
+                    chunksAcknowledged.increment();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            run.workerFinished();
+        }
+    }
+
+    private Counter items(String stage) {
+        return Counter.builder("product.pipeline.items")
+                .description("Products passing through each pipeline stage")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private Timer stageLatency(String stage) {
+        return Timer.builder("product.pipeline.stage.latency")
+                .description("Time per chunk spent in each pipeline stage")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static final class Chunk {
+        final long sequence;
+        final List<Product> products;
+        final long enqueuedNanos = System.nanoTime();
+
+        Chunk(long sequence, List<Product> products) {
+            this.sequence = sequence;
+            this.products = products;
+        }
+
+        Long lastId() {
+            return products.get(products.size() - 1).getId();
+        }
+    }
+
+    /** One pass over the catalog: progress, cancellation and the final report. */
+    public static final class Run {
+        private final Consumer<Product> task;
+        private final BlockingQueue<Chunk> queue;
+        private final long total;
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final CompletableFuture<ProductProcessingReport> done = new CompletableFuture<>();
+        private final AtomicLong itemsRead = new AtomicLong();
+        private final AtomicInteger workersLeft;
+        private volatile boolean cancelled;
+        private volatile String error;
+
+        // Acknowledged chunks after the checkpoint, by sequence; guarded by this
+        private final Map<Long, Long> acknowledgedAhead = new TreeMap<>();
+        private long nextSequence;
+        private Long checkpointId;
+        private long itemsProcessed;
+        private long itemsFailed;
+        private long chunksAcknowledged;
+
+        private Run(Consumer<Product> task, int workers, int queueCapacity, long total) {
+            this.task = task;
+            this.workersLeft = new AtomicInteger(workers);
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.total = total;
+        }
+
+        /** Completes with the final report when the run has finished, cancelled or not. */
+        public CompletableFuture<ProductProcessingReport> completion() {
+            return done;
+        }
+
+        /** Stops reading; products not yet started are skipped. Idempotent. */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        // Counts the chunk's products; acknowledges it (and moves the checkpoint) unless a cancel cut it short
+        private synchronized boolean acknowledge(Chunk chunk, int attempted, int failed) {
+            itemsProcessed += attempted - failed;
+            itemsFailed += failed;
+            if (attempted < chunk.products.size()) {
+                return false;
+            }
+            chunksAcknowledged++;
+            acknowledgedAhead.put(chunk.sequence, chunk.lastId());
+            Long lastId;
+            while ((lastId = acknowledgedAhead.remove(nextSequence)) != null) {
+                checkpointId = lastId;
+                nextSequence++;
+            }
+            return true;
+        }
+
+        private void workerFinished() {
+            if (workersLeft.decrementAndGet() == 0) {
+                ProductProcessingReport report = report();
+                logger.info("Product pipeline finished: {}", report);
+                done.complete(report);
+            }
+        }
+
+        public synchronized ProductProcessingReport report() {
+            return new ProductProcessingReport(workersLeft.get() > 0, cancelled, startedAt,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), total, itemsRead.get(),
+                    itemsProcessed, itemsFailed, chunksAcknowledged, checkpointId, error);
+        }
+    }
+}
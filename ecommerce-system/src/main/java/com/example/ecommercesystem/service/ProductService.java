@@ -1,32 +1,140 @@
 package com.example.ecommercesystem.service;
 
+import com.example.ecommercesystem.dto.FacetPage;
+import com.example.ecommercesystem.dto.KeysetPage;
+import com.example.ecommercesystem.dto.ProductFilter;
+import com.example.ecommercesystem.dto.ProductImportReport;
+import com.example.ecommercesystem.dto.ProductJob;
+import com.example.ecommercesystem.dto.ProductProcessingReport;
+import com.example.ecommercesystem.dto.ProductSuggestion;
+import com.example.ecommercesystem.dto.ProductSummary;
 import com.example.ecommercesystem.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 public interface ProductService {
     /** New: preferred paginated API */
     Page<Product> getAllProducts(Pageable pageable);
 
+    /**
+     * Keyset (seek) paging ordered by (sort property, id).
+     *
+     * @param cursor    token from the previous page's nextCursor, null for the first page
+     * @param withTotal run the count(*) query as well (skipped by default)
+     */
+    KeysetPage<Product> getProductsKeyset(Sort.Order order, int size, String cursor, boolean withTotal);
+
+    /**
+     * Products matching every supplied criterion of the filter, keyset paged like getProductsKeyset.
+     * @throws com.example.ecommercesystem.exception.InvalidRequestException for an empty range (min > max) or a cursor of another sort
+     */
+    KeysetPage<Product> filterProducts(ProductFilter filter, Sort.Order order, int size, String cursor, boolean withTotal);
+
     /** Legacy: keep for callers that still expect a List */
     @Deprecated
     List<Product> getAllProducts();
 
+    /**
+     * Projection read path: flat rows straight from one SELECT (page: SELECT + count),
+     * whatever the number of rows. Not cached.
+     */
+    List<ProductSummary> getProductSummaries();
+
+    Page<ProductSummary> getProductSummaries(Pageable pageable);
+
+    List<ProductSummary> searchProductSummaries(String name, String description);
+
+    /**
+     * Insert (no id) or full update of a product. quantityAvailable is set on insert only; an update
+     * must carry the stored value (stock moves through InventoryService).
+     * @throws com.example.ecommercesystem.exception.InvalidRequestException when an update changes quantityAvailable
+     */
     Product saveProduct(Product product);
 
+    /**
+     * Write-behind update of an existing product: queued, merged with other pending updates of the
+     * same id and written with the next group commit. The future completes after that commit.
+     * @throws java.util.concurrent.RejectedExecutionException when the queue stays full
+     */
+    CompletableFuture<Product> saveProductWriteBehind(Product product);
+
+    /** Deletes the product and drops it from caches, indexes and category counters. */
+    void deleteProduct(Long id);
+
     List<Product> getProductsByNameAndDescription(String name, String description);
 
+    /**
+     * Full-text search over name and description, best matches first.
+     * Every word must match, the last characters of a word may be left out ("lap" finds "laptop").
+     */
+    List<Product> searchProducts(String query, int limit);
+
+    /** Products whose name starts with the prefix (case-insensitive), most in stock first. */
+    List<ProductSuggestion> suggestProducts(String prefix, int limit);
+
+    /**
+     * Faceted filter (category, status, price bucket, launch year): a page of matching ids plus
+     * the count of every facet value, answered from in-memory bitmaps.
+     */
+    FacetPage getProductFacets(Map<String, List<String>> filters, int page, int size);
+
+    /**
+     * Products priced within [minPrice, maxPrice], cheapest first (or most expensive first when
+     * descending: page 0 is the top-N), answered from the in-memory price index.
+     */
+    Page<Product> getProductsByPriceRange(double minPrice, double maxPrice, boolean descending, int page, int size);
+
     Product getProductById(Long id);
 
+    /** Batch lookup: products for the given ids in input order; unknown ids are skipped. */
+    List<Product> getProductsByIds(List<Long> ids);
+
     void evictAllProductsCache();
 
-    public void processProductsConcurrently();
+    /**
+     * Streams every product to {@code out} as it is read from the database; heap use does not
+     * grow with catalog size.
+     */
+    void exportProducts(OutputStream out, ProductExportFormat format) throws IOException;
+
+    /**
+     * Bulk insert of new products in the export format (NDJSON or CSV with header).
+     * Rows are committed in chunks; invalid rows are skipped and listed in the report.
+     */
+    ProductImportReport importProducts(InputStream in, ProductExportFormat format);
+
+    /**
+     * Processes every product on the pipeline's workers, reading the catalog chunk by chunk.
+     * Returns at once; the future completes when the run is done. While a run is in progress
+     * it is returned instead of starting another.
+     */
+    CompletableFuture<ProductProcessingReport> processProductsConcurrently();
+
+    /** Progress of the current or last processing run, null if none ran yet. */
+    ProductProcessingReport getProcessingStatus();
+
+    /**
+     * Queues a background processing job whose result is each product's details.
+     * @throws java.util.concurrent.RejectedExecutionException when too many jobs are waiting
+     */
+    ProductJob submitProcessingJob();
 
     List<String> processProductsWithFutures();
 
     List<String> processProductsWithCF();
 
+    /**
+     * Like processProductsWithCF, but writes one ProductProcessResult NDJSON line per product to
+     * {@code out} as soon as its future completes (ordered = catalog order, via a bounded reorder buffer).
+     */
+    void streamProductsWithCF(OutputStream out, boolean ordered) throws IOException;
+
 }
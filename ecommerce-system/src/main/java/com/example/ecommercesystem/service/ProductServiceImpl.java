@@ -1,98 +1,413 @@
 package com.example.ecommercesystem.service;
 
 
+import com.example.ecommercesystem.cache.ProductListCache;
+import com.example.ecommercesystem.dto.FacetPage;
+import com.example.ecommercesystem.dto.KeysetPage;
+import com.example.ecommercesystem.dto.ProductFilter;
+import com.example.ecommercesystem.dto.ProductImportReport;
+import com.example.ecommercesystem.dto.ProductJob;
+import com.example.ecommercesystem.dto.ProductProcessResult;
+import com.example.ecommercesystem.dto.ProductProcessingReport;
+import com.example.ecommercesystem.dto.ProductSuggestion;
+import com.example.ecommercesystem.dto.ProductSummary;
+import com.example.ecommercesystem.exception.InvalidRequestException;
 import com.example.ecommercesystem.exception.ResourceNotFoundException;
 import com.example.ecommercesystem.model.Product;
 import com.example.ecommercesystem.repository.ProductRepository;
+import com.example.ecommercesystem.repository.ProductSpecifications;
+import com.example.ecommercesystem.search.ProductAutocomplete;
+import com.example.ecommercesystem.search.ProductFacetIndex;
+import com.example.ecommercesystem.search.ProductIndexes;
+import com.example.ecommercesystem.search.ProductPriceIndex;
+import com.example.ecommercesystem.search.ProductSearchIndex;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductServiceImpl implements ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
     private final Random random = new Random();
+    private static final int MAX_BATCH_IDS = 500;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int EXPORT_FLUSH_EVERY = 1000;
+    private static final int STREAM_CHUNK_SIZE = 100;
 
     @Autowired
     private ProductRepository productRepository;
+
+    @Autowired
+    private ProductListCache productListCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductBulkImporter productBulkImporter;
+
+    @Autowired
+    private ProductWriteBehind productWriteBehind;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductAutocomplete productAutocomplete;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ProductPriceIndex productPriceIndex;
+
+    @Autowired
+    private ProductIndexes productIndexes;
+
+    @Autowired
+    private CategoryCounters categoryCounters;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductProcessingPipeline productProcessingPipeline;
+
+    @Autowired
+    private ProductJobService productJobService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.process-stream.window:100}")
+    private int processStreamWindow;
+
+    // Bounded and instrumented, drained on shutdown (see ServiceExecutorConfig.productServiceExecutor)
+    @Autowired
     private ExecutorService executorService;
 
-    @PostConstruct
-    public void init() {
-        executorService = Executors.newFixedThreadPool(10); // Initialize a thread pool with 10 threads
+    private volatile ProductProcessingPipeline.Run processingRun;
+
+    // List of all products: cached id-list + per-product cache entries (see ProductListCache)
+    // Methods that fill the caches read the primary: a lagging replica's rows would be cached as
+    // current and outlive the write that replaced them. Only the uncached reads below are
+    // read-only and may run on a replica (see ReplicaRoutingDataSource).
+    @Override
+    @Transactional
+    public List<Product> getAllProducts() {
+        return productListCache.findAll();
     }
 
-    @PreDestroy
-    public void destroy() {
-        executorService.shutdown();
+    @Override
+    @Transactional
+    public Page<Product> getAllProducts(Pageable pageable) {
+        return productListCache.findPage(pageable);
     }
 
-    // Cache the list of all products
-    @Cacheable(value = "products")
+    // Summary projections: constructor expression over an explicit join, no entities loaded
     @Override
-    public List<Product> getAllProducts() {
-        logger.info("getting all products from db.");
-        return productRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getProductSummaries() {
+        return productRepository.findAllSummaries();
     }
 
     @Override
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    @Transactional(readOnly = true)
+    public Page<ProductSummary> getProductSummaries(Pageable pageable) {
+        return productRepository.findAllSummaries(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSummary> searchProductSummaries(String name, String description) {
+        return productRepository.findSummariesByNameAndDescription(name, description);
     }
 
+    // Seek paging: id-only query on (sortField, id), products hydrated from the "product" cache
+    @Override
+    @Transactional
+    public KeysetPage<Product> getProductsKeyset(Sort.Order order, int size, String cursor, boolean withTotal) {
+        return keysetPage(null, order, size, cursor, withTotal);
+    }
+
+    // Only the supplied criteria reach the SQL (see ProductSpecifications); paged like getProductsKeyset
+    @Override
+    @Transactional
+    public KeysetPage<Product> filterProducts(ProductFilter filter, Sort.Order order, int size, String cursor, boolean withTotal) {
+        return keysetPage(ProductSpecifications.matching(filter), order, size, cursor, withTotal);
+    }
+
+    private KeysetPage<Product> keysetPage(Specification<Product> filter, Sort.Order order, int size, String cursor,
+                                           boolean withTotal) {
+        if (!KeysetCursor.supports(order.getProperty())) {
+            throw new InvalidRequestException("Keyset paging supports sort by " + KeysetCursor.supportedFields()
+                    + ", got " + order.getProperty());
+        }
+        KeysetCursor after = cursor != null && !cursor.isEmpty() ? KeysetCursor.decode(cursor) : null;
+        if (after != null && (!after.getSortField().equals(order.getProperty()) || after.getDirection() != order.getDirection())) {
+            throw new InvalidRequestException("Cursor was issued for a different sort order");
+        }
 
-    // Save a product and update the cache
-    @CachePut(value = "product", key = "#product.id")
-    @CacheEvict(value = "products", allEntries = true)
+        // Fetch one extra id to learn whether there is a next page without counting
+        List<ProductRepository.SeekKey> keys = productRepository.findKeysAfter(filter, order.getProperty(),
+                order.getDirection(), after != null ? after.getLastValue() : null,
+                after != null ? after.getLastId() : null, size + 1);
+        boolean hasNext = keys.size() > size;
+        List<ProductRepository.SeekKey> pageKeys = hasNext ? keys.subList(0, size) : keys;
+        List<Product> content = productListCache.hydrate(pageKeys.stream()
+                .map(ProductRepository.SeekKey::getId)
+                .collect(Collectors.toList()));
+
+        // From the row the query read, not the hydrated product: a cached copy may carry an old sort value
+        String nextCursor = hasNext
+                ? KeysetCursor.after(pageKeys.get(size - 1), order.getProperty(), order.getDirection()).encode()
+                : null;
+        Long total = withTotal ? (filter != null ? productRepository.count(filter) : productRepository.count()) : null;
+        return new KeysetPage<>(content, size, hasNext, nextCursor, total);
+    }
+
+    // Save a product, update its cache entry and drop only the id-lists the write can affect.
+    // The category counters move in the same transaction as the row; id-lists and indexes follow
+    // once it has committed, so no reader can cache or index a write that is later rolled back.
+    // An update must carry the stored quantityAvailable: stock moves through InventoryService only.
+    @Transactional
+    @CachePut(value = ProductListCache.PRODUCT, key = "#product.id")
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Optional<ProductRepository.StoredState> previous = product.getId() != null
+                ? productRepository.findStoredState(product.getId()) : Optional.empty();
+        if (previous.isPresent() && previous.get().getQuantityAvailable() != product.getQuantityAvailable()) {
+            throw stockChangeRejected(previous.get(), product);
+        }
+        Product saved = productRepository.save(product);
+
+        CategoryCounters.Deltas deltas = categoryCounters.deltas();
+        if (previous.isPresent()) {
+            deltas.changed(previous.get().getCategoryId(), previous.get().getStatus(), saved);
+        } else {
+            deltas.inserted(saved);
+        }
+        categoryCounters.apply(deltas);
+
+        boolean inserted = !previous.isPresent();
+        afterCommit(() -> {
+            productListCache.onProductSaved(inserted);
+            productIndexes.onSaved(saved);
+        });
+        return saved;
     }
 
+    /**
+     * quantityAvailable is not updatable (see Product): a product update sending another value would
+     * otherwise be saved with the stored one and the change lost without a word.
+     */
+    static InvalidRequestException stockChangeRejected(ProductRepository.StoredState stored, Product product) {
+        return new InvalidRequestException("quantityAvailable of product " + stored.getId() + " is "
+                + stored.getQuantityAvailable() + ", got " + product.getQuantityAvailable()
+                + ": stock changes go through /api/inventory");
+    }
+
+    // Group commit: see ProductWriteBehind
+    @Override
+    public CompletableFuture<Product> saveProductWriteBehind(Product product) {
+        return productWriteBehind.submit(product);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = ProductListCache.PRODUCT, key = "#id")
+    public void deleteProduct(Long id) {
+        ProductRepository.StoredState previous = productRepository.findStoredState(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id " + id));
+        productRepository.deleteById(id);
+        categoryCounters.apply(categoryCounters.deltas().deleted(previous.getCategoryId(), previous.getStatus()));
+
+        afterCommit(() -> {
+            productListCache.onProductDeleted();
+            productIndexes.onDeleted(id);
+            inventoryService.onProductDeleted(id);
+        });
+    }
+
+    /** Runs action once the current transaction has committed (right away when there is none). */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
     public List<Product> getProductsByNameAndDescription(String name, String description) {
         return productRepository.findByNameAndDescription(name, description);
     }
 
-    // Cache a product by ID
-    @Cacheable(value = "product", key = "#id")
+    // Ranked full-text search: ids from the in-memory index, products hydrated from the "product" cache
+    @Override
+    @Transactional
+    public List<Product> searchProducts(String query, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_SEARCH_RESULTS + ", got " + limit);
+        }
+        return productListCache.hydrate(productSearchIndex.search(query, limit));
+    }
+
+    // Autocomplete: served entirely from the in-memory trie, no cache or database access
+    @Override
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        if (limit < 1 || limit > ProductAutocomplete.MAX_SUGGESTIONS) {
+            throw new InvalidRequestException("limit must be between 1 and " + ProductAutocomplete.MAX_SUGGESTIONS + ", got " + limit);
+        }
+        return productAutocomplete.suggest(prefix, limit);
+    }
+
+    // Facets: bitmap intersections only, ids are returned as-is (hydrate through /batch if needed)
+    @Override
+    public FacetPage getProductFacets(Map<String, List<String>> filters, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_SEARCH_RESULTS) {
+            throw new InvalidRequestException("page must be >= 0 and size between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        return productFacetIndex.query(filters, page, size);
+    }
+
+    // Price range: binary search over the sorted price index, the page hydrated from the "product" cache
+    @Override
+    @Transactional
+    public Page<Product> getProductsByPriceRange(double minPrice, double maxPrice, boolean descending, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_SEARCH_RESULTS) {
+            throw new InvalidRequestException("page must be >= 0 and size between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        if (minPrice > maxPrice) {
+            throw new InvalidRequestException("min must not be greater than max");
+        }
+        ProductPriceIndex.Range range = productPriceIndex.range(minPrice, maxPrice, descending, page, size);
+        return new PageImpl<>(productListCache.hydrate(range.getIds()), PageRequest.of(page, size), range.getTotal());
+    }
+
+    // Cache a product by ID; sync = true routes misses through the cache's single-flight loader
+    @Transactional
+    @Cacheable(value = ProductListCache.PRODUCT, key = "#id", sync = true)
     public Product getProductById(Long id) {
         return productRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Product not found with id " + id));
     }
 
-    @CacheEvict(value = "products", allEntries = true)
+    // Cache multi-get (one MGET) + one SELECT for the misses, see ProductListCache.hydrate
+    @Override
+    @Transactional
+    public List<Product> getProductsByIds(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new InvalidRequestException("At most " + MAX_BATCH_IDS + " ids per batch request, got " + ids.size());
+        }
+        return productListCache.hydrate(ids);
+    }
+
+    @CacheEvict(value = {ProductListCache.PRODUCT_IDS, ProductListCache.PRODUCT_ID_PAGES,
+            ProductListCache.PRODUCT_ID_PAGES_SORTED}, allEntries = true)
     public void evictAllProductsCache() {
-        // This method will clear the 'products' cache
+        // This method will clear the cached product id-lists
     }
 
-    // Method to process products using a thread pool
-    public void processProductsConcurrently() {
-        List<Product> products = productRepository.findAll();
-        for (Product product : products) {
-            executorService.submit(() -> processProduct(product));
+    // Streaming export: one forward-only cursor, rows written and detached as they arrive
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(OutputStream out, ProductExportFormat format) throws IOException {
+        long rows = 0;
+        try (Stream<Product> products = productRepository.streamAll();
+             ProductExportWriter writer = ProductExportWriter.create(format, out, objectMapper.getFactory())) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                writer.write(product);
+                entityManager.detach(product);
+                if (++rows % EXPORT_FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        logger.info("Exported {} products as {}", rows, format);
+    }
+
+    // Bulk import: chunked transactions with JDBC batching, see ProductBulkImporter
+    @Override
+    public ProductImportReport importProducts(InputStream in, ProductExportFormat format) {
+        return productBulkImporter.importProducts(in, format);
+    }
+
+    // Chunked reader -> bounded queue -> workers, see ProductProcessingPipeline. One run at a time.
+    @Override
+    public synchronized CompletableFuture<ProductProcessingReport> processProductsConcurrently() {
+        if (processingRun == null || processingRun.completion().isDone()) {
+            processingRun = productProcessingPipeline.start(this::processProduct);
         }
+        return processingRun.completion();
+    }
+
+    @Override
+    public ProductProcessingReport getProcessingStatus() {
+        ProductProcessingPipeline.Run run = processingRun;
+        return run != null ? run.report() : null;
+    }
+
+    // Background job: same processing, each product's details kept as the job's results (see ProductJobService)
+    @Override
+    public ProductJob submitProcessingJob() {
+        return productJobService.submit(product -> {
+            processProduct(product);
+            return getProductDetails(product);
+        });
     }
 
 
     public List<String> processProductsWithFutures() {
         List<Product> products = productRepository.findAll();
         List<Future<String>> futures = new ArrayList<>();
-        for (Product p : products) {
-            futures.add(
-                    executorService.submit(() -> getProductDetails(p))
-            );
+        try {
+            for (Product p : products) {
+                futures.add(
+                        executorService.submit(() -> getProductDetails(p))
+                );
+            }
+        } catch (RejectedExecutionException ex) {
+            cancelAll(futures);
+            throw ex;
         }
 
         // block & gather results in same order
@@ -112,10 +427,15 @@ public class ProductServiceImpl implements ProductService {
         List<Product> products = productRepository.findAll();
 
         // 1) Kick off all tasks
-        List<CompletableFuture<String>> cfs = products.stream()
-                .map(p -> CompletableFuture
-                        .supplyAsync(() -> getProductDetails(p), executorService))
-                .collect(Collectors.toList());
+        List<CompletableFuture<String>> cfs = new ArrayList<>(products.size());
+        try {
+            for (Product p : products) {
+                cfs.add(CompletableFuture.supplyAsync(() -> getProductDetails(p), executorService));
+            }
+        } catch (RejectedExecutionException ex) {
+            cancelAll(cfs);
+            throw ex;
+        }
 
         // 2) Wait for all to complete
         CompletableFuture
@@ -129,6 +449,71 @@ public class ProductServiceImpl implements ProductService {
     }
 
 
+    /*
+     * Streaming variant of processProductsWithCF: the same getProductDetails futures, but each result
+     * is written as an NDJSON line when its future completes (see CompletionStream). Products are read
+     * in keyset chunks as the window advances, so neither the catalog nor the results are held in memory.
+     */
+    @Override
+    public void streamProductsWithCF(OutputStream out, boolean ordered) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        long emitted;
+        try {
+            emitted = CompletionStream.forEachCompleted(catalogInChunks(),
+                    product -> CompletableFuture.supplyAsync(() -> getProductDetails(product), executorService),
+                    processStreamWindow, ordered, (sequence, product, details, error) -> {
+                        generator.writeObject(new ProductProcessResult(sequence, product.getId(), details,
+                                error != null ? error.toString() : null));
+                        generator.flush(); // each line goes out now, not when a buffer fills
+                    });
+            generator.writeRaw('\n');
+            generator.flush();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while streaming results", ex);
+        }
+        logger.info("Streamed {} product results ({})", emitted, ordered ? "ordered" : "completion order");
+    }
+
+    // Every product in id order, read STREAM_CHUNK_SIZE at a time with the category joined
+    private Iterator<Product> catalogInChunks() {
+        return new Iterator<Product>() {
+            private Iterator<Product> chunk = Collections.emptyIterator();
+            private Long lastId;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (!chunk.hasNext() && !exhausted) {
+                    List<Long> ids = productRepository.findIdsAfter("id", Sort.Direction.ASC, null, lastId, STREAM_CHUNK_SIZE);
+                    exhausted = ids.size() < STREAM_CHUNK_SIZE;
+                    if (!ids.isEmpty()) {
+                        lastId = ids.get(ids.size() - 1);
+                        List<Product> products = productRepository.findAllWithCategoryByIdIn(ids);
+                        products.sort(Comparator.comparing(Product::getId));
+                        chunk = products.iterator();
+                    }
+                }
+                return chunk.hasNext();
+            }
+
+            @Override
+            public Product next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.next();
+            }
+        };
+    }
+
+    // The executor is full (rejection-policy=abort): the request fails with 503, so the tasks it already
+    // submitted are cancelled rather than left to run for nobody. Queued ones never start.
+    private static void cancelAll(List<? extends Future<?>> futures) {
+        futures.forEach(future -> future.cancel(true));
+    }
+
     private String getProductDetails(Product product) {
         return product.toString();
     }
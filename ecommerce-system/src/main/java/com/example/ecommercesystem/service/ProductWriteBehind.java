@@ -0,0 +1,343 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.cache.ProductListCache;
+import com.example.ecommercesystem.cache.TwoTierCache;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.exception.ResourceNotFoundException;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import com.example.ecommercesystem.repository.ProductRepository;
+import com.example.ecommercesystem.search.ProductIndexes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Date;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind (group commit) for product updates.
+ *
+ * Why?:
+ * - saveProduct costs one transaction, one commit (fsync), one cache write and one id-list
+ *   invalidation per call. A catalog sync sending thousands of updates per second spends most
+ *   of that on per-call overhead.
+ * - Here updates wait in a bounded queue for at most max-delay ms (or until batch-size are
+ *   pending), then a single flusher thread writes them all in one transaction: one SELECT of
+ *   the stored state, one JDBC batch UPDATE, one commit, one Redis pipeline for the cache.
+ * - Updates to the same id while it waits are merged: the last one is written, every caller's
+ *   future completes with it.
+ *
+ * The future completes once the transaction has committed, so "done" means durable. If the
+ * batch fails, each update is retried in its own transaction so one bad row only fails its own
+ * callers. A full queue blocks the caller up to offer-timeout ms, then rejects the update.
+ *
+ * Updates only (the id must exist); a changed quantityAvailable is rejected, as in saveProduct.
+ */
+@Component
+public class ProductWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductWriteBehind.class);
+
+    private static final String UPDATE = "UPDATE product SET name = ?, description = ?, price = ?, registered_time = ?, "
+            + "internal_sku = ?, contact_email = ?, weight = ?, launch_date = ?, expiry_date = ?, status = ?, "
+            + "category_id = ? WHERE id = ?";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryCounters categoryCounters;
+
+    @Autowired
+    private ProductListCache productListCache;
+
+    @Autowired
+    private ProductIndexes productIndexes;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.write-behind.max-delay:20}")
+    private long maxDelayMillis;
+
+    @Value("${app.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.write-behind.offer-timeout:1000}")
+    private long offerTimeoutMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushDue = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    // Pending updates by product id, oldest first; guarded by lock
+    private final LinkedHashMap<Long, Pending> pending = new LinkedHashMap<>();
+    private volatile boolean running = true;
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService flusher;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        flusher = Executors.newSingleThreadExecutor();
+        flusher.execute(this::flushLoop);
+    }
+
+    /** Writes what is queued, then stops the flusher. */
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            flushDue.signal();
+        } finally {
+            lock.unlock();
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public CompletableFuture<Product> submit(Product product) {
+        if (product.getId() == null) {
+            throw new InvalidRequestException("Write-behind only updates existing products: id is required");
+        }
+        if (product.getCategory() == null || product.getCategory().getId() == null) {
+            throw new InvalidRequestException("category.id is required");
+        }
+        CompletableFuture<Product> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (!running) {
+                throw new RejectedExecutionException("Write-behind is shutting down");
+            }
+            Pending entry = pending.get(product.getId());
+            if (entry == null) {
+                long waitNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+                while (pending.size() >= queueCapacity && !pending.containsKey(product.getId())) {
+                    if (waitNanos <= 0) {
+                        throw new RejectedExecutionException("Write-behind queue is full (" + queueCapacity + " products)");
+                    }
+                    waitNanos = notFull.awaitNanos(waitNanos);
+                }
+                entry = pending.computeIfAbsent(product.getId(), id -> new Pending(System.currentTimeMillis()));
+                // First entry: wake the flusher from its untimed wait so the max-delay clock starts
+                if (pending.size() == 1 || pending.size() >= batchSize) {
+                    flushDue.signal();
+                }
+            }
+            entry.product = product; // last write wins
+            entry.waiters.add(future);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for write-behind queue space", ex);
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            List<Pending> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch.isEmpty()) {
+                return; // stopped and drained
+            }
+            try {
+                write(batch);
+            } catch (RuntimeException ex) {
+                logger.error("Write-behind flush failed", ex);
+                batch.forEach(entry -> entry.fail(ex));
+            }
+        }
+    }
+
+    // Blocks until batch-size updates are pending or the oldest has waited max-delay ms
+    private List<Pending> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running) {
+                if (pending.size() >= batchSize) {
+                    break;
+                }
+                if (pending.isEmpty()) {
+                    flushDue.await();
+                    continue;
+                }
+                long waited = System.currentTimeMillis() - pending.values().iterator().next().since;
+                if (waited >= maxDelayMillis) {
+                    break;
+                }
+                flushDue.await(maxDelayMillis - waited, TimeUnit.MILLISECONDS);
+            }
+            List<Pending> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            Iterator<Pending> it = pending.values().iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                batch.add(it.next());
+                it.remove();
+            }
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Pending> written;
+        try {
+            written = transactionTemplate.execute(status -> writeInTransaction(batch));
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                batch.get(0).fail(ex);
+                return;
+            }
+            logger.warn("Write-behind batch of {} failed, retrying one by one", batch.size(), ex);
+            batch.forEach(entry -> write(Collections.singletonList(entry)));
+            return;
+        }
+        afterCommit(written);
+    }
+
+    /** @return the entries written; entries for missing products or categories are failed here */
+    private List<Pending> writeInTransaction(List<Pending> batch) {
+        List<Long> ids = batch.stream().map(entry -> entry.product.getId()).collect(Collectors.toList());
+        Map<Long, ProductRepository.StoredState> stored = productRepository.findStoredStates(ids).stream()
+                .collect(Collectors.toMap(ProductRepository.StoredState::getId, Function.identity()));
+        Map<Long, Category> categories = new HashMap<>();
+        categoryRepository.findAllById(batch.stream().map(entry -> entry.product.getCategory().getId())
+                .collect(Collectors.toSet())).forEach(category -> categories.put(category.getId(), category));
+
+        List<Pending> writable = new ArrayList<>(batch.size());
+        CategoryCounters.Deltas deltas = categoryCounters.deltas();
+        for (Pending entry : batch) {
+            Product product = entry.product;
+            ProductRepository.StoredState previous = stored.get(product.getId());
+            Category category = categories.get(product.getCategory().getId());
+            if (previous == null) {
+                entry.fail(new ResourceNotFoundException("Product not found with id " + product.getId()));
+            } else if (category == null) {
+                entry.fail(new InvalidRequestException("Category not found with id " + product.getCategory().getId()));
+            } else if (previous.getQuantityAvailable() != product.getQuantityAvailable()) {
+                entry.fail(ProductServiceImpl.stockChangeRejected(previous, product));
+            } else {
+                product.setCategory(category);
+                deltas.changed(previous.getCategoryId(), previous.getStatus(), product);
+                writable.add(entry);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE, writable, writable.size(), (ps, entry) -> {
+            Product p = entry.product;
+            ps.setString(1, p.getName());
+            ps.setString(2, p.getDescription());
+            ps.setDouble(3, p.getPrice());
+            ps.setTimestamp(4, p.getRegisteredTime());
+            ps.setString(5, p.getInternalSku());
+            ps.setString(6, p.getContactEmail());
+            ps.setBigDecimal(7, p.getWeight());
+            ps.setDate(8, p.getLaunchDate() != null ? Date.valueOf(p.getLaunchDate()) : null);
+            ps.setDate(9, p.getExpiryDate() != null ? Date.valueOf(p.getExpiryDate()) : null);
+            if (p.getStatus() != null) {
+                ps.setString(10, p.getStatus().name());
+            } else {
+                ps.setNull(10, Types.VARCHAR);
+            }
+            ps.setLong(11, p.getCategory().getId());
+            ps.setLong(12, p.getId());
+        });
+        categoryCounters.apply(deltas);
+        return writable;
+    }
+
+    // Committed: one cache pipeline, one id-list invalidation, then release the callers
+    private void afterCommit(List<Pending> written) {
+        if (written.isEmpty()) {
+            return;
+        }
+        Map<Long, Product> products = new LinkedHashMap<>();
+        written.forEach(entry -> products.put(entry.product.getId(), entry.product));
+        try {
+            Cache productCache = cacheManager.getCache(ProductListCache.PRODUCT);
+            if (productCache instanceof TwoTierCache) {
+                ((TwoTierCache) productCache).putAllAndInvalidatePeers(products);
+            } else if (productCache != null) {
+                products.forEach(productCache::put);
+            }
+            productListCache.onProductSaved(false);
+        } catch (RuntimeException ex) {
+            // The rows are committed; a stale cache entry is evicted so readers go to the database
+            logger.warn("Cache update after write-behind flush failed, evicting {} products", products.size(), ex);
+            Cache productCache = cacheManager.getCache(ProductListCache.PRODUCT);
+            if (productCache != null) {
+                products.keySet().forEach(id -> {
+                    try {
+                        productCache.evict(id);
+                    } catch (RuntimeException evictFailure) {
+                        logger.debug("Evict of product {} failed", id, evictFailure);
+                    }
+                });
+            }
+        }
+        products.values().forEach(productIndexes::onSaved);
+        written.forEach(entry -> entry.waiters.forEach(waiter -> waiter.complete(entry.product)));
+    }
+
+    private static final class Pending {
+        final long since;
+        final List<CompletableFuture<Product>> waiters = new ArrayList<>(1);
+        Product product;
+
+        Pending(long since) {
+            this.since = since;
+        }
+
+        void fail(Throwable cause) {
+            waiters.forEach(waiter -> waiter.completeExceptionally(cause));
+        }
+    }
+}
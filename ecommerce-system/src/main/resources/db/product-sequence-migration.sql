@@ -0,0 +1,26 @@
+-- Product ids: IDENTITY (AUTO_INCREMENT) -> pooled-lo sequence "product_seq" (see Product.id).
+--
+-- With spring.jpa.hibernate.ddl-auto=update Hibernate creates product_seq itself and
+-- ProductSequenceInitializer moves it past MAX(id) at startup. Where the schema is managed by
+-- hand (ddl-auto=validate/none), run this once on MySQL before deploying the sequence version.
+-- Safe to re-run.
+
+-- MySQL has no sequences: Hibernate emulates one with a one-row table (the same DDL it generates)
+CREATE TABLE IF NOT EXISTS product_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+-- Start past the ids IDENTITY already handed out; pooled-lo reads next_val as the first id of
+-- the next block of 100
+INSERT INTO product_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 1 FROM product
+WHERE NOT EXISTS (SELECT 1 FROM product_seq);
+
+UPDATE product_seq
+SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM product)
+WHERE next_val <= (SELECT COALESCE(MAX(id), 0) FROM product);
+
+-- Optional: ids now always come from the sequence. Dropping AUTO_INCREMENT is not required
+-- (an explicit id is accepted either way) but stops anything bypassing Hibernate from taking
+-- ids out of the sequence's range.
+-- ALTER TABLE product MODIFY id BIGINT NOT NULL;
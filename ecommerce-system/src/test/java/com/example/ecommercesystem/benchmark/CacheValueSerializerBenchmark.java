@@ -0,0 +1,102 @@
+package com.example.ecommercesystem.benchmark;
+
+import com.example.ecommercesystem.cache.CompactCacheValueSerializer;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cache value codecs: bytes per Product entry and encode/decode ns/op.
+ *
+ * Run from the IDE (main method) or:
+ *   mvnw.cmd test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.example.ecommercesystem.benchmark.CacheValueSerializerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheValueSerializerBenchmark {
+
+    @Param({"json", "binary"})
+    public String codec;
+
+    private RedisSerializer<Object> serializer;
+    private Product product;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = create(codec);
+        product = sampleProduct();
+        encoded = serializer.serialize(product);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(product);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    static RedisSerializer<Object> create(String codec) {
+        // The no-arg GenericJackson2JsonRedisSerializer cannot write LocalDate, so register JavaTimeModule
+        // and the same default typing it uses to get a like-for-like JSON baseline.
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer(mapper);
+        return "json".equals(codec) ? json : new CompactCacheValueSerializer(json, 512);
+    }
+
+    static Product sampleProduct() {
+        Category category = new Category();
+        category.setId(7L);
+        category.setName("Electronics");
+        category.setDescription("Phones, laptops and accessories");
+
+        Product product = new Product();
+        product.setId(123456L);
+        product.setName("Laptop Pro 15");
+        product.setDescription("A high-end laptop with a 15 inch display, 32GB RAM and a 1TB SSD.");
+        product.setPrice(1899.99);
+        product.setRegisteredTime(new Timestamp(1700000000000L));
+        product.setInternalSku("SKU-LP15-2024");
+        product.setContactEmail("support@example.com");
+        product.setQuantityAvailable(42);
+        product.setWeight(new BigDecimal("2.35"));
+        product.setLaunchDate(LocalDate.of(2024, 3, 1));
+        product.setExpiryDate(LocalDate.of(2030, 1, 1));
+        product.setStatus(Product.AvailabilityStatus.IN_STOCK);
+        product.setCategory(category);
+        return product;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Product sample = sampleProduct();
+        for (String codec : new String[]{"json", "binary"}) {
+            System.out.printf("%-6s bytes/entry: %d%n", codec, create(codec).serialize(sample).length);
+        }
+        new Runner(new OptionsBuilder()
+                .include(CacheValueSerializerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ecommercesystem.benchmark;
+
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One product listing request (a page of products, each with its EAGER category) with and
+ * without the Category second-level cache, on an in-memory H2 database.
+ *
+ * Besides the time per listing, the tear-down prints the SQL statements per listing:
+ * without the cache 1 + the number of distinct categories on the page, with it 1.
+ * H2 runs in-process, so against MySQL every saved statement also saves a network round trip.
+ *
+ * Run from the IDE (main method) or:
+ *   mvnw.cmd test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.example.ecommercesystem.benchmark.CategoryCacheBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CategoryCacheBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"false", "true"})
+    public boolean secondLevelCache;
+
+    @Param({"20"})
+    public int categories;
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private long listings;
+    private long after;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new MetadataSources(new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.URL, "jdbc:h2:mem:category_cache_" + secondLevelCache + ";MODE=MySQL;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.USER, "sa")
+                .applySetting(AvailableSettings.PASS, "")
+                .applySetting(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.GENERATE_STATISTICS, "true")
+                .applySetting(AvailableSettings.JPA_SHARED_CACHE_MODE, "ENABLE_SELECTIVE")
+                .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, String.valueOf(secondLevelCache))
+                .applySetting(AvailableSettings.CACHE_REGION_FACTORY, "jcache")
+                .applySetting(AvailableSettings.CACHE_REGION_PREFIX, "benchmark-" + secondLevelCache)
+                .build())
+                .addAnnotatedClass(Category.class)
+                .addAnnotatedClass(Product.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        statistics = sessionFactory.getStatistics();
+
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            List<Category> saved = new ArrayList<>();
+            for (int c = 0; c < categories; c++) {
+                Category category = new Category();
+                category.setName("category-" + c);
+                session.persist(category);
+                saved.add(category);
+            }
+            for (int i = 0; i < PRODUCTS; i++) {
+                Product product = new Product();
+                product.setName("product-" + i);
+                product.setPrice(10 + i % 1000);
+                product.setContactEmail("support@example.com");
+                product.setCategory(saved.get(i % categories));
+                session.persist(product);
+                if (i % 1000 == 999) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            tx.commit();
+        }
+        statistics.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nsecondLevelCache=%s: %.2f SQL statements per listing%n",
+                secondLevelCache, (double) statistics.getPrepareStatementCount() / listings);
+        sessionFactory.close();
+    }
+
+    /** Next page of products by id, in a new session (one request). */
+    @Benchmark
+    public List<Product> listing() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            List<Product> page = session.createQuery("SELECT p FROM Product p WHERE p.id > :after ORDER BY p.id", Product.class)
+                    .setParameter("after", after)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+            tx.commit();
+            after = page.size() == PAGE_SIZE ? page.get(PAGE_SIZE - 1).getId() : 0;
+            listings++;
+            return page;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CategoryCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.ecommercesystem.benchmark;
+
+import com.example.ecommercesystem.config.ExecutorMode;
+import com.example.ecommercesystem.config.ServiceExecutors;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10k concurrent simulated requests (each blocks ~20 ms, like a JDBC call or a remote service)
+ * per executor mode. Prints elapsed time, tasks/sec, the peak number of live threads and the
+ * heap used while all tasks are queued or running:
+ * - platform-10:   the default fixed pool (app.executor.pool-size=10), throughput ≈ 10 / 20 ms
+ * - platform-200:  a pool the size of Tomcat's default, more threads = more stacks
+ * - work-stealing: ForkJoinPool with one thread per core, blocking tasks do not compensate
+ * - virtual:       one virtual thread per task, JDK 21+ only (skipped on older runtimes)
+ *
+ * Not a JMH benchmark: the interesting numbers are throughput and footprint of a burst of
+ * blocking tasks, not the latency of one call. Heap numbers are indicative only (one sample,
+ * after a System.gc()).
+ *
+ * Run from the IDE (main method) or:
+ *   mvnw.cmd test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.example.ecommercesystem.benchmark.ExecutorModeBenchmark
+ */
+public class ExecutorModeBenchmark {
+
+    private static final int TASKS = 10_000;
+    private static final long TASK_MILLIS = 20;
+    private static final int ROUNDS = 2;
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int round = 0; round < ROUNDS; round++) { // first round warms up the JIT
+            run("platform-10", ExecutorMode.PLATFORM, 10, round);
+            run("platform-200", ExecutorMode.PLATFORM, 200, round);
+            run("work-stealing", ExecutorMode.WORK_STEALING, cores, round);
+            if (ServiceExecutors.virtualThreadsSupported()) {
+                run("virtual", ExecutorMode.VIRTUAL, 0, round);
+            } else {
+                System.out.printf("round %d %-14s skipped, needs JDK 21+ (running %s)%n",
+                        round, "virtual", System.getProperty("java.version"));
+            }
+        }
+    }
+
+    private static void run(String name, ExecutorMode mode, int poolSize, int round) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        threads.resetPeakThreadCount();
+
+        ExecutorService executor = ServiceExecutors.create(mode, poolSize, "benchmark-");
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            futures.add(executor.submit(() -> {
+                Thread.sleep(TASK_MILLIS);
+                return null;
+            }));
+        }
+        long heapSubmitted = runtime.totalMemory() - runtime.freeMemory();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        int peakThreads = threads.getPeakThreadCount();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("round %d %-14s %8.0f ms %10.0f tasks/sec  peak threads %5d  heap +%6.1f MB%n",
+                round, name, seconds * 1000, TASKS / seconds, peakThreads,
+                (heapSubmitted - heapBefore) / (1024.0 * 1024.0));
+    }
+}
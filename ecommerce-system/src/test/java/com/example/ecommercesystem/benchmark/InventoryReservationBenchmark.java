@@ -0,0 +1,124 @@
+package com.example.ecommercesystem.benchmark;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flash-sale stress test: N threads buy one unit of the same product until it is sold out.
+ * Prints reservations/sec and the oversell count (units sold beyond the stock) per strategy:
+ * - read-modify-write: read the quantity, check, write quantity - 1 (read product, saveProduct)
+ * - single-atomic:      one AtomicInteger per product, CAS decrement
+ * - guarded-update:     what the database does for InventoryServiceImpl's
+ *                       UPDATE ... WHERE quantity_available >= ?: check and decrement under the row lock
+ *
+ * Not a JMH benchmark: the interesting numbers are a throughput under contention and a
+ * correctness count, not the latency of one call.
+ *
+ * Run from the IDE (main method) or:
+ *   mvnw.cmd test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.example.ecommercesystem.benchmark.InventoryReservationBenchmark
+ */
+public class InventoryReservationBenchmark {
+
+    private static final int STOCK = 2_000_000;
+    private static final int ROUNDS = 3;
+
+    interface Strategy {
+        /** @return false once sold out */
+        boolean buyOne();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new TreeSet<>(Arrays.asList(1, cores, cores * 4))) {
+            for (int round = 0; round < ROUNDS; round++) { // first rounds warm up the JIT
+                report("read-modify-write", threads, round, readModifyWrite());
+                report("single-atomic", threads, round, singleAtomic());
+                report("guarded-update", threads, round, guardedUpdate());
+            }
+        }
+    }
+
+    // get + set, no CAS: two buyers can read the same quantity and both "sell" the same unit
+    private static Strategy readModifyWrite() {
+        AtomicInteger quantity = new AtomicInteger(STOCK);
+        return () -> {
+            int current = quantity.get();
+            if (current < 1) {
+                return false;
+            }
+            quantity.set(current - 1);
+            return true;
+        };
+    }
+
+    private static Strategy singleAtomic() {
+        AtomicInteger quantity = new AtomicInteger(STOCK);
+        return () -> {
+            while (true) {
+                int current = quantity.get();
+                if (current < 1) {
+                    return false;
+                }
+                if (quantity.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
+        };
+    }
+
+    // In-memory stand-in for the row: no network or disk, so this is the upper bound of the real thing
+    private static Strategy guardedUpdate() {
+        Lock rowLock = new ReentrantLock();
+        int[] quantity = {STOCK};
+        return () -> {
+            rowLock.lock();
+            try {
+                if (quantity[0] < 1) {
+                    return false;
+                }
+                quantity[0]--;
+                return true;
+            } finally {
+                rowLock.unlock();
+            }
+        };
+    }
+
+    private static void report(String name, int threads, int round, Strategy strategy) throws InterruptedException {
+        LongAdder sold = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (strategy.buyOne()) {
+                    sold.increment();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        if (round == ROUNDS - 1) {
+            System.out.printf("%-18s threads=%-3d %,12.0f reservations/sec  oversell=%d%n",
+                    name, threads, sold.sum() / seconds, Math.max(0, sold.sum() - STOCK));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.ecommercesystem.benchmark;
+
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.search.ProductPriceIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One price-range page (ids + total) over 1M products: {@link ProductPriceIndex} vs the equivalent
+ * SQL on an in-memory H2 table with the same (price, id) index as the product table.
+ *
+ * H2 runs in-process, so the SQL side pays no network round trip: the gap against MySQL is
+ * larger than shown here.
+ *
+ * Run from the IDE (main method) or:
+ *   mvnw.cmd test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.example.ecommercesystem.benchmark.PriceRangeBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class PriceRangeBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+
+    /** Selectivity of the range: 100-500 of 0-1000 matches ~40% of the rows. */
+    @Param({"100-500", "990-1000"})
+    public String range;
+
+    /** 0 = first page (top-N), 1000 = a deep page */
+    @Param({"0", "1000"})
+    public int page;
+
+    private double min;
+    private double max;
+    private ProductPriceIndex index;
+    private Connection connection;
+    private PreparedStatement pageQuery;
+    private PreparedStatement countQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String[] bounds = range.split("-");
+        min = Double.parseDouble(bounds[0]);
+        max = Double.parseDouble(bounds[1]);
+
+        Random random = new Random(42);
+        double[] prices = new double[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            prices[i] = Math.round(random.nextDouble() * 100_000) / 100.0;
+        }
+
+        index = new ProductPriceIndex();
+        Product product = new Product();
+        for (int i = 0; i < ROWS; i++) {
+            product.setId((long) i + 1);
+            product.setPrice(prices[i]);
+            index.index(product);
+        }
+        index.refresh();
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:price_range_" + range + "_" + page, "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE product (id BIGINT PRIMARY KEY, price DOUBLE NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO product (id, price) VALUES (?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setLong(1, i + 1);
+                insert.setDouble(2, prices[i]);
+                insert.addBatch();
+                if ((i + 1) % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE INDEX idx_product_price_id ON product (price, id)");
+            ddl.execute("ANALYZE");
+        }
+        pageQuery = connection.prepareStatement(
+                "SELECT id FROM product WHERE price BETWEEN ? AND ? ORDER BY price, id LIMIT ? OFFSET ?");
+        countQuery = connection.prepareStatement("SELECT COUNT(*) FROM product WHERE price BETWEEN ? AND ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public ProductPriceIndex.Range priceIndex() {
+        return index.range(min, max, false, page, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public long sql() throws SQLException {
+        List<Long> ids = new ArrayList<>(PAGE_SIZE);
+        pageQuery.setDouble(1, min);
+        pageQuery.setDouble(2, max);
+        pageQuery.setInt(3, PAGE_SIZE);
+        pageQuery.setInt(4, page * PAGE_SIZE);
+        try (ResultSet rows = pageQuery.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        countQuery.setDouble(1, min);
+        countQuery.setDouble(2, max);
+        try (ResultSet count = countQuery.executeQuery()) {
+            count.next();
+            return count.getLong(1) + ids.size();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PriceRangeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.ecommercesystem.cache;
+
+import com.example.ecommercesystem.dto.ProductIdPage;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Loan;
+import com.example.ecommercesystem.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactCacheValueSerializerTest {
+
+    private GenericJackson2JsonRedisSerializer json;
+    private CompactCacheValueSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        json = new GenericJackson2JsonRedisSerializer();
+        serializer = new CompactCacheValueSerializer(json, 512);
+    }
+
+    @Test
+    @DisplayName("Product round-trips every field, including its category")
+    void productRoundTrip() {
+        Product product = sampleProduct("A high-end gaming laptop.");
+
+        Product copy = (Product) serializer.deserialize(serializer.serialize(product));
+
+        assertEquals(product, copy);
+        assertEquals(product.getInternalSku(), copy.getInternalSku());
+        assertEquals(product.getCategory().getName(), copy.getCategory().getName());
+        assertNull(copy.getCategory().getProducts());
+    }
+
+    @Test
+    void productWithNullFieldsRoundTrip() {
+        Product product = new Product();
+        product.setName("Bare");
+
+        assertEquals(product, serializer.deserialize(serializer.serialize(product)));
+    }
+
+    @Test
+    void loanRoundTrip() {
+        Loan loan = new Loan();
+        loan.setId(5L);
+        loan.setBorrowerName("Jane");
+        loan.setAmount(25000.0);
+        loan.setInterestRate(7.5);
+        loan.setDuration(36);
+
+        assertEquals(loan, serializer.deserialize(serializer.serialize(loan)));
+    }
+
+    @Test
+    @DisplayName("Large payloads are deflated and still round-trip")
+    void compressesAboveThreshold() {
+        char[] text = new char[500];
+        Arrays.fill(text, 'x');
+        Product product = sampleProduct(new String(text));
+
+        byte[] compressed = serializer.serialize(product);
+        byte[] uncompressed = new CompactCacheValueSerializer(json, 0).serialize(product);
+
+        assertTrue(compressed.length < uncompressed.length);
+        assertEquals(product, serializer.deserialize(compressed));
+    }
+
+    @Test
+    void binaryIsSmallerThanJson() {
+        Product product = withoutDates(sampleProduct("A high-end gaming laptop."));
+
+        assertTrue(serializer.serialize(product).length < json.serialize(product).length);
+    }
+
+    @Test
+    @DisplayName("Other types go through JSON, JSON entries written before the codec still decode")
+    void fallsBackToJson() {
+        ProductIdPage page = new ProductIdPage(Arrays.asList(1L, 2L, 3L), 3);
+        assertEquals(page, serializer.deserialize(serializer.serialize(page)));
+        assertEquals(page, serializer.deserialize(json.serialize(page)));
+    }
+
+    @Test
+    @DisplayName("A JSON entry the delegate cannot read is a cache miss, not an error")
+    void unreadableJsonIsAMiss() {
+        // Jackson cannot read a JSON Product back (Category.products has no back reference)
+        byte[] legacy = json.serialize(withoutDates(sampleProduct("written before the binary codec")));
+
+        assertNull(serializer.deserialize(legacy));
+    }
+
+    // The default JSON serializer has no JavaTimeModule and rejects LocalDate
+    private static Product withoutDates(Product product) {
+        product.setLaunchDate(null);
+        product.setExpiryDate(null);
+        return product;
+    }
+
+    private static Product sampleProduct(String description) {
+        Category category = new Category();
+        category.setId(2L);
+        category.setName("Computers");
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Laptop");
+        product.setDescription(description);
+        product.setPrice(1200.00);
+        product.setRegisteredTime(new Timestamp(1700000000123L));
+        product.setInternalSku("SKU-1");
+        product.setContactEmail("support@example.com");
+        product.setQuantityAvailable(10);
+        product.setWeight(new BigDecimal("1.250"));
+        product.setLaunchDate(LocalDate.of(2024, 1, 15));
+        product.setExpiryDate(LocalDate.of(2030, 12, 31));
+        product.setStatus(Product.AvailabilityStatus.PREORDER);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.ecommercesystem.cache;
+
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import com.example.ecommercesystem.repository.ProductRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Id-list caching and hydration over H2, with a ConcurrentMapCacheManager standing in for
+ * Caffeine + Redis. Statement counts come from Hibernate statistics.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productlistcache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductListCache.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductListCacheTest {
+
+    @TestConfiguration
+    static class Caches {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+
+    @Autowired
+    private ProductListCache productListCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        category = new Category();
+        category.setName("electronics");
+        category = categoryRepository.save(category);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void secondListingIsServedFromTheCaches() {
+        product("laptop", 1200);
+        product("phone", 800);
+        assertEquals(Arrays.asList("laptop", "phone"), names(productListCache.findAll()));
+
+        statistics.clear();
+        assertEquals(Arrays.asList("laptop", "phone"), names(productListCache.findAll()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void hydrateKeepsOrderAndDuplicatesSkipsMissingIdsAndBackfills() {
+        Product laptop = product("laptop", 1200);
+        Product phone = product("phone", 800);
+
+        List<Product> products = productListCache.hydrate(Arrays.asList(phone.getId(), -1L, laptop.getId(), phone.getId()));
+
+        assertEquals(Arrays.asList("phone", "laptop", "phone"), names(products));
+        assertNotNull(cacheManager.getCache(ProductListCache.PRODUCT).get(laptop.getId()));
+        statistics.clear();
+        productListCache.hydrate(Arrays.asList(laptop.getId(), phone.getId()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void insertInvalidatesEveryIdList() {
+        product("laptop", 1200);
+        warmAllIdLists();
+
+        product("phone", 800);
+        productListCache.onProductSaved(true);
+
+        assertNull(cacheManager.getCache(ProductListCache.PRODUCT_IDS).get("all"));
+        assertNull(cacheManager.getCache(ProductListCache.PRODUCT_ID_PAGES).get(idPageKey()));
+        assertNull(cacheManager.getCache(ProductListCache.PRODUCT_ID_PAGES_SORTED).get(pricePageKey()));
+        assertEquals(Arrays.asList("laptop", "phone"), names(productListCache.findAll()));
+    }
+
+    @Test
+    void updateKeepsIdOrderedListsAndDropsOtherSorts() {
+        Product laptop = product("laptop", 1200);
+        product("phone", 800);
+        warmAllIdLists();
+        assertEquals(Arrays.asList("phone", "laptop"), names(byPrice()));
+
+        laptop.setPrice(500);
+        productRepository.save(laptop);
+        cacheManager.getCache(ProductListCache.PRODUCT).put(laptop.getId(), laptop); // the @CachePut of saveProduct
+        productListCache.onProductSaved(false);
+
+        assertNotNull(cacheManager.getCache(ProductListCache.PRODUCT_IDS).get("all"));
+        assertNotNull(cacheManager.getCache(ProductListCache.PRODUCT_ID_PAGES).get(idPageKey()));
+        assertNull(cacheManager.getCache(ProductListCache.PRODUCT_ID_PAGES_SORTED).get(pricePageKey()));
+        assertEquals(Arrays.asList("laptop", "phone"), names(byPrice()));
+    }
+
+    @Test
+    void deleteInvalidatesEveryIdList() {
+        Product laptop = product("laptop", 1200);
+        product("phone", 800);
+        warmAllIdLists();
+
+        productRepository.deleteById(laptop.getId());
+        cacheManager.getCache(ProductListCache.PRODUCT).evict(laptop.getId()); // the @CacheEvict of deleteProduct
+        productListCache.onProductDeleted();
+
+        assertNull(cacheManager.getCache(ProductListCache.PRODUCT_IDS).get("all"));
+        assertNull(cacheManager.getCache(ProductListCache.PRODUCT_ID_PAGES).get(idPageKey()));
+        assertNull(cacheManager.getCache(ProductListCache.PRODUCT_ID_PAGES_SORTED).get(pricePageKey()));
+        assertEquals(Arrays.asList("phone"), names(productListCache.findAll()));
+    }
+
+    private void warmAllIdLists() {
+        productListCache.findAll();
+        productListCache.findPage(PageRequest.of(0, 10, Sort.by("id")));
+        byPrice();
+        assertNotNull(cacheManager.getCache(ProductListCache.PRODUCT_IDS).get("all"));
+        assertNotNull(cacheManager.getCache(ProductListCache.PRODUCT_ID_PAGES).get(idPageKey()));
+        assertNotNull(cacheManager.getCache(ProductListCache.PRODUCT_ID_PAGES_SORTED).get(pricePageKey()));
+    }
+
+    private List<Product> byPrice() {
+        return productListCache.findPage(PageRequest.of(0, 10, Sort.by("price"))).getContent();
+    }
+
+    private static String idPageKey() {
+        return "0:10:" + Sort.by("id");
+    }
+
+    private static String pricePageKey() {
+        return "0:10:" + Sort.by("price");
+    }
+
+    private Product product(String name, double price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price);
+        product.setContactEmail("support@example.com");
+        product.setCategory(category);
+        return productRepository.save(product);
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.ecommercesystem.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Uses a ConcurrentMapCache as the "remote" tier, so no Redis is needed. The lease and the
+ * GET + PTTL pipeline are faked by FakeRedis, which overrides the manager's Redis calls.
+ */
+public class TwoTierCacheTest {
+
+    private ConcurrentMapCacheManager remote;
+    private StringRedisTemplate redisTemplate;
+    private TwoTierCacheManager manager;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCacheManager();
+        redisTemplate = mock(StringRedisTemplate.class);
+        manager = new TwoTierCacheManager(remote, redisTemplate, new SimpleMeterRegistry(), new TwoTierCacheProperties());
+        cache = manager.getCache("product");
+    }
+
+    @Test
+    void readsThroughToRemoteAndKeepsNearCopy() {
+        remote.getCache("product").put(1L, "laptop");
+
+        assertEquals("laptop", cache.get(1L, String.class));
+
+        remote.getCache("product").evict(1L); // L1 still serves it until invalidated or expired
+        assertEquals("laptop", cache.get(1L, String.class));
+    }
+
+    @Test
+    void writesGoToBothTiers() {
+        cache.put(2L, "phone");
+
+        assertEquals("phone", remote.getCache("product").get(2L, String.class));
+        assertEquals("phone", cache.get(2L, String.class));
+
+        cache.evict(2L);
+        assertNull(cache.get(2L));
+        assertNull(remote.getCache("product").get(2L));
+    }
+
+    @Test
+    void evictFromAPeerDropsTheNearCopy() {
+        remote.getCache("product").put(1L, "laptop");
+        cache.get(1L);
+        remote.getCache("product").put(1L, "laptop v2"); // written by the peer
+
+        manager.onMessage(message("peer|E|product|1"), null);
+
+        assertEquals("laptop v2", cache.get(1L, String.class));
+    }
+
+    @Test
+    void clearFromAPeerDropsEveryNearCopy() {
+        remote.getCache("product").put(1L, "laptop");
+        remote.getCache("product").put(2L, "phone");
+        cache.get(1L);
+        cache.get(2L);
+        remote.getCache("product").clear();
+
+        manager.onMessage(message("peer|C|product|"), null);
+
+        assertNull(cache.get(1L));
+        assertNull(cache.get(2L));
+    }
+
+    @Test
+    void ownInvalidationsAreIgnored() {
+        cache.put(3L, "tablet");
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(TwoTierCacheManager.INVALIDATION_CHANNEL), published.capture());
+        remote.getCache("product").evict(3L);
+
+        manager.onMessage(message(published.getValue()), null);
+
+        assertEquals("tablet", cache.get(3L, String.class)); // still the L1 copy
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return cache.get(3L, () -> {
+                        loads.incrementAndGet();
+                        Thread.sleep(200);
+                        return "tablet";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("tablet", result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void loaderFailureIsNotCached() {
+        RuntimeException boom = new IllegalStateException("db down");
+        Cache.ValueRetrievalException ex = assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get(4L, () -> { throw boom; }));
+        assertSame(boom, ex.getCause());
+        assertNull(cache.get(4L));
+    }
+
+    @Test
+    void loaderErrorIsPassedToCoalescedCallersInsteadOfBlockingThem() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch waiterQueued = new CountDownLatch(1);
+        AssertionError boom = new AssertionError("loader blew up");
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = pool.submit(() -> cache.get(13L, () -> {
+                loading.countDown();
+                waiterQueued.await();
+                Thread.sleep(200); // let the waiter reach the in-flight load
+                throw boom;
+            }));
+            loading.await();
+            Future<Object> waiter = pool.submit(() -> {
+                waiterQueued.countDown();
+                return cache.get(13L, () -> "never called");
+            });
+
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertSame(boom, leaderFailure.getCause());
+            ExecutionException waiterFailure = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertSame(boom, waiterFailure.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals("recovered", cache.get(13L, () -> "recovered")); // no stuck in-flight entry left
+    }
+
+    @Test
+    void leaseHolderLoadsAndReleasesTheLease() {
+        FakeRedis redis = new FakeRedis(remote, leaseProperties());
+        Cache leased = redis.getCache("product");
+
+        assertEquals("laptop", leased.get(5L, () -> "laptop"));
+
+        assertEquals(1, redis.leaseAttempts.get());
+        assertTrue(redis.leases.isEmpty());
+        assertEquals("laptop", remote.getCache("product").get(5L, String.class));
+    }
+
+    @Test
+    void waitsForTheValueOfTheNodeHoldingTheLease() throws Exception {
+        FakeRedis redis = new FakeRedis(remote, leaseProperties());
+        Cache leased = redis.getCache("product");
+        redis.leases.put("lease:product::6", "other-node");
+        ExecutorService peer = Executors.newSingleThreadExecutor();
+        try {
+            peer.submit(() -> {
+                Thread.sleep(50);
+                remote.getCache("product").put(6L, "from-peer");
+                return null;
+            });
+            AtomicInteger loads = new AtomicInteger();
+
+            assertEquals("from-peer", leased.get(6L, () -> {
+                loads.incrementAndGet();
+                return "own";
+            }));
+            assertEquals(0, loads.get());
+            assertTrue(redis.leaseAttempts.get() > 1);
+        } finally {
+            peer.shutdownNow();
+        }
+    }
+
+    @Test
+    void loadsItselfWhenTheLeaseHolderNeverDelivers() {
+        FakeRedis redis = new FakeRedis(remote, leaseProperties());
+        Cache leased = redis.getCache("product");
+        redis.leases.put("lease:product::7", "dead-node");
+
+        long start = System.currentTimeMillis();
+        assertEquals("own", leased.get(7L, () -> "own"));
+
+        assertTrue(System.currentTimeMillis() - start >= 200); // waited out the lease time
+        assertEquals("dead-node", redis.leases.get("lease:product::7")); // not ours to release
+    }
+
+    @Test
+    void l1MissReadsValueAndTtlInOneRoundTrip() {
+        FakeRedis redis = FakeRedis.withRedisCache(new TwoTierCacheProperties());
+        redis.store("product::8", "tablet", TimeUnit.MINUTES.toMillis(10));
+
+        assertEquals("tablet", redis.getCache("product").get(8L, String.class));
+        assertEquals(1, redis.roundTrips.get());
+        assertEquals("tablet", redis.getCache("product").get(8L, String.class)); // L1 now
+        assertEquals(1, redis.roundTrips.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void everyL1HitGetsItsOwnCopy() {
+        FakeRedis redis = FakeRedis.withRedisCache(new TwoTierCacheProperties());
+        Cache cache = redis.getCache("product");
+        ArrayList<String> written = new ArrayList<>(Collections.singletonList("laptop"));
+        cache.put(12L, written);
+        written.add("changed after put"); // e.g. a managed entity the caller keeps using
+
+        List<String> first = cache.get(12L, List.class);
+        first.add("changed by a reader");
+        List<String> second = cache.get(12L, List.class);
+
+        assertEquals(Collections.singletonList("laptop"), second);
+        assertNotSame(first, second);
+        assertEquals(0, redis.roundTrips.get()); // both were L1 hits
+    }
+
+    @Test
+    void entryAboutToExpireIsRefreshedEarlyByOneCaller() {
+        FakeRedis redis = FakeRedis.withRedisCache(new TwoTierCacheProperties());
+        redis.store("product::9", "stale", 0); // PTTL 0: expiring now
+        Cache cache = redis.getCache("product");
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("fresh", cache.get(9L, () -> {
+            loads.incrementAndGet();
+            return "fresh";
+        }));
+        // Back in L1 with a full TTL: no further refresh
+        assertEquals("fresh", cache.get(9L, () -> {
+            loads.incrementAndGet();
+            return "again";
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void entryFarFromExpiryIsNotRefreshed() {
+        FakeRedis redis = FakeRedis.withRedisCache(new TwoTierCacheProperties());
+        redis.store("product::10", "current", TimeUnit.MINUTES.toMillis(10));
+
+        assertEquals("current", redis.getCache("product").get(10L, () -> "reloaded"));
+    }
+
+    @Test
+    void earlyRefreshKeepsTheCurrentValueWhileAnotherNodeRefreshes() {
+        TwoTierCacheProperties properties = leaseProperties();
+        FakeRedis redis = FakeRedis.withRedisCache(properties);
+        redis.store("product::11", "current", 0);
+        redis.leases.put("lease:product::11", "other-node");
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("current", redis.getCache("product").get(11L, () -> {
+            loads.incrementAndGet();
+            return "reloaded";
+        }));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void getAllReturnsHitsInKeyOrderAndSkipsMisses() {
+        remote.getCache("product").put(1L, "laptop");
+        cache.put(2L, "phone");
+
+        Map<Object, Object> found = ((TwoTierCache) cache).getAll(Arrays.asList(2L, 3L, 1L, 2L));
+
+        assertEquals(Arrays.asList(2L, 1L), new ArrayList<>(found.keySet()));
+        assertEquals("laptop", found.get(1L));
+        assertEquals("phone", found.get(2L));
+    }
+
+    @Test
+    void getAllFetchesOnlyL1MissesInOneMget() {
+        FakeRedis redis = FakeRedis.withRedisCache(new TwoTierCacheProperties());
+        redis.store("product::1", "laptop", TimeUnit.MINUTES.toMillis(10));
+        redis.store("product::2", "phone", TimeUnit.MINUTES.toMillis(10));
+        TwoTierCache cache = (TwoTierCache) redis.getCache("product");
+        assertEquals("laptop", cache.get(1L, String.class)); // now in L1
+
+        Map<Object, Object> found = cache.getAll(Arrays.asList(1L, 2L, 3L));
+
+        assertEquals(Arrays.asList(1L, 2L), new ArrayList<>(found.keySet()));
+        assertEquals(Collections.singletonList(Arrays.asList("product::2", "product::3")), redis.mgets);
+        assertEquals("phone", cache.getAll(Collections.singletonList(2L)).get(2L)); // back-filled L1
+        assertEquals(1, redis.mgets.size());
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(TwoTierCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TwoTierCacheProperties leaseProperties() {
+        TwoTierCacheProperties properties = new TwoTierCacheProperties();
+        properties.getLease().setEnabled(true);
+        properties.getLease().setTime(200);
+        properties.getLease().setPollInterval(10);
+        return properties;
+    }
+
+    /** Stands in for the manager's Redis commands: lease SET NX / release, and GET + PTTL. */
+    static class FakeRedis extends TwoTierCacheManager {
+
+        private static final RedisCacheConfiguration CONFIG = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMinutes(10));
+
+        final Map<String, String> leases = new ConcurrentHashMap<>();
+        final Map<String, RemoteEntry> entries = new ConcurrentHashMap<>();
+        final AtomicInteger leaseAttempts = new AtomicInteger();
+        final AtomicInteger roundTrips = new AtomicInteger();
+        final List<List<String>> mgets = new ArrayList<>();
+
+        FakeRedis(CacheManager remote, TwoTierCacheProperties properties) {
+            super(remote, mock(StringRedisTemplate.class), new SimpleMeterRegistry(), properties);
+        }
+
+        /** L2 is a real RedisCache (10 min TTL) over a mocked writer: reads go through getWithTtl. */
+        static FakeRedis withRedisCache(TwoTierCacheProperties properties) {
+            return new FakeRedis(RedisCacheManager.builder(mock(RedisCacheWriter.class)).cacheDefaults(CONFIG).build(),
+                    properties);
+        }
+
+        void store(String redisKey, Object value, long ttlMillis) {
+            entries.put(redisKey, new RemoteEntry(ByteUtils.getBytes(CONFIG.getValueSerializationPair().write(value)), ttlMillis));
+        }
+
+        @Override
+        RemoteEntry getWithTtl(byte[] redisKey) {
+            roundTrips.incrementAndGet();
+            RemoteEntry entry = entries.get(new String(redisKey, StandardCharsets.UTF_8));
+            return entry != null ? entry : new RemoteEntry(null, -2);
+        }
+
+        @Override
+        List<byte[]> multiGet(List<byte[]> redisKeys) {
+            List<String> keys = new ArrayList<>();
+            List<byte[]> values = new ArrayList<>();
+            for (byte[] redisKey : redisKeys) {
+                String key = new String(redisKey, StandardCharsets.UTF_8);
+                keys.add(key);
+                values.add(entries.containsKey(key) ? entries.get(key).value : null);
+            }
+            mgets.add(keys);
+            return values;
+        }
+
+        @Override
+        boolean tryAcquireLease(String leaseKey, String token, long leaseMillis) {
+            leaseAttempts.incrementAndGet();
+            return leases.putIfAbsent(leaseKey, token) == null;
+        }
+
+        @Override
+        void releaseLease(String leaseKey, String token) {
+            leases.remove(leaseKey, token);
+        }
+    }
+}
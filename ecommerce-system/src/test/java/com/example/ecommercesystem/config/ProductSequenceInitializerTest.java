@@ -0,0 +1,69 @@
+package com.example.ecommercesystem.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The table-emulated sequence Hibernate creates on MySQL (one row, next_val starting at 1),
+ * over products inserted while ids were still IDENTITY.
+ */
+public class ProductSequenceInitializerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ProductSequenceInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:productseq" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE product (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(120))");
+        jdbcTemplate.execute("CREATE TABLE product_seq (next_val BIGINT)");
+        jdbcTemplate.update("INSERT INTO product_seq VALUES (1)");
+        initializer = new ProductSequenceInitializer();
+        ReflectionTestUtils.setField(initializer, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void movesTheSequencePastExistingIds() {
+        jdbcTemplate.update("INSERT INTO product (id, name) VALUES (1, 'a'), (2, 'b'), (742, 'c')");
+
+        initializer.alignProductSequence();
+
+        assertEquals(743L, nextVal());
+    }
+
+    @Test
+    void leavesASequenceThatIsAlreadyAheadAlone() {
+        jdbcTemplate.update("INSERT INTO product (id, name) VALUES (5, 'a')");
+        jdbcTemplate.update("UPDATE product_seq SET next_val = 201");
+
+        initializer.alignProductSequence();
+
+        assertEquals(201L, nextVal());
+    }
+
+    @Test
+    void emptyCatalogKeepsTheStartValue() {
+        initializer.alignProductSequence();
+
+        assertEquals(1L, nextVal());
+    }
+
+    @Test
+    void nativeSequencesAreLeftToTheDatabase() {
+        jdbcTemplate.execute("DROP TABLE product_seq");
+        jdbcTemplate.execute("CREATE SEQUENCE product_seq START WITH 1 INCREMENT BY 100");
+
+        assertDoesNotThrow(initializer::alignProductSequence);
+    }
+
+    private Long nextVal() {
+        return jdbcTemplate.queryForObject("SELECT next_val FROM product_seq", Long.class);
+    }
+}
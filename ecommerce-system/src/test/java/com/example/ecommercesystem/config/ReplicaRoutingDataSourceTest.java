@@ -0,0 +1,128 @@
+package com.example.ecommercesystem.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two in-memory H2 databases stand in for primary and replica. Replication is simulated by
+ * copying the heartbeat row; each database has a "whoami" row telling which one answered.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private static final long MAX_LAG = 50;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private ReplicaLagMonitor monitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        routing = new ReplicaRoutingDataSource(primary, Collections.singletonMap("replica-1", replica), registry);
+        monitor = new ReplicaLagMonitor(routing, MAX_LAG, registry);
+        monitor.createHeartbeatTable();
+        new JdbcTemplate(replica).execute("CREATE TABLE " + ReplicaLagMonitor.TABLE
+                + " (id INT NOT NULL PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaOnceItIsCaughtUp() {
+        monitor.check(); // first heartbeat, nothing to compare with yet
+        assertEquals("primary", whoAnswers(readOnly));
+
+        replicateHeartbeat();
+        monitor.check();
+
+        assertEquals(0, monitor.getLag("replica-1"));
+        assertEquals("replica", whoAnswers(readOnly));
+        assertEquals("primary", whoAnswers(readWrite));
+        assertEquals("primary", jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class)); // no transaction
+        assertEquals(1.0, registry.get("datasource.routing.connections").tag("target", "replica-1").counter().count());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() throws InterruptedException {
+        monitor.check();
+        replicateHeartbeat();
+        monitor.check();
+        assertEquals("replica", whoAnswers(readOnly));
+
+        // The replica stops applying changes: its heartbeat gets older than max-lag
+        Thread.sleep(MAX_LAG * 2);
+        monitor.check();
+
+        assertTrue(monitor.getLag("replica-1") > MAX_LAG);
+        assertEquals("primary", whoAnswers(readOnly));
+        assertEquals(0.0, registry.get("datasource.replica.available").gauge().value());
+
+        replicateHeartbeat();
+        monitor.check();
+        assertEquals("replica", whoAnswers(readOnly));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        routing = new ReplicaRoutingDataSource(primary,
+                Collections.singletonMap("replica-1", new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/none")), registry);
+        routing.setAvailable(Collections.singletonList("replica-1"));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(new LazyConnectionDataSourceProxy(routing));
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        assertEquals("primary", whoAnswers(template));
+        assertTrue(routing.getAvailable().isEmpty());
+    }
+
+    private String whoAnswers(TransactionTemplate template) {
+        JdbcTemplate jdbc = new JdbcTemplate(((DataSourceTransactionManager) template.getTransactionManager()).getDataSource());
+        return template.execute(status -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private void replicateHeartbeat() {
+        Long beat = new JdbcTemplate(primary).queryForObject("SELECT beat_millis FROM " + ReplicaLagMonitor.TABLE, Long.class);
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.update("DELETE FROM " + ReplicaLagMonitor.TABLE);
+        replicaJdbc.update("INSERT INTO " + ReplicaLagMonitor.TABLE + " (id, beat_millis) VALUES (1, ?)", beat);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing_" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(16))");
+        jdbc.update("INSERT INTO whoami (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
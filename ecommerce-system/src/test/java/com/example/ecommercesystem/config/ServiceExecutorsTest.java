@@ -0,0 +1,73 @@
+package com.example.ecommercesystem.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServiceExecutorsTest {
+
+    @Test
+    void platformPoolUsesNamedThreads() throws Exception {
+        ExecutorService executor = ServiceExecutors.create(ExecutorMode.PLATFORM, 2, "test-");
+        try {
+            assertEquals("test-1", executor.submit(() -> Thread.currentThread().getName()).get());
+        } finally {
+            shutdown(executor);
+        }
+    }
+
+    @Test
+    void workStealingUsesAForkJoinPool() {
+        ExecutorService executor = ServiceExecutors.create(ExecutorMode.WORK_STEALING, 3, "test-");
+        try {
+            assertTrue(executor instanceof ForkJoinPool);
+            assertEquals(3, ((ForkJoinPool) executor).getParallelism());
+        } finally {
+            shutdown(executor);
+        }
+    }
+
+    @Test
+    void virtualModeRunsOnVirtualThreadsOrFallsBackToPlatform() throws Exception {
+        ExecutorService executor = ServiceExecutors.create(ExecutorMode.VIRTUAL, 2, "test-");
+        try {
+            String name = executor.submit(() -> Thread.currentThread().toString()).get();
+            if (ServiceExecutors.virtualThreadsSupported()) {
+                assertTrue(name.startsWith("VirtualThread"), name);
+            } else {
+                assertTrue(name.contains("test-1"), name);
+                assertThrows(UnsupportedOperationException.class, ServiceExecutors::newVirtualThreadPerTaskExecutor);
+            }
+        } finally {
+            shutdown(executor);
+        }
+    }
+
+    @Test
+    void maxInFlightDefaultsPerModeUnlessSet() {
+        ServiceExecutorProperties properties = new ServiceExecutorProperties();
+        assertEquals(1010, properties.effectiveMaxInFlight());
+        properties.setMode(ExecutorMode.WORK_STEALING);
+        assertEquals(1010, properties.effectiveMaxInFlight());
+
+        properties.setMode(ExecutorMode.VIRTUAL);
+        assertEquals(ServiceExecutors.virtualThreadsSupported() ? ServiceExecutorProperties.VIRTUAL_MAX_IN_FLIGHT : 1010,
+                properties.effectiveMaxInFlight());
+
+        properties.setMaxInFlight(50);
+        assertEquals(50, properties.effectiveMaxInFlight());
+    }
+
+    private static void shutdown(ExecutorService executor) {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
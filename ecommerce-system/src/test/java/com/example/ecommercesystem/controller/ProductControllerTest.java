@@ -0,0 +1,158 @@
+package com.example.ecommercesystem.controller;
+
+import com.example.ecommercesystem.dto.ProductImportReport;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.kafka.TestProducer;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.service.ProductExportFormat;
+import com.example.ecommercesystem.service.ProductJobService;
+import com.example.ecommercesystem.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Batch lookup and export/import over HTTP, and which exceptions GlobalExceptionHandler turns
+ * into a 400. The export/import formats themselves are covered by ProductExportRoundTripTest.
+ */
+@WebMvcTest(ProductController.class)
+public class ProductControllerTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() { // for StatementCountFilter
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private TestProducer testProducer;
+
+    @MockBean
+    private ProductJobService productJobService;
+
+    @Test
+    void batchReturnsProductsInRequestOrder() throws Exception {
+        when(productService.getProductsByIds(Arrays.asList(3L, 1L))).thenReturn(Arrays.asList(product(3L), product(1L)));
+
+        mockMvc.perform(get("/api/products/batch").param("ids", "3,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].id").value(1));
+    }
+
+    @Test
+    void invalidRequestIsABadRequest() throws Exception {
+        when(productService.getProductsByIds(anyList()))
+                .thenThrow(new InvalidRequestException("At most 500 ids per batch request, got 501"));
+
+        mockMvc.perform(get("/api/products/batch").param("ids", "1,2"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At most 500 ids per batch request, got 501"));
+    }
+
+    @Test
+    void illegalArgumentFromABugIsAServerError() throws Exception {
+        when(productService.getProductsByIds(anyList())).thenThrow(new IllegalArgumentException("bug"));
+
+        mockMvc.perform(get("/api/products/batch").param("ids", "1"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void exportStreamsTheChosenFormatAsAnAttachment() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("id,name\r\n1,\"Laptop, 15 inch\"\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(productService).exportProducts(any(OutputStream.class), eq(ProductExportFormat.CSV));
+
+        MvcResult started = mockMvc.perform(get("/api/products/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products.csv"))
+                .andExpect(content().string("id,name\r\n1,\"Laptop, 15 inch\"\r\n"));
+    }
+
+    @Test
+    void exportDefaultsToNdjson() throws Exception {
+        mockMvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products.ndjson"));
+    }
+
+    @Test
+    void unknownFormatIsABadRequest() throws Exception {
+        mockMvc.perform(get("/api/products/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported export format: xml (use ndjson or csv)"));
+        mockMvc.perform(post("/api/products/import").param("format", "xml").content("x"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importPassesTheRawBodyAndReturnsTheReport() throws Exception {
+        String body = "name,price\r\n\"Laptop, 15 inch\",999\r\n";
+        when(productService.importProducts(any(InputStream.class), eq(ProductExportFormat.CSV))).thenAnswer(invocation -> {
+            InputStream in = invocation.getArgument(0);
+            assertEquals(body, StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+            ProductImportReport report = new ProductImportReport();
+            report.setAccepted(1);
+            return report;
+        });
+
+        mockMvc.perform(post("/api/products/import").param("format", "csv").contentType("text/csv").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(0));
+        verify(productService).importProducts(any(InputStream.class), eq(ProductExportFormat.CSV));
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("product-" + id);
+        return product;
+    }
+}
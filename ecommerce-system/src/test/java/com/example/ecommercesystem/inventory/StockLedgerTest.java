@@ -0,0 +1,93 @@
+package com.example.ecommercesystem.inventory;
+
+import com.example.ecommercesystem.dto.InventoryReservation;
+import com.example.ecommercesystem.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockLedgerTest {
+
+    private static final long TTL = 60_000;
+
+    private final Map<Long, Integer> stored = new HashMap<>();
+    private final StockLedger ledger = new StockLedger(stored::get);
+
+    @Test
+    void commitWritesNothingTheDatabaseAlreadyTookTheUnits() {
+        ledger.seen(1L, 7); // after the guarded UPDATE took 3 of 10
+        InventoryReservation reservation = ledger.reserve(1L, 3, TTL);
+        assertEquals(7, ledger.level(1L).getAvailable());
+        assertEquals(3, ledger.level(1L).getReserved());
+
+        ledger.commit(reservation.getId());
+        assertEquals(0, ledger.level(1L).getReserved());
+        assertTrue(ledger.drainWriteBack().isEmpty());
+        assertThrows(ResourceNotFoundException.class, () -> ledger.commit(reservation.getId()));
+    }
+
+    @Test
+    void releaseAndExpiryQueueGiveBacks() {
+        ledger.seen(1L, 0);
+        InventoryReservation released = ledger.reserve(1L, 2, TTL);
+        ledger.reserve(1L, 3, 0); // expires immediately
+
+        ledger.release(released.getId());
+        assertEquals(1, ledger.expire(System.currentTimeMillis()));
+
+        assertEquals(0, ledger.openReservations());
+        assertEquals(5, ledger.level(1L).getPendingWriteBack());
+        assertEquals(Collections.singletonMap(1L, 5), ledger.drainWriteBack());
+        assertTrue(ledger.drainWriteBack().isEmpty());
+        assertThrows(ResourceNotFoundException.class, () -> ledger.commit(released.getId()));
+    }
+
+    @Test
+    void expiredReservationCannotBeCommittedAndIsGivenBack() {
+        ledger.seen(1L, 0);
+        InventoryReservation reservation = ledger.reserve(1L, 5, 0);
+
+        assertThrows(ResourceNotFoundException.class, () -> ledger.commit(reservation.getId()));
+        assertEquals(Collections.singletonMap(1L, 5), ledger.drainWriteBack());
+    }
+
+    @Test
+    void failedGiveBacksAreRequeued() {
+        ledger.seen(1L, 0);
+        ledger.release(ledger.reserve(1L, 2, TTL).getId());
+        Map<Long, Integer> drained = ledger.drainWriteBack();
+        ledger.release(ledger.reserve(1L, 1, TTL).getId());
+
+        ledger.requeue(drained);
+
+        assertEquals(Collections.singletonMap(1L, 3), ledger.drainWriteBack());
+    }
+
+    @Test
+    void levelLoadsUnseenOrInvalidatedStock() {
+        stored.put(1L, 4);
+        assertEquals(4, ledger.level(1L).getAvailable());
+
+        stored.put(1L, 9); // changed by another node
+        assertEquals(4, ledger.level(1L).getAvailable());
+        ledger.invalidate(1L);
+        assertEquals(9, ledger.level(1L).getAvailable());
+
+        assertThrows(ResourceNotFoundException.class, () -> ledger.level(2L));
+    }
+
+    @Test
+    void deletedProductGetsNothingBack() {
+        ledger.seen(1L, 0);
+        InventoryReservation reservation = ledger.reserve(1L, 2, TTL);
+
+        ledger.forget(1L);
+        ledger.release(reservation.getId());
+
+        assertTrue(ledger.drainWriteBack().isEmpty());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ecommercesystem.metrics;
+
+import com.example.ecommercesystem.metrics.InstrumentedExecutorService.RejectionPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * One platform thread and room for two tasks in flight: the first blocks on a latch, the second
+ * waits in the queue, the third is over the limit.
+ */
+public class InstrumentedExecutorServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private InstrumentedExecutorService executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void abortRejectsOverCapacityAndPublishesQueueAndActive() throws Exception {
+        executor = executor(RejectionPolicy.ABORT, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        Future<?> running = executor.submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        Future<?> waiting = executor.submit(() -> null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> null));
+        assertEquals(1.0, registry.get("executor.active").tag("name", "test").gauge().value());
+        assertEquals(1.0, registry.get("executor.queued").tag("name", "test").gauge().value());
+        assertEquals(1.0, registry.get("executor.rejected").tag("policy", "abort").counter().count());
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        waiting.get(5, TimeUnit.SECONDS);
+        assertTrue(executor.drain()); // the timers are recorded after the futures complete
+
+        assertEquals(2, registry.get("executor.idle").tag("name", "test").timer().count());
+        assertEquals(2, registry.get("executor").tag("name", "test").timer().count());
+        assertEquals(2.0, registry.get("executor.completed").functionCounter().count());
+    }
+
+    @Test
+    void callerRunsExecutesOverCapacityOnTheSubmittingThread() throws Exception {
+        executor = executor(RejectionPolicy.CALLER_RUNS, 5000);
+        executor.submit(() -> {
+            release.await();
+            return null;
+        });
+        executor.submit(() -> null);
+
+        String thread = executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Thread.currentThread().getName(), thread);
+        assertEquals(1.0, registry.get("executor.rejected").tag("policy", "caller_runs").counter().count());
+    }
+
+    @Test
+    void drainWaitsForQueuedAndRunningTasks() throws Exception {
+        executor = executor(RejectionPolicy.ABORT, 5000);
+        Future<String> running = executor.submit(() -> {
+            Thread.sleep(100);
+            return "first";
+        });
+        Future<String> waiting = executor.submit(() -> "second");
+
+        assertTrue(executor.drain());
+
+        assertEquals("first", running.get());
+        assertEquals("second", waiting.get());
+        assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> null));
+    }
+
+    @Test
+    void drainInterruptsWhatOutlastsTheTimeout() throws Exception {
+        executor = executor(RejectionPolicy.ABORT, 50);
+        executor.submit(() -> {
+            release.await();
+            return null;
+        });
+
+        assertFalse(executor.drain());
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private InstrumentedExecutorService executor(RejectionPolicy policy, long drainTimeoutMillis) {
+        return new InstrumentedExecutorService("test", Executors.newFixedThreadPool(1), 2, policy,
+                drainTimeoutMillis, registry);
+    }
+}
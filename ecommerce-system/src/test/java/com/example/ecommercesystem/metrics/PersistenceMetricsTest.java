@@ -0,0 +1,116 @@
+package com.example.ecommercesystem.metrics;
+
+import com.example.ecommercesystem.config.PersistenceMetricsConfig;
+import com.example.ecommercesystem.dto.NPlusOneSuspect;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Repository timers and per-request statement counting on H2, with the N+1 threshold at 3.
+ * The filter is driven with mock requests; the "controller" is the filter chain lambda.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:persistencemetrics;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.jdbc-metrics.n-plus-one-threshold=3"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PersistenceMetricsConfig.class, StatementCountFilter.class, PersistenceMetricsTest.Metrics.class})
+public class PersistenceMetricsTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private StatementCountFilter statementCountFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repositoryMethodsAreTimedWithTheirResultSize() {
+        for (int c = 0; c < 3; c++) {
+            Category category = new Category();
+            category.setName("category-" + c);
+            categoryRepository.save(category);
+        }
+
+        assertEquals(3, categoryRepository.findAll().size());
+        assertEquals("category-0", categoryRepository.findByName("category-0").getName());
+        assertNull(categoryRepository.findByName("missing"));
+
+        assertEquals(1, meterRegistry.get(RepositoryMetricsInterceptor.METRIC)
+                .tag("repository", "CategoryRepository").tag("method", "findAll").tag("size", "2-10")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(RepositoryMetricsInterceptor.METRIC)
+                .tag("repository", "CategoryRepository").tag("method", "findByName").tag("size", "1")
+                .tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(RepositoryMetricsInterceptor.METRIC)
+                .tag("repository", "CategoryRepository").tag("method", "findByName").tag("size", "0")
+                .timer().count());
+    }
+
+    @Test
+    void requestAboveTheThresholdIsFlagged() throws Exception {
+        request("/api/categories/check", 5);
+
+        assertEquals(1.0, meterRegistry.get("http.server.requests.nplusone")
+                .tag("uri", "/api/categories/check").counter().count());
+        assertEquals(5.0, meterRegistry.get("http.server.requests.statements")
+                .tag("uri", "/api/categories/check").summary().max());
+        List<NPlusOneSuspect> suspects = statementCountFilter.getRecentSuspects();
+        assertEquals(1, suspects.size());
+        assertEquals("GET", suspects.get(0).getMethod());
+        assertEquals(5, suspects.get(0).getStatements());
+        assertEquals(5, suspects.get(0).getRepositoryCalls().get("CategoryRepository.existsByName"));
+        assertEquals("none", meterRegistry.get(RepositoryMetricsInterceptor.METRIC)
+                .tag("method", "existsByName").timer().getId().getTag("size"));
+    }
+
+    @Test
+    void requestWithinTheThresholdIsOnlyMeasured() throws Exception {
+        request("/api/categories/one", 1);
+
+        assertEquals(1.0, meterRegistry.get("http.server.requests.statements")
+                .tag("uri", "/api/categories/one").summary().totalAmount());
+        assertTrue(meterRegistry.find("http.server.requests.nplusone").tag("uri", "/api/categories/one").counters().isEmpty());
+    }
+
+    /** One GET whose handler runs existsByName for that many distinct names (one SELECT each). */
+    private void request(String pattern, int lookups) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        statementCountFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            for (int i = 0; i < lookups; i++) {
+                categoryRepository.existsByName(pattern + "-" + i);
+            }
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.ecommercesystem.repository;
+
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Category second-level and query cache on H2. READ_WRITE regions only see committed data,
+ * so every step runs in its own transaction (the test itself runs without one).
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:categorycache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CategorySecondLevelCacheTest {
+
+    private static final int CATEGORIES = 5;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void categoryIsReadFromTheCacheOnceLoaded() {
+        Long id = category("phones").getId();
+        statistics.clear();
+
+        // IDENTITY inserts are not put in the cache: the first read loads and caches the row
+        assertEquals("phones", inTransaction(() -> categoryRepository.findById(id).get().getName()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCachePutCount());
+        statistics.clear();
+
+        assertEquals("phones", inTransaction(() -> categoryRepository.findById(id).get().getName()));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void updateAndDeleteThroughJpaReplaceTheEntry() {
+        Long id = category("phones").getId();
+        inTransaction(() -> categoryRepository.findById(id).get().getName()); // now cached
+
+        // Updated the way the application does it: a managed entity, flushed on commit
+        inTransaction(() -> {
+            categoryRepository.findById(id).get().setName("smartphones");
+            return null;
+        });
+        statistics.clear();
+
+        assertEquals("smartphones", inTransaction(() -> categoryRepository.findById(id).get().getName()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        inTransaction(() -> {
+            categoryRepository.deleteById(id);
+            return null;
+        });
+        assertFalse(inTransaction(() -> categoryRepository.findById(id).isPresent()));
+    }
+
+    @Test
+    void findByNameIsServedByTheQueryCacheUntilTheTableChanges() {
+        category("phones");
+        assertFalse(inTransaction(() -> categoryRepository.existsByName("tablets")));
+        assertEquals("phones", inTransaction(() -> categoryRepository.findByName("phones").getName()));
+        statistics.clear();
+
+        assertEquals("phones", inTransaction(() -> categoryRepository.findByName("phones").getName()));
+        assertFalse(inTransaction(() -> categoryRepository.existsByName("tablets")));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getQueryCacheHitCount());
+
+        // Any committed write to the category table invalidates the cached results
+        category("tablets");
+        assertTrue(inTransaction(() -> categoryRepository.existsByName("tablets")));
+    }
+
+    @Test
+    void productListingNoLongerSelectsEachCategory() {
+        List<Category> categories = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES; c++) {
+            categories.add(category("category-" + c));
+        }
+        inTransaction(() -> {
+            for (int i = 0; i < 30; i++) {
+                Product product = new Product();
+                product.setName("product-" + i);
+                product.setPrice(10 + i);
+                product.setContactEmail("support@example.com");
+                product.setCategory(categories.get(i % CATEGORIES));
+                productRepository.save(product);
+            }
+            return null;
+        });
+
+        // Cold: the listing query, then one SELECT per distinct (EAGER) category
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        assertEquals(30, inTransaction(() -> productRepository.findAll()).size());
+        assertEquals(1 + CATEGORIES, statistics.getPrepareStatementCount());
+
+        // Warm: the listing query only
+        statistics.clear();
+        assertEquals(30, inTransaction(() -> productRepository.findAll()).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(CATEGORIES, statistics.getSecondLevelCacheHitCount());
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return inTransaction(() -> categoryRepository.save(category));
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
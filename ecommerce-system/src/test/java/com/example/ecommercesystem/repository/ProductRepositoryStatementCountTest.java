@@ -0,0 +1,121 @@
+package com.example.ecommercesystem.repository;
+
+import com.example.ecommercesystem.dto.ProductSummary;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The listing read paths must cost a fixed number of SQL statements however many rows
+ * (and distinct categories) they return. Counted with Hibernate statistics on H2.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class ProductRepositoryStatementCountTest {
+
+    private static final int CATEGORIES = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {6, 60})
+    void summaryListIsOneStatement(int rows) {
+        seed(rows);
+
+        List<ProductSummary> summaries = productRepository.findAllSummaries();
+
+        assertEquals(rows, summaries.size());
+        assertEquals("category-1", summaries.get(1).getCategoryName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {6, 60})
+    void summaryPageIsSelectPlusCount(int rows) {
+        seed(rows);
+
+        Page<ProductSummary> page = productRepository.findAllSummaries(PageRequest.of(1, 3, Sort.by("name")));
+
+        assertEquals(3, page.getContent().size());
+        assertEquals(rows, page.getTotalElements());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {6, 60})
+    void summarySearchIsOneStatement(int rows) {
+        seed(rows);
+
+        List<ProductSummary> summaries = productRepository.findSummariesByNameAndDescription("product-3", null);
+
+        assertEquals(1, summaries.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {6, 60})
+    void hydrationByIdsFetchesCategoriesInTheSameStatement(int rows) {
+        List<Long> ids = seed(rows);
+
+        List<Product> products = productRepository.findAllWithCategoryByIdIn(ids);
+
+        assertEquals(rows, products.size());
+        products.forEach(product -> assertNotNull(product.getCategory().getName()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /** Persists {@code rows} products spread over CATEGORIES categories, then resets the counters. */
+    private List<Long> seed(int rows) {
+        List<Category> categories = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES; c++) {
+            Category category = new Category();
+            category.setName("category-" + c);
+            categories.add(entityManager.persist(category));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Product product = new Product();
+            product.setName("product-" + i);
+            product.setDescription("description " + i);
+            product.setPrice(10 + i);
+            product.setContactEmail("support@example.com");
+            product.setQuantityAvailable(i % 100);
+            product.setCategory(categories.get(i % CATEGORIES));
+            ids.add(entityManager.persist(product).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        return ids;
+    }
+}
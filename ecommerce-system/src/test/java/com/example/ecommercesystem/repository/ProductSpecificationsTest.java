@@ -0,0 +1,193 @@
+package com.example.ecommercesystem.repository;
+
+import com.example.ecommercesystem.dto.ProductFilter;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Product filter on H2: only supplied criteria reach the query, one query text per combination
+ * of criteria, and keyset paging over the filtered rows. IGNORECASE gives the text columns the
+ * case-insensitive comparison of MySQL's default collation.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productfilter;MODE=MySQL;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ProductSpecificationsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Statistics statistics;
+    private Category phones;
+    private Category laptops;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        phones = category("phones");
+        laptops = category("laptops");
+        for (int i = 0; i < 20; i++) {
+            product("Laptop " + i, "thin and light", 500 + i * 10, laptops,
+                    i % 2 == 0 ? Product.AvailabilityStatus.IN_STOCK : Product.AvailabilityStatus.PREORDER,
+                    LocalDate.of(2020, 1, 1).plusMonths(i));
+            product("Phone " + i, "100% recycled case", 100 + i * 10, phones,
+                    Product.AvailabilityStatus.IN_STOCK, LocalDate.of(2021, 1, 1).plusMonths(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void onlySuppliedCriteriaBecomePredicates() {
+        List<Product> found = productRepository.findAll(ProductSpecifications.matching(filter("lap", null, null, null)));
+
+        assertEquals(20, found.size()); // "Laptop n": prefix, any case
+        String query = statistics.getQueries()[0];
+        assertTrue(query.contains("like"), query);
+        assertFalse(query.contains("lower("), query); // the name column stays indexable
+        assertFalse(query.contains("description"), query);
+        assertFalse(query.contains("price"), query);
+        assertFalse(query.contains("is null"), query);
+    }
+
+    @Test
+    void sameCriteriaWithOtherValuesReuseOneQuery() {
+        assertEquals(5, count(filter(null, 100.0, 140.0, phones.getId())));
+        assertEquals(10, count(filter(null, 500.0, 590.0, laptops.getId())));
+        assertEquals(0, count(filter(null, 1000.0, 2000.0, phones.getId())));
+
+        assertEquals(1, statistics.getQueries().length);
+    }
+
+    @Test
+    void criteriaAreCombined() {
+        ProductFilter filter = filter("Laptop", 550.0, null, laptops.getId());
+        filter.setStatus(Product.AvailabilityStatus.PREORDER);
+        filter.setLaunchedTo(LocalDate.of(2020, 12, 31));
+
+        // Laptops 5..11 cost >= 550 and launched in 2020; the odd ones are PREORDER
+        List<String> names = new ArrayList<>();
+        productRepository.findAll(ProductSpecifications.matching(filter), Sort.by("id"))
+                .forEach(product -> names.add(product.getName()));
+        assertEquals(Arrays.asList("Laptop 5", "Laptop 7", "Laptop 9", "Laptop 11"), names);
+    }
+
+    @Test
+    void wildcardsInInputAreMatchedLiterally() {
+        ProductFilter filter = new ProductFilter();
+        filter.setDescription("100%");
+        assertEquals(20, count(filter));
+
+        filter.setDescription("1_0");
+        assertEquals(0, count(filter));
+    }
+
+    @Test
+    void keysetPagesCoverTheFilteredRowsOnce() {
+        ProductFilter filter = filter(null, 150.0, 600.0, null);
+        long expected = count(filter);
+
+        List<Long> seen = new ArrayList<>();
+        Object lastValue = null;
+        Long lastId = null;
+        List<ProductRepository.SeekKey> page;
+        do {
+            page = productRepository.findKeysAfter(ProductSpecifications.matching(filter), "price",
+                    Sort.Direction.DESC, lastValue, lastId, 4);
+            for (ProductRepository.SeekKey key : page) {
+                assertFalse(seen.contains(key.getId()));
+                assertEquals(productRepository.findById(key.getId()).get().getPrice(), key.getSortValue());
+                seen.add(key.getId());
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+                lastValue = page.get(page.size() - 1).getSortValue();
+            }
+        } while (page.size() == 4);
+
+        assertEquals(expected, seen.size());
+        double previous = Double.MAX_VALUE;
+        for (Long id : seen) {
+            double price = productRepository.findById(id).get().getPrice();
+            assertTrue(price <= previous && price >= 150.0 && price <= 600.0);
+            previous = price;
+        }
+    }
+
+    @Test
+    void idKeysetPagesWalkTheIdsInOrder() {
+        List<Long> all = new ArrayList<>();
+        productRepository.findAll(Sort.by("id")).forEach(product -> all.add(product.getId()));
+
+        List<ProductRepository.SeekKey> first = productRepository.findKeysAfter(null, "id", Sort.Direction.ASC, null, null, 3);
+        List<Long> next = productRepository.findIdsAfter("id", Sort.Direction.ASC, null, first.get(2).getId(), 3);
+
+        assertEquals(all.get(0), first.get(0).getSortValue()); // the sort value of an id sort is the id
+        assertEquals(all.subList(3, 6), next);
+    }
+
+    @Test
+    void emptyRangeIsRejected() {
+        assertThrows(InvalidRequestException.class, () -> ProductSpecifications.matching(filter(null, 200.0, 100.0, null)));
+    }
+
+    private long count(ProductFilter filter) {
+        return productRepository.count(ProductSpecifications.matching(filter));
+    }
+
+    private static ProductFilter filter(String name, Double minPrice, Double maxPrice, Long categoryId) {
+        ProductFilter filter = new ProductFilter();
+        filter.setName(name);
+        filter.setMinPrice(minPrice);
+        filter.setMaxPrice(maxPrice);
+        filter.setCategoryId(categoryId);
+        return filter;
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return entityManager.persist(category);
+    }
+
+    private void product(String name, String description, double price, Category category,
+                         Product.AvailabilityStatus status, LocalDate launchDate) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(price);
+        product.setContactEmail("support@example.com");
+        product.setCategory(category);
+        product.setStatus(status);
+        product.setLaunchDate(launchDate);
+        entityManager.persist(product);
+    }
+}
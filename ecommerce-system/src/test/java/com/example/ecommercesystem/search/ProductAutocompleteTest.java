@@ -0,0 +1,71 @@
+package com.example.ecommercesystem.search;
+
+import com.example.ecommercesystem.dto.ProductSuggestion;
+import com.example.ecommercesystem.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductAutocompleteTest {
+
+    private ProductAutocomplete autocomplete;
+
+    @BeforeEach
+    void setUp() {
+        autocomplete = new ProductAutocomplete();
+        autocomplete.index(product(1L, "Laptop", 5));
+        autocomplete.index(product(2L, "Laptop Sleeve", 50));
+        autocomplete.index(product(3L, "Lamp", 20));
+        autocomplete.index(product(4L, "Smartphone", 100));
+    }
+
+    @Test
+    void ranksByStockWithinPrefix() {
+        assertEquals(Arrays.asList(2L, 3L, 1L), ids(autocomplete.suggest("la", 10)));
+        assertEquals(Arrays.asList(2L, 1L), ids(autocomplete.suggest("LAPT", 10)));
+        assertEquals(Arrays.asList(2L), ids(autocomplete.suggest("laptop s", 10)));
+    }
+
+    @Test
+    void prefixEndingInsideAnEdgeOrDivergingFromIt() {
+        assertEquals(Arrays.asList(4L), ids(autocomplete.suggest("smar", 10)));
+        assertTrue(autocomplete.suggest("smx", 10).isEmpty());
+        assertTrue(autocomplete.suggest("laptops", 10).isEmpty());
+        assertTrue(autocomplete.suggest("", 10).isEmpty());
+    }
+
+    @Test
+    void respectsLimit() {
+        assertEquals(Arrays.asList(2L), ids(autocomplete.suggest("la", 1)));
+    }
+
+    @Test
+    void reindexMovesAndReranksProduct() {
+        autocomplete.index(product(2L, "Tablet", 50)); // renamed
+        autocomplete.index(product(1L, "Laptop", 30)); // restocked
+
+        assertEquals(Arrays.asList(1L, 3L), ids(autocomplete.suggest("la", 10)));
+        assertEquals(Arrays.asList(2L), ids(autocomplete.suggest("t", 10)));
+        assertEquals(4, autocomplete.size());
+
+        autocomplete.remove(1L);
+        assertEquals(Arrays.asList(3L), ids(autocomplete.suggest("la", 10)));
+    }
+
+    private static List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getId).collect(Collectors.toList());
+    }
+
+    private static Product product(Long id, String name, int quantityAvailable) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setQuantityAvailable(quantityAvailable);
+        return product;
+    }
+}
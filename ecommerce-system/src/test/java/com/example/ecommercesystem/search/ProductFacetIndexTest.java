@@ -0,0 +1,112 @@
+package com.example.ecommercesystem.search;
+
+import com.example.ecommercesystem.dto.FacetPage;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFacetIndexTest {
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex();
+        index.index(product(1L, 1L, Product.AvailabilityStatus.IN_STOCK, 5, 2022));
+        index.index(product(2L, 1L, Product.AvailabilityStatus.IN_STOCK, 120, 2023));
+        index.index(product(3L, 1L, Product.AvailabilityStatus.OUT_OF_STOCK, 150, 2023));
+        index.index(product(4L, 2L, Product.AvailabilityStatus.IN_STOCK, 2500, null));
+        index.index(product(5L, 2L, null, 499.99, 2023));
+    }
+
+    @Test
+    void bucketsPrices() {
+        assertEquals("0-10", ProductFacetIndex.priceBucket(0));
+        assertEquals("100-500", ProductFacetIndex.priceBucket(499.99));
+        assertEquals("1000+", ProductFacetIndex.priceBucket(1000));
+    }
+
+    @Test
+    void noFilterCountsEverything() {
+        FacetPage result = index.query(Collections.emptyMap(), 0, 10);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), result.getIds());
+        assertEquals(5, result.getTotalElements());
+        assertEquals(Integer.valueOf(3), result.getFacets().get(ProductFacetIndex.CATEGORY).get("1"));
+        assertEquals(Integer.valueOf(3), result.getFacets().get(ProductFacetIndex.STATUS).get("IN_STOCK"));
+        assertEquals(Integer.valueOf(1), result.getFacets().get(ProductFacetIndex.STATUS).get("none"));
+        assertEquals(Integer.valueOf(3), result.getFacets().get(ProductFacetIndex.PRICE).get("100-500"));
+    }
+
+    @Test
+    void valuesAreOredWithinAFacetAndFacetsAnded() {
+        FacetPage result = index.query(filters(
+                ProductFacetIndex.STATUS, Arrays.asList("IN_STOCK", "OUT_OF_STOCK"),
+                ProductFacetIndex.LAUNCH_YEAR, Collections.singletonList("2023")), 0, 10);
+
+        assertEquals(Arrays.asList(2L, 3L), result.getIds());
+        // status counts ignore the status filter but keep the year filter
+        Map<String, Integer> status = result.getFacets().get(ProductFacetIndex.STATUS);
+        assertEquals(Integer.valueOf(1), status.get("IN_STOCK"));
+        assertEquals(Integer.valueOf(1), status.get("none"));
+        // category counts apply both filters
+        assertEquals(Collections.singletonMap("1", 2), result.getFacets().get(ProductFacetIndex.CATEGORY));
+    }
+
+    @Test
+    void pagesThroughMatches() {
+        assertEquals(Arrays.asList(3L, 4L), index.query(Collections.emptyMap(), 1, 2).getIds());
+        assertEquals(Collections.singletonList(5L), index.query(Collections.emptyMap(), 2, 2).getIds());
+        assertTrue(index.query(Collections.emptyMap(), 3, 2).getIds().isEmpty());
+    }
+
+    @Test
+    void reindexAndRemoveMoveBits() {
+        index.index(product(1L, 2L, Product.AvailabilityStatus.PREORDER, 5, 2022));
+        index.remove(4L);
+
+        FacetPage result = index.query(filters(ProductFacetIndex.CATEGORY, Collections.singletonList("2")), 0, 10);
+        assertEquals(Arrays.asList(1L, 5L), result.getIds());
+        assertNull(index.query(Collections.emptyMap(), 0, 10).getFacets().get(ProductFacetIndex.PRICE).get("1000+"));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void rejectsUnknownFacet() {
+        assertThrows(InvalidRequestException.class,
+                () -> index.query(filters("colour", Collections.singletonList("red")), 0, 10));
+    }
+
+    private static Map<String, List<String>> filters(Object... facetAndValues) {
+        Map<String, List<String>> filters = new HashMap<>();
+        for (int i = 0; i < facetAndValues.length; i += 2) {
+            @SuppressWarnings("unchecked")
+            List<String> values = (List<String>) facetAndValues[i + 1];
+            filters.put((String) facetAndValues[i], values);
+        }
+        return filters;
+    }
+
+    private static Product product(Long id, Long categoryId, Product.AvailabilityStatus status, double price, Integer launchYear) {
+        Category category = new Category();
+        category.setId(categoryId);
+        Product product = new Product();
+        product.setId(id);
+        product.setCategory(category);
+        product.setStatus(status);
+        product.setPrice(price);
+        product.setLaunchDate(launchYear != null ? LocalDate.of(launchYear, 1, 1) : null);
+        return product;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.ecommercesystem.search;
+
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Startup build racing with live updates: the scan hands out rows read before a concurrent
+ * write, which the write's own update must still win against. Checked on the price index.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductIndexesTest {
+
+    @Mock private ProductSearchIndex searchIndex;
+    @Mock private ProductAutocomplete autocomplete;
+    @Mock private ProductFacetIndex facetIndex;
+    @Spy private ProductPriceIndex priceIndex = new ProductPriceIndex();
+    @Mock private ProductRepository productRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private EntityManager entityManager;
+
+    @InjectMocks
+    private ProductIndexes indexes;
+
+    @Test
+    void updatesDuringTheBuildWinOverTheRowsTheScanReadBefore() {
+        Product staleLaptop = product(1L, 1200);
+        Product phone = product(2L, 800);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // Each row is handed out just after a write to it committed on another thread
+        when(productRepository.streamAll()).thenReturn(Stream.of(staleLaptop, phone)
+                .peek(row -> {
+                    if (row == staleLaptop) {
+                        indexes.onSaved(product(1L, 999));
+                    } else {
+                        indexes.onDeleted(2L);
+                    }
+                }));
+
+        indexes.build();
+
+        ProductPriceIndex.Range all = priceIndex.range(0, Double.MAX_VALUE, false, 0, 10);
+        assertEquals(Collections.singletonList(1L), all.getIds());
+        assertEquals(Collections.singletonList(1L), priceIndex.range(999, 999, false, 0, 10).getIds());
+    }
+
+    @Test
+    void updatesAfterTheBuildAreNotRecorded() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(productRepository.streamAll()).thenReturn(Stream.of(product(1L, 1200)));
+        indexes.build();
+
+        indexes.onSaved(product(3L, 10));
+        indexes.onDeleted(1L);
+        priceIndex.refresh();
+
+        assertEquals(Arrays.asList(3L), priceIndex.range(0, Double.MAX_VALUE, false, 0, 10).getIds());
+    }
+
+    private static Product product(Long id, double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("product " + id);
+        product.setPrice(price);
+        return product;
+    }
+}
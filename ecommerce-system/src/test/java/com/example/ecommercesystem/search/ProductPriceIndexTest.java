@@ -0,0 +1,80 @@
+package com.example.ecommercesystem.search;
+
+import com.example.ecommercesystem.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductPriceIndexTest {
+
+    private ProductPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductPriceIndex();
+        index.index(product(1L, 25));
+        index.index(product(2L, 5));
+        index.index(product(3L, 100));
+        index.index(product(4L, 25));
+        index.index(product(5L, 999.5));
+        index.refresh();
+    }
+
+    @Test
+    void rangeIsInclusiveAndOrderedByPriceThenId() {
+        ProductPriceIndex.Range range = index.range(5, 100, false, 0, 10);
+
+        assertEquals(Arrays.asList(2L, 1L, 4L, 3L), range.getIds());
+        assertEquals(4, range.getTotal());
+    }
+
+    @Test
+    void descendingFirstPageIsTopN() {
+        ProductPriceIndex.Range range = index.range(0, Double.MAX_VALUE, true, 0, 2);
+
+        assertEquals(Arrays.asList(5L, 3L), range.getIds());
+        assertEquals(5, range.getTotal());
+    }
+
+    @Test
+    void pagesThroughRange() {
+        assertEquals(Arrays.asList(4L, 3L), index.range(0, 1000, false, 1, 2).getIds());
+        assertEquals(Collections.singletonList(2L), index.range(0, 1000, true, 2, 2).getIds());
+        assertTrue(index.range(0, 1000, false, 3, 2).getIds().isEmpty());
+        assertEquals(0, index.range(200, 300, false, 0, 10).getTotal());
+    }
+
+    @Test
+    void writesBecomeVisibleAfterMerge() {
+        index.index(product(2L, 500));   // repriced
+        index.remove(3L);
+        index.index(product(6L, 25));    // new
+        index.refresh();
+
+        assertEquals(Arrays.asList(1L, 4L, 6L, 2L, 5L), index.range(0, 1000, false, 0, 10).getIds());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void mergeKeepsOnlyTheLatestWritePerId() {
+        index.index(product(7L, 1));
+        index.index(product(7L, 2));
+        index.remove(7L);
+        index.index(product(7L, 3));
+        index.refresh();
+
+        assertEquals(Arrays.asList(7L, 2L), index.range(0, 5, false, 0, 10).getIds());
+        assertEquals(6, index.size());
+    }
+
+    private static Product product(Long id, double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(price);
+        return product;
+    }
+}
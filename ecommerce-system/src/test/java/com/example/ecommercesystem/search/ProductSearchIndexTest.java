@@ -0,0 +1,69 @@
+package com.example.ecommercesystem.search;
+
+import com.example.ecommercesystem.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.index(product(1L, "Gaming Laptop", "A high-end laptop for gaming."));
+        index.index(product(2L, "Laptop Sleeve", "Fits most 15 inch laptops."));
+        index.index(product(3L, "Smartphone", "Latest model with a great camera."));
+    }
+
+    @Test
+    void tokenizesOnNonAlphanumerics() {
+        assertEquals(Arrays.asList("gaming", "laptop", "15"), ProductSearchIndex.tokenize("Gaming-Laptop 15\""));
+        assertTrue(ProductSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        index.index(product(4L, "Mouse", "Works with any laptop"));
+
+        assertEquals(Arrays.asList(1L, 2L, 4L), index.search("laptop", 10));
+    }
+
+    @Test
+    void everyTokenMustMatchAndLastOneMayBeAPrefix() {
+        assertEquals(Collections.singletonList(1L), index.search("gaming lap", 10));
+        assertEquals(Collections.singletonList(3L), index.search("SMART", 10));
+        assertTrue(index.search("gaming phone", 10).isEmpty());
+    }
+
+    @Test
+    void reindexReplacesOldTerms() {
+        index.index(product(3L, "Tablet", "Ten inch screen"));
+
+        assertTrue(index.search("smartphone", 10).isEmpty());
+        assertEquals(Collections.singletonList(3L), index.search("tablet", 10));
+        assertEquals(3, index.size());
+
+        index.remove(3L);
+        assertTrue(index.search("tablet", 10).isEmpty());
+    }
+
+    @Test
+    void respectsLimit() {
+        assertEquals(1, index.search("laptop", 1).size());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    private static Product product(Long id, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        return product;
+    }
+}
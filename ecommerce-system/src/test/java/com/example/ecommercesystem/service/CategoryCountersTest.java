@@ -0,0 +1,112 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.CategoryStats;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryProductCountRepository;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counter table + mirror on H2 in MySQL mode (the increment is an INSERT ... ON DUPLICATE KEY UPDATE).
+ * Each test runs in one rolled-back transaction, so the mirror is checked through reload().
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:counters;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CategoryCounters.class)
+public class CategoryCountersTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CategoryCounters categoryCounters;
+
+    @Autowired
+    private CategoryProductCountRepository countRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void deltasAreSummedPerCategoryAndStatus() {
+        Category phones = category("phones");
+        Category laptops = category("laptops");
+
+        categoryCounters.apply(categoryCounters.deltas()
+                .add(phones.getId(), Product.AvailabilityStatus.IN_STOCK, 1)
+                .add(phones.getId(), Product.AvailabilityStatus.IN_STOCK, 1)
+                .add(phones.getId(), null, 1)
+                .add(laptops.getId(), Product.AvailabilityStatus.PREORDER, 1));
+        // moved from phones/IN_STOCK to laptops/OUT_OF_STOCK
+        categoryCounters.apply(categoryCounters.deltas()
+                .deleted(phones.getId(), Product.AvailabilityStatus.IN_STOCK)
+                .add(laptops.getId(), Product.AvailabilityStatus.OUT_OF_STOCK, 1));
+        categoryCounters.reload();
+
+        List<CategoryStats> stats = categoryCounters.stats(0);
+        assertEquals(2, stats.size()); // both have 2 products, so ordered by id
+        CategoryStats phoneStats = stats.get(0);
+        assertEquals("phones", phoneStats.getCategoryName());
+        assertEquals(2, phoneStats.getTotalProducts());
+        assertEquals(Long.valueOf(1), phoneStats.getByStatus().get("IN_STOCK"));
+        assertEquals(Long.valueOf(1), phoneStats.getByStatus().get("NONE"));
+        assertEquals("laptops", stats.get(1).getCategoryName());
+        assertEquals(2, stats.get(1).getByStatus().size());
+    }
+
+    @Test
+    void seedsFromProductTableAndAnswersSizeQuery() {
+        Category phones = category("phones");
+        Category laptops = category("laptops");
+        product(phones, Product.AvailabilityStatus.IN_STOCK);
+        product(phones, null);
+        product(phones, Product.AvailabilityStatus.IN_STOCK);
+        product(laptops, Product.AvailabilityStatus.PREORDER);
+        entityManager.flush();
+
+        assertEquals(3, countRepository.insertCountsFromProducts());
+        categoryCounters.reload();
+
+        assertEquals(Collections.singletonList("phones"), names(categoryRepository.findCategoriesWithMoreThanXProducts(2)));
+        assertEquals(2, categoryRepository.findCategoriesWithMoreThanXProducts(0).size());
+        assertEquals(1, categoryCounters.stats(2).size());
+        assertEquals(Long.valueOf(2), categoryCounters.stats(2).get(0).getByStatus().get("IN_STOCK"));
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return entityManager.persistFlushFind(category);
+    }
+
+    private void product(Category category, Product.AvailabilityStatus status) {
+        Product product = new Product();
+        product.setName("product");
+        product.setContactEmail("support@example.com");
+        product.setStatus(status);
+        product.setCategory(category);
+        entityManager.persist(product);
+    }
+
+    private static List<String> names(List<Category> categories) {
+        return categories.stream().map(Category::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.ecommercesystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tasks are completed by hand (futures kept per item), so completion order is chosen by the test.
+ */
+public class CompletionStreamTest {
+
+    private final Map<Integer, CompletableFuture<String>> futures = new ConcurrentHashMap<>();
+    private final List<String> emitted = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void unorderedEmitsInCompletionOrder() throws Exception {
+        Future<Long> stream = streamAsync(items(3), 10, false);
+        awaitStarted(3);
+
+        futures.get(2).complete("two");
+        awaitEmitted(1);
+        assertEquals("two", emitted.get(0)); // before the slower items 0 and 1
+        futures.get(0).complete("zero");
+        futures.get(1).completeExceptionally(new IllegalStateException("boom"));
+
+        assertEquals(3L, stream.get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("two", "zero", "1:IllegalStateException"), emitted);
+    }
+
+    @Test
+    void orderedHoldsLaterResultsUntilEarlierOnesComplete() throws Exception {
+        Future<Long> stream = streamAsync(items(3), 10, true);
+        awaitStarted(3);
+
+        futures.get(2).complete("two");
+        futures.get(1).complete("one");
+        Thread.sleep(50);
+        assertTrue(emitted.isEmpty());
+
+        futures.get(0).complete("zero");
+        assertEquals(3L, stream.get(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("zero", "one", "two"), emitted);
+    }
+
+    @Test
+    void windowBoundsTheTasksInFlight() throws Exception {
+        AtomicInteger pulled = new AtomicInteger();
+        Iterator<Integer> source = IntStream.range(0, 100).peek(i -> pulled.incrementAndGet()).iterator();
+        Future<Long> stream = streamAsync(source, 4, true);
+        awaitStarted(4);
+        Thread.sleep(50);
+        assertEquals(4, futures.size());
+
+        // Items 1..3 done but item 0 is not: the reorder buffer holds 3 and no new task starts
+        for (int i = 1; i < 4; i++) {
+            futures.get(i).complete("r" + i);
+        }
+        Thread.sleep(50);
+        assertEquals(4, futures.size());
+        assertTrue(pulled.get() <= 5); // the iterator may look one ahead
+
+        futures.get(0).complete("r0");
+        awaitStarted(8);
+        for (int i = 4; i < 100; i++) {
+            awaitStarted(i + 1);
+            futures.get(i).complete("r" + i);
+        }
+        assertEquals(100L, stream.get(5, TimeUnit.SECONDS));
+        assertEquals(IntStream.range(0, 100).mapToObj(i -> "r" + i).collect(Collectors.toList()), emitted);
+    }
+
+    @Test
+    void failingSinkStopsTheStream() {
+        Iterator<Integer> source = items(50);
+        IOException broken = new IOException("client went away");
+        IOException thrown = assertThrows(IOException.class, () -> CompletionStream.forEachCompleted(source,
+                item -> CompletableFuture.completedFuture("r" + item), 5, false,
+                (sequence, item, result, error) -> {
+                    throw broken;
+                }));
+        assertSame(broken, thrown);
+        assertTrue(source.hasNext()); // the rest was never started
+    }
+
+    private Future<Long> streamAsync(Iterator<Integer> items, int window, boolean ordered) {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Long> stream = executor.submit(() -> CompletionStream.forEachCompleted(items,
+                item -> futures.computeIfAbsent(item, i -> new CompletableFuture<>()), window, ordered,
+                (sequence, item, result, error) -> emitted.add(error == null ? result
+                        : item + ":" + error.getClass().getSimpleName())));
+        executor.shutdown();
+        return stream;
+    }
+
+    private static Iterator<Integer> items(int count) {
+        return IntStream.range(0, count).boxed().iterator();
+    }
+
+    private void awaitStarted(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (futures.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(futures.size() >= count, "started " + futures.size());
+    }
+
+    private void awaitEmitted(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (emitted.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, emitted.size());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.InventoryReservation;
+import com.example.ecommercesystem.exception.InsufficientStockException;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.exception.ResourceNotFoundException;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import com.example.ecommercesystem.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two InventoryServiceImpl instances (two nodes) over one H2 database: every reservation is
+ * decided by the guarded UPDATE, so together they can never sell more than the stored stock.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.inventory.flush-interval=50"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class InventoryServiceImplTest {
+
+    @TestConfiguration
+    static class Caches {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<InventoryServiceImpl> nodes = new ArrayList<>();
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("electronics");
+        Product product = new Product();
+        product.setName("console");
+        product.setPrice(499);
+        product.setContactEmail("support@example.com");
+        product.setQuantityAvailable(100);
+        product.setCategory(categoryRepository.save(category));
+        productId = productRepository.save(product).getId();
+        nodes.add(beanFactory.createBean(InventoryServiceImpl.class));
+        nodes.add(beanFactory.createBean(InventoryServiceImpl.class));
+    }
+
+    @AfterEach
+    void cleanUp() throws InterruptedException {
+        for (InventoryServiceImpl node : nodes) {
+            node.destroy();
+        }
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void twoNodesNeverSellMoreThanTheStoredStock() throws InterruptedException {
+        int threads = 8;
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            InventoryServiceImpl node = nodes.get(t % 2);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    while (true) {
+                        InventoryReservation reservation = node.reserve(productId, 3);
+                        node.commit(reservation.getId());
+                        sold.addAndGet(reservation.getQuantity());
+                    }
+                } catch (InsufficientStockException | InterruptedException soldOut) {
+                    // done
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(99, sold.get()); // 33 reservations of 3; the last unit is too few for a fourth
+        assertEquals(1, storedQuantity());
+        assertEquals(1, nodes.get(0).getLevel(productId).getAvailable());
+    }
+
+    @Test
+    void releasedUnitsGoBackToTheDatabase() throws InterruptedException {
+        InventoryServiceImpl node = nodes.get(0);
+        InventoryReservation reservation = node.reserve(productId, 40);
+        assertEquals(60, storedQuantity());
+
+        node.release(reservation.getId());
+        assertEquals(40, node.getLevel(productId).getPendingWriteBack());
+        for (int i = 0; i < 100 && storedQuantity() != 100; i++) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(100, storedQuantity());
+        assertEquals(100, node.getLevel(productId).getAvailable());
+        assertThrows(ResourceNotFoundException.class, () -> node.commit(reservation.getId()));
+    }
+
+    @Test
+    void reservationIsUnknownOnTheOtherNode() {
+        InventoryReservation reservation = nodes.get(0).reserve(productId, 1);
+
+        assertThrows(ResourceNotFoundException.class, () -> nodes.get(1).commit(reservation.getId()));
+        assertEquals(99, storedQuantity());
+    }
+
+    @Test
+    void restockIsBoundedAndLeavesTheStockAloneWhenRefused() {
+        InventoryServiceImpl node = nodes.get(0);
+
+        assertEquals(1000, node.restock(productId, 900).getAvailable());
+        assertThrows(InvalidRequestException.class, () -> node.restock(productId, 1));
+        assertThrows(InvalidRequestException.class, () -> node.restock(productId, 0));
+        assertThrows(InvalidRequestException.class, () -> node.restock(productId, Integer.MAX_VALUE));
+        assertThrows(InvalidRequestException.class, () -> node.restock(productId, -5));
+
+        assertEquals(1000, storedQuantity());
+    }
+
+    @Test
+    void unknownProduct() {
+        InventoryServiceImpl node = nodes.get(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> node.reserve(productId + 1, 1));
+        assertThrows(ResourceNotFoundException.class, () -> node.restock(productId + 1, 1));
+        assertThrows(ResourceNotFoundException.class, () -> node.getLevel(productId + 1));
+    }
+
+    private int storedQuantity() {
+        return jdbcTemplate.queryForObject("SELECT quantity_available FROM product WHERE id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetCursorTest {
+
+    @Test
+    void roundTripsEverySupportedField() {
+        assertRoundTrip("id", 42L);
+        assertRoundTrip("price", 499.99);
+        assertRoundTrip("name", "Phone | 5G, 128 GB"); // the separator inside the value is kept
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String token = KeysetCursor.after(new ProductRepository.SeekKey("???>>>", 1L), "name", Sort.Direction.ASC).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void tamperedCursorsAreRejected() {
+        assertMalformed("not base64!");
+        assertMalformed(raw("v2|price|ASC|1|10.0"));              // unknown version
+        assertMalformed(raw("v1|quantityAvailable|ASC|1|10"));    // not a keyset field
+        assertMalformed(raw("v1|description|ASC|1|x"));
+        assertMalformed(raw("v1|price|SIDEWAYS|1|10.0"));
+        assertMalformed(raw("v1|price|ASC|one|10.0"));
+        assertMalformed(raw("v1|price|ASC|1|cheap"));
+        assertMalformed(raw("v1|price|ASC|1"));                   // missing value
+    }
+
+    private static void assertRoundTrip(String field, Object value) {
+        String token = KeysetCursor.after(new ProductRepository.SeekKey(value, 7L), field, Sort.Direction.DESC).encode();
+
+        KeysetCursor decoded = KeysetCursor.decode(token);
+
+        assertEquals(field, decoded.getSortField());
+        assertEquals(Sort.Direction.DESC, decoded.getDirection());
+        assertEquals(7L, decoded.getLastId());
+        assertEquals(value, decoded.getLastValue());
+    }
+
+    private static void assertMalformed(String token) {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class, () -> KeysetCursor.decode(token));
+        assertEquals("Malformed cursor", ex.getMessage());
+    }
+
+    private static String raw(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+}
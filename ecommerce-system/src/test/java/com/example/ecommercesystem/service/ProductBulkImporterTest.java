@@ -0,0 +1,175 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.cache.ProductListCache;
+import com.example.ecommercesystem.dto.ProductImportReport;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryProductCountRepository;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import com.example.ecommercesystem.repository.ProductRepository;
+import com.example.ecommercesystem.search.ProductIndexes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Export → import round trip into H2 (MySQL mode, for the counter upsert): every format
+ * re-imports as is, invalid rows are reported by row number and skipped.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulkimport;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.import.chunk-size=3"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductBulkImporter.class, CategoryCounters.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductBulkImporterTest {
+
+    private static final List<String> NAMES = Arrays.asList(
+            "Laptop, 15 inch", "The \"Pro\" model", "two\nlines", "plain", "\"quoted\", with comma");
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @MockBean
+    private ProductListCache productListCache;
+
+    @MockBean
+    private ProductIndexes productIndexes;
+
+    @Autowired
+    private ProductBulkImporter importer;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryProductCountRepository countRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+        countRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void csvExportReimportsAsIs() throws IOException {
+        assertReimports(ProductExportFormat.CSV);
+    }
+
+    @Test
+    void ndjsonExportReimportsAsIs() throws IOException {
+        assertReimports(ProductExportFormat.NDJSON);
+    }
+
+    @Test
+    void invalidRowsAreReportedAndSkipped() {
+        String csv = "name,price,contactEmail,categoryName\r\n"
+                + "ok,10,support@example.com,phones\r\n"
+                + ",10,support@example.com,phones\r\n"              // blank name
+                + "bad price,ten,support@example.com,phones\r\n"
+                + "no category,10,support@example.com,\r\n"
+                + "\"also, ok\",20,support@example.com,phones\r\n";
+
+        ProductImportReport report = importer.importProducts(stream(csv), ProductExportFormat.CSV);
+
+        assertEquals(2, report.getAccepted());
+        assertEquals(3, report.getRejected());
+        assertEquals(2, report.getChunks().size());
+        List<String> errors = report.getChunks().stream()
+                .flatMap(chunk -> chunk.getErrors().stream()).collect(Collectors.toList());
+        assertEquals(3, errors.size());
+        assertTrue(errors.get(0).startsWith("row 2: name"), errors.get(0));
+        assertTrue(errors.get(1).startsWith("row 3: "), errors.get(1));
+        assertEquals("row 4: categoryId or categoryName is required", errors.get(2));
+        assertEquals(Arrays.asList("also, ok", "ok"), names());
+    }
+
+    private void assertReimports(ProductExportFormat format) throws IOException {
+        List<Product> exported = NAMES.stream().map(this::product).collect(Collectors.toList());
+
+        ProductImportReport report = importer.importProducts(stream(export(format, exported)), format);
+
+        assertEquals(NAMES.size(), report.getAccepted());
+        assertEquals(0, report.getRejected());
+        assertEquals(2, report.getChunks().size()); // chunks of 3
+        assertEquals(NAMES.stream().sorted().collect(Collectors.toList()), names());
+        Category category = categoryRepository.findByName("Phones, tablets");
+        assertNotNull(category);
+        assertEquals(1, categoryRepository.count()); // created once, shared by both chunks
+        verify(productListCache).onProductSaved(true);
+    }
+
+    private String export(ProductExportFormat format, List<Product> products) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ProductExportWriter writer = ProductExportWriter.create(format, out, objectMapper.getFactory())) {
+            for (Product product : products) {
+                writer.write(product);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private Product product(String name) {
+        Category category = new Category();
+        category.setName("Phones, tablets"); // no id: the import creates it by name
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("about " + name);
+        product.setPrice(99.5);
+        product.setContactEmail("support@example.com");
+        product.setStatus(Product.AvailabilityStatus.IN_STOCK);
+        product.setCategory(category);
+        return product;
+    }
+
+    private List<String> names() {
+        return productRepository.findAll().stream().map(Product::getName).sorted().collect(Collectors.toList());
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.cache.ProductListCache;
+import com.example.ecommercesystem.config.ReplicaRoutingDataSource;
+import com.example.ecommercesystem.dto.ProductSummary;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import com.example.ecommercesystem.repository.ProductRepository;
+import com.example.ecommercesystem.search.ProductAutocomplete;
+import com.example.ecommercesystem.search.ProductFacetIndex;
+import com.example.ecommercesystem.search.ProductIndexes;
+import com.example.ecommercesystem.search.ProductPriceIndex;
+import com.example.ecommercesystem.search.ProductSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * ProductServiceImpl over a primary and a lagging replica (two H2 databases). The replica is
+ * "replicated" by replaying the primary's SCRIPT output, so it holds exactly the rows the
+ * primary had at that moment.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductServiceImpl.class, ProductListCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductCacheReplicaReadTest {
+
+    private static final String REPLICA = "replica-1";
+
+    @TestConfiguration
+    @EnableCaching
+    static class Databases {
+        @Bean
+        DriverManagerDataSource primaryDatabase() {
+            return database("primary");
+        }
+
+        @Bean
+        DriverManagerDataSource replicaDatabase() {
+            return database("replica");
+        }
+
+        @Bean
+        ReplicaRoutingDataSource replicaRoutingDataSource() {
+            return new ReplicaRoutingDataSource(primaryDatabase(),
+                    Collections.singletonMap(REPLICA, replicaDatabase()), new SimpleMeterRegistry());
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource() {
+            return new LazyConnectionDataSourceProxy(replicaRoutingDataSource());
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+
+        private static DriverManagerDataSource database(String name) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:replicaread_" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+            dataSource.setDriverClassName("org.h2.Driver");
+            return dataSource;
+        }
+    }
+
+    @MockBean private ProductBulkImporter productBulkImporter;
+    @MockBean private ProductWriteBehind productWriteBehind;
+    @MockBean private ProductSearchIndex productSearchIndex;
+    @MockBean private ProductAutocomplete productAutocomplete;
+    @MockBean private ProductFacetIndex productFacetIndex;
+    @MockBean private ProductPriceIndex productPriceIndex;
+    @MockBean private ProductIndexes productIndexes;
+    @MockBean private CategoryCounters categoryCounters;
+    @MockBean private InventoryService inventoryService;
+    @MockBean private ProductProcessingPipeline productProcessingPipeline;
+    @MockBean private ProductJobService productJobService;
+    @MockBean private ExecutorService executorService;
+    @MockBean private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ReplicaRoutingDataSource routing;
+
+    @Autowired
+    private DriverManagerDataSource primaryDatabase;
+
+    @Autowired
+    private DriverManagerDataSource replicaDatabase;
+
+    private Product laptop;
+
+    @BeforeEach
+    void setUp() {
+        when(categoryCounters.deltas()).thenReturn(new CategoryCounters().deltas());
+        Category category = new Category();
+        category.setName("electronics");
+        category = categoryRepository.save(category);
+        laptop = new Product();
+        laptop.setName("laptop");
+        laptop.setPrice(1200);
+        laptop.setContactEmail("support@example.com");
+        laptop.setCategory(category);
+        laptop = productRepository.save(laptop);
+
+        replicate();
+        routing.setAvailable(Collections.singletonList(REPLICA));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        routing.setAvailable(Collections.emptyList());
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void readRightAfterAWriteDoesNotCacheTheReplicasOldRow() {
+        laptop.setPrice(999);
+        productService.saveProduct(laptop); // the replica has not caught up yet
+        cacheManager.getCache(ProductListCache.PRODUCT).evict(laptop.getId()); // e.g. expired meanwhile
+
+        assertEquals(999, productService.getProductById(laptop.getId()).getPrice());
+        assertEquals(999, cachedPrice());
+        assertEquals(999, productService.getProductsByIds(Collections.singletonList(laptop.getId())).get(0).getPrice());
+        assertEquals(999, productService.getAllProducts().get(0).getPrice());
+    }
+
+    @Test
+    void uncachedReadOnlyReadsStillUseTheReplica() {
+        new JdbcTemplate(primaryDatabase).update("UPDATE product SET price = 999 WHERE id = ?", laptop.getId());
+
+        List<ProductSummary> summaries = productService.getProductSummaries();
+
+        assertEquals(1200, summaries.get(0).getPrice()); // the replica's row
+        assertEquals(999, productService.getProductById(laptop.getId()).getPrice());
+    }
+
+    private double cachedPrice() {
+        return cacheManager.getCache(ProductListCache.PRODUCT).get(laptop.getId(), Product.class).getPrice();
+    }
+
+    private void replicate() {
+        JdbcTemplate replica = new JdbcTemplate(replicaDatabase);
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : new JdbcTemplate(primaryDatabase).queryForList("SCRIPT", String.class)) {
+            replica.execute(statement);
+        }
+    }
+}
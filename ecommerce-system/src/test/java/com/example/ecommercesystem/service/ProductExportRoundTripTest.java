@@ -0,0 +1,122 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ProductExportWriter output read back by ProductImportReader: every format must re-import
+ * as is, whatever the names and descriptions contain. The output of each format on its own is
+ * covered by ProductExportWriterTest.
+ */
+public class ProductExportRoundTripTest {
+
+    private static final List<String> AWKWARD_NAMES = Arrays.asList(
+            "Laptop, 15 inch",
+            "The \"Pro\" model",
+            "two\nlines",
+            "windows\r\nline break",
+            "\"quoted\", with comma",
+            "plain");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void csvRoundTripsAwkwardText() throws IOException {
+        assertRoundTrip(ProductExportFormat.CSV);
+    }
+
+    @Test
+    void ndjsonRoundTripsAwkwardText() throws IOException {
+        assertRoundTrip(ProductExportFormat.NDJSON);
+    }
+
+    @Test
+    void emptyExportReimportsAsNothing() throws IOException {
+        for (ProductExportFormat format : ProductExportFormat.values()) {
+            assertTrue(read(format, export(format)).isEmpty(), format.name());
+        }
+    }
+
+    private void assertRoundTrip(ProductExportFormat format) throws IOException {
+        List<Product> products = new ArrayList<>();
+        long id = 1;
+        for (String name : AWKWARD_NAMES) {
+            products.add(product(id++, name, name + " - description"));
+        }
+        products.add(product(id, "no description", null));
+
+        List<Map<String, String>> rows = read(format, export(format, products.toArray(new Product[0])));
+
+        assertEquals(products.size(), rows.size());
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            Map<String, String> row = rows.get(i);
+            assertEquals(Arrays.asList(ProductExportWriter.COLUMNS), new ArrayList<>(row.keySet()));
+            assertEquals(String.valueOf(product.getId()), row.get("id"));
+            assertEquals(product.getName(), row.get("name"));
+            assertEquals(product.getDescription(), row.get("description"));
+            assertEquals(product.getPrice(), Double.parseDouble(row.get("price")));
+            assertEquals(0, product.getWeight().compareTo(new BigDecimal(row.get("weight"))));
+            assertEquals(product.getRegisteredTime().toInstant(), Instant.parse(row.get("registeredTime")));
+            assertEquals(product.getLaunchDate(), LocalDate.parse(row.get("launchDate")));
+            assertNull(row.get("expiryDate"));
+            assertEquals("IN_STOCK", row.get("status"));
+            assertEquals("3", row.get("categoryId"));
+            assertEquals("Phones, tablets", row.get("categoryName"));
+        }
+    }
+
+    private String export(ProductExportFormat format, Product... products) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ProductExportWriter writer = ProductExportWriter.create(format, out, objectMapper.getFactory())) {
+            for (Product product : products) {
+                writer.write(product);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private List<Map<String, String>> read(ProductExportFormat format, String exported) {
+        ProductImportReader reader = ProductImportReader.create(format,
+                new ByteArrayInputStream(exported.getBytes(StandardCharsets.UTF_8)), objectMapper);
+        List<Map<String, String>> rows = new ArrayList<>();
+        reader.forEachRemaining(rows::add);
+        return rows;
+    }
+
+    private static Product product(Long id, String name, String description) {
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Phones, tablets");
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(1299.5);
+        product.setRegisteredTime(Timestamp.from(Instant.parse("2021-01-02T03:04:05Z")));
+        product.setContactEmail("support@example.com");
+        product.setQuantityAvailable(5);
+        product.setWeight(new BigDecimal("1.25"));
+        product.setLaunchDate(LocalDate.of(2021, 3, 4));
+        product.setStatus(Product.AvailabilityStatus.IN_STOCK);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ProductExportWriter output: RFC 4180 CSV with a header row, and one typed JSON object per
+ * NDJSON line.
+ */
+public class ProductExportWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void csvQuotesOnlyWhatNeedsQuoting() throws IOException {
+        String csv = export(ProductExportFormat.CSV, product(1L, "Laptop, 15 inch", "The \"Pro\" model"));
+
+        String[] lines = csv.split("\r\n");
+        assertEquals(String.join(",", ProductExportWriter.COLUMNS), lines[0]);
+        assertTrue(lines[1].startsWith("1,\"Laptop, 15 inch\",\"The \"\"Pro\"\" model\",1299.5,"), lines[1]);
+        assertTrue(lines[1].endsWith(",IN_STOCK,3,\"Phones, tablets\""), lines[1]);
+    }
+
+    @Test
+    void ndjsonWritesOneTypedObjectPerLine() throws IOException {
+        Product withoutOptionals = product(2L, "phone", null);
+        withoutOptionals.setWeight(null);
+        withoutOptionals.setLaunchDate(null);
+
+        String ndjson = export(ProductExportFormat.NDJSON, product(1L, "two\nlines", "x"), withoutOptionals);
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length); // the newline inside the name is escaped
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(ProductExportWriter.COLUMNS.length, first.size());
+        assertTrue(first.get("id").isIntegralNumber());
+        assertTrue(first.get("price").isDouble());
+        assertEquals(new BigDecimal("1.25"), first.get("weight").decimalValue());
+        assertEquals("two\nlines", first.get("name").asText());
+        assertEquals("2021-03-04", first.get("launchDate").asText());
+        assertEquals("2021-01-02T03:04:05Z", first.get("registeredTime").asText());
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertTrue(second.get("description").isNull());
+        assertTrue(second.get("weight").isNull());
+        assertTrue(second.get("launchDate").isNull());
+    }
+
+    @Test
+    void emptyExportIsOnlyTheHeader() throws IOException {
+        assertEquals(String.join(",", ProductExportWriter.COLUMNS) + "\r\n", export(ProductExportFormat.CSV));
+        assertEquals("", export(ProductExportFormat.NDJSON));
+    }
+
+    private String export(ProductExportFormat format, Product... products) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ProductExportWriter writer = ProductExportWriter.create(format, out, objectMapper.getFactory())) {
+            for (Product product : products) {
+                writer.write(product);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Product product(Long id, String name, String description) {
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Phones, tablets");
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(1299.5);
+        product.setRegisteredTime(Timestamp.from(Instant.parse("2021-01-02T03:04:05Z")));
+        product.setContactEmail("support@example.com");
+        product.setQuantityAvailable(5);
+        product.setWeight(new BigDecimal("1.25"));
+        product.setLaunchDate(LocalDate.of(2021, 3, 4));
+        product.setStatus(Product.AvailabilityStatus.IN_STOCK);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.cache.ProductListCache;
+import com.example.ecommercesystem.dto.ProductImportReport;
+import com.example.ecommercesystem.repository.CategoryProductCountRepository;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import com.example.ecommercesystem.repository.ProductRepository;
+import com.example.ecommercesystem.search.ProductIndexes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The bulk import must batch its INSERTs: with the batch size and sequence allocation from
+ * application.properties (100 each), 250 rows in one chunk cost a handful of statements,
+ * not one per row. Counted with Hibernate statistics on H2; a JDBC batch is one prepared statement.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importbatching;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.import.chunk-size=250"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductBulkImporter.class, CategoryCounters.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductImportBatchingTest {
+
+    private static final int ROWS = 250;
+
+    @TestConfiguration
+    static class Beans {
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @MockBean
+    private ProductListCache productListCache;
+
+    @MockBean
+    private ProductIndexes productIndexes;
+
+    @Autowired
+    private ProductBulkImporter importer;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryProductCountRepository countRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+        countRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void insertsAreBatched() {
+        StringBuilder csv = new StringBuilder("name,price,contactEmail,categoryName\r\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("product-").append(i).append(",10,support@example.com,phones\r\n");
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ProductImportReport report = importer.importProducts(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), ProductExportFormat.CSV);
+
+        assertEquals(ROWS, report.getAccepted());
+        assertEquals(ROWS + 1, statistics.getEntityInsertCount()); // + the "phones" category
+        // 3 INSERT batches (100, 100, 50) + 3 sequence calls + the category lookup and insert;
+        // without batching this would be over 250
+        assertTrue(statistics.getPrepareStatementCount() <= 10,
+                "statements prepared: " + statistics.getPrepareStatementCount());
+        assertEquals(ROWS, productRepository.count());
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.ProductJob;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.exception.ResourceNotFoundException;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import com.example.ecommercesystem.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Jobs against H2 with one job running and one waiting at most. Jobs run on their own threads,
+ * so the tests run without a surrounding transaction and poll for the expected state.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productjobs;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.processing.chunk-size=5",
+        "app.processing.workers=2",
+        "app.jobs.max-running=1",
+        "app.jobs.max-queued=1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductJobServiceImpl.class, ProductProcessingPipeline.class, ProductJobServiceTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductJobServiceTest {
+
+    private static final int PRODUCTS = 23;
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private ProductJobService jobService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("phones");
+        categoryRepository.save(category);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("product-" + i);
+            product.setPrice(10 + i);
+            product.setContactEmail("support@example.com");
+            product.setCategory(category);
+            productRepository.save(product);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() throws InterruptedException {
+        release.countDown();
+        for (ProductJob job : jobService.getJobs()) {
+            jobService.cancel(job.getId());
+            awaitFinished(job.getId());
+        }
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void completedJobResultsArePaged() throws InterruptedException {
+        ProductJob submitted = jobService.submit(Product::getName);
+        assertNotNull(submitted.getId());
+
+        ProductJob job = awaitFinished(submitted.getId());
+        assertEquals(ProductJob.Status.COMPLETED, job.getStatus());
+        assertEquals(PRODUCTS, job.getTotal());
+        assertEquals(PRODUCTS, job.getProcessed());
+        assertEquals(PRODUCTS, job.getResults());
+
+        Page<String> last = jobService.getResults(job.getId(), 2, 10);
+        assertEquals(PRODUCTS, last.getTotalElements());
+        assertEquals(3, last.getContent().size());
+        assertTrue(last.isLast());
+        assertTrue(last.getContent().get(0).startsWith("product-"));
+    }
+
+    @Test
+    void runningJobCanBeCancelled() throws InterruptedException {
+        ProductJob submitted = jobService.submit(this::blocked);
+        awaitStatus(submitted.getId(), ProductJob.Status.RUNNING);
+
+        jobService.cancel(submitted.getId());
+        release.countDown();
+
+        ProductJob job = awaitFinished(submitted.getId());
+        assertEquals(ProductJob.Status.CANCELLED, job.getStatus());
+        assertTrue(job.getProcessed() < PRODUCTS);
+        assertEquals(job.getProcessed(), jobService.getResults(job.getId(), 0, 100).getTotalElements());
+    }
+
+    @Test
+    void jobsBeyondTheCapWaitAndThenAreRejected() throws InterruptedException {
+        ProductJob running = jobService.submit(this::blocked);
+        awaitStatus(running.getId(), ProductJob.Status.RUNNING);
+        ProductJob waiting = jobService.submit(Product::getName);
+        assertEquals(ProductJob.Status.QUEUED, jobService.getJob(waiting.getId()).getStatus());
+
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(Product::getName));
+
+        // Cancelling the waiting job frees its place
+        assertEquals(ProductJob.Status.CANCELLED, jobService.cancel(waiting.getId()).getStatus());
+        ProductJob next = jobService.submit(Product::getName);
+
+        release.countDown();
+        assertEquals(ProductJob.Status.COMPLETED, awaitFinished(running.getId()).getStatus());
+        assertEquals(ProductJob.Status.COMPLETED, awaitFinished(next.getId()).getStatus());
+        assertEquals(0, jobService.getJob(waiting.getId()).getProcessed());
+    }
+
+    @Test
+    void unknownJobIsNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> jobService.getJob("missing"));
+        assertThrows(InvalidRequestException.class, () -> jobService.getResults("missing", 0, 0));
+    }
+
+    private String blocked(Product product) {
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return product.getName();
+    }
+
+    private ProductJob awaitStatus(String id, ProductJob.Status status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        ProductJob job = jobService.getJob(id);
+        while (job.getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = jobService.getJob(id);
+        }
+        assertEquals(status, job.getStatus());
+        return job;
+    }
+
+    private ProductJob awaitFinished(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        ProductJob job = jobService.getJob(id);
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = jobService.getJob(id);
+        }
+        assertNotNull(job.getFinishedAt(), "job " + id + " did not finish");
+        return job;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.dto.ProductProcessingReport;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import com.example.ecommercesystem.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pipeline runs against H2 with chunks of 3, a queue of 1 chunk and 2 workers, on a shared pool sized
+ * for two runs (one /process run plus one job) of 3 threads each. The reader uses its own
+ * transactions, so the tests run without a surrounding one and clean up after themselves.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pipeline;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.processing.chunk-size=3",
+        "app.processing.queue-capacity=1",
+        "app.processing.workers=2",
+        "app.jobs.max-running=1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductProcessingPipeline.class, ProductProcessingPipelineTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductProcessingPipelineTest {
+
+    private static final int PRODUCTS = 30;
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private ProductProcessingPipeline pipeline;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private long maxId;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("phones");
+        categoryRepository.save(category);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("product-" + i);
+            product.setPrice(10 + i);
+            product.setContactEmail("support@example.com");
+            product.setCategory(category);
+            maxId = Math.max(maxId, productRepository.save(product).getId());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void processesEveryProductOnceAndAcknowledgesEveryChunk() throws Exception {
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+
+        ProductProcessingReport report = pipeline.start(product -> {
+            assertEquals("phones", product.getCategory().getName()); // loaded with the chunk
+            assertTrue(seen.add(product.getId()));
+        }).completion().get(10, TimeUnit.SECONDS);
+
+        assertEquals(PRODUCTS, seen.size());
+        assertFalse(report.isRunning());
+        assertEquals(PRODUCTS, report.getTotal());
+        assertEquals(PRODUCTS, report.getItemsRead());
+        assertEquals(PRODUCTS, report.getItemsProcessed());
+        assertEquals(PRODUCTS / 3, report.getChunksAcknowledged());
+        assertEquals(maxId, report.getCheckpointId());
+        assertNull(report.getError());
+        assertNotNull(meterRegistry.get("product.pipeline.queue.depth").gauge());
+        assertTrue(meterRegistry.get("product.pipeline.stage.latency").tag("stage", "process").timer().count() >= PRODUCTS / 3);
+    }
+
+    @Test
+    void failingProductDoesNotStopItsChunk() throws Exception {
+        ProductProcessingReport report = pipeline.start(product -> {
+            if (product.getId() == maxId - 1) {
+                throw new IllegalStateException("bad product");
+            }
+        }).completion().get(10, TimeUnit.SECONDS);
+
+        assertEquals(PRODUCTS - 1, report.getItemsProcessed());
+        assertEquals(1, report.getItemsFailed());
+        assertEquals(maxId, report.getCheckpointId());
+    }
+
+    @Test
+    void readerWaitsForTheWorkers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ProductProcessingPipeline.Run run = pipeline.start(product -> await(release));
+
+        // Both workers hold a chunk, one waits in the queue, the reader blocks with the next
+        awaitQueuedChunk();
+        ProductProcessingReport status = run.report();
+        assertTrue(status.isRunning());
+        assertEquals(0, status.getChunksAcknowledged());
+        assertTrue(status.getItemsRead() <= 4 * 3, "read " + status.getItemsRead());
+
+        release.countDown();
+        assertEquals(PRODUCTS, run.completion().get(10, TimeUnit.SECONDS).getItemsProcessed());
+    }
+
+    @Test
+    void cancelledRunStopsReadingAndDoesNotAcknowledgeSkippedProducts() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ProductProcessingPipeline.Run run = pipeline.start(product -> await(release));
+        awaitQueuedChunk();
+
+        run.cancel();
+        release.countDown();
+        ProductProcessingReport report = run.completion().get(10, TimeUnit.SECONDS);
+
+        assertTrue(report.isCancelled());
+        assertEquals(2, report.getItemsProcessed()); // the product each worker was on
+        assertEquals(0, report.getChunksAcknowledged());
+        assertNull(report.getCheckpointId());
+        assertTrue(report.getItemsRead() < PRODUCTS);
+    }
+
+    @Test
+    void runsShareABoundedPoolAndARunBeyondItWaitsForThreads() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<ProductProcessingPipeline.Run> runs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            runs.add(pipeline.start(product -> await(release)));
+        }
+        awaitQueuedChunk();
+
+        assertEquals(6, pipelineThreads());
+        release.countDown();
+        for (ProductProcessingPipeline.Run run : runs) {
+            assertEquals(PRODUCTS, run.completion().get(10, TimeUnit.SECONDS).getItemsProcessed());
+        }
+        assertEquals(6, pipelineThreads());
+    }
+
+    private static long pipelineThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("product-pipeline-"))
+                .count();
+    }
+
+    private void awaitQueuedChunk() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("product.pipeline.queue.depth").gauge().value() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
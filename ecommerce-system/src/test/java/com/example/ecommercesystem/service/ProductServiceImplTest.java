@@ -0,0 +1,244 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.cache.ProductListCache;
+import com.example.ecommercesystem.dto.KeysetPage;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.ProductRepository;
+import com.example.ecommercesystem.search.ProductIndexes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batch lookup limits, keyset paging, the after-commit side effects of writes and rejected executor
+ * submits over mocked collaborators (transaction synchronization driven by hand); the hydration
+ * itself is covered by ProductListCacheTest, the seek query by ProductSpecificationsTest.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductServiceImplTest {
+
+    @Mock
+    private ProductListCache productListCache;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CategoryCounters categoryCounters;
+
+    @Mock
+    private ProductIndexes productIndexes;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private ExecutorService executorService;
+
+    @InjectMocks
+    private ProductServiceImpl productService;
+
+    @Test
+    void batchDelegatesToHydrate() {
+        Product product = new Product();
+        product.setId(7L);
+        when(productListCache.hydrate(Arrays.asList(7L, 8L))).thenReturn(Collections.singletonList(product));
+
+        assertEquals(Collections.singletonList(product), productService.getProductsByIds(Arrays.asList(7L, 8L)));
+    }
+
+    @Test
+    void batchAcceptsTheLimitAndRejectsMore() {
+        when(productListCache.hydrate(anyList())).thenReturn(Collections.emptyList());
+        assertTrue(productService.getProductsByIds(ids(500)).isEmpty());
+
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class,
+                () -> productService.getProductsByIds(ids(501)));
+        assertEquals("At most 500 ids per batch request, got 501", ex.getMessage());
+    }
+
+    @Test
+    void rejectedBatchDoesNotTouchTheCache() {
+        assertThrows(InvalidRequestException.class, () -> productService.getProductsByIds(ids(501)));
+        verify(productListCache, never()).hydrate(anyList());
+    }
+
+    @Test
+    void keysetCursorComesFromTheQueryNotFromTheCachedProduct() {
+        Sort.Order byPrice = Sort.Order.desc("price");
+        when(productRepository.findKeysAfter(null, "price", Sort.Direction.DESC, null, null, 3)).thenReturn(Arrays.asList(
+                new ProductRepository.SeekKey(900.0, 4L), new ProductRepository.SeekKey(800.0, 2L),
+                new ProductRepository.SeekKey(700.0, 9L)));
+        Product stale = product(2L, 950.0); // cached before a price change
+        when(productListCache.hydrate(Arrays.asList(4L, 2L))).thenReturn(Arrays.asList(product(4L, 900.0), stale));
+
+        KeysetPage<Product> page = productService.getProductsKeyset(byPrice, 2, null, false);
+
+        assertTrue(page.isHasNext());
+        KeysetCursor next = KeysetCursor.decode(page.getNextCursor());
+        assertEquals(2L, next.getLastId());
+        assertEquals(800.0, next.getLastValue());
+
+        when(productRepository.findKeysAfter(null, "price", Sort.Direction.DESC, 800.0, 2L, 3))
+                .thenReturn(Collections.singletonList(new ProductRepository.SeekKey(700.0, 9L)));
+        when(productListCache.hydrate(Collections.singletonList(9L))).thenReturn(Collections.singletonList(product(9L, 700.0)));
+
+        KeysetPage<Product> last = productService.getProductsKeyset(byPrice, 2, page.getNextCursor(), false);
+
+        assertFalse(last.isHasNext());
+        assertNull(last.getNextCursor());
+        assertEquals(1, last.getContent().size());
+    }
+
+    @Test
+    void keysetRejectsACursorOfAnotherSortAndUnindexedFields() {
+        String byName = KeysetCursor.after(new ProductRepository.SeekKey("Laptop", 3L), "name", Sort.Direction.ASC).encode();
+
+        assertThrows(InvalidRequestException.class,
+                () -> productService.getProductsKeyset(Sort.Order.asc("price"), 2, byName, false));
+        assertThrows(InvalidRequestException.class,
+                () -> productService.getProductsKeyset(Sort.Order.asc("quantityAvailable"), 2, null, false));
+    }
+
+    @Test
+    void updateChangingStockIsRejectedBeforeAnyWrite() {
+        ProductRepository.StoredState stored = mock(ProductRepository.StoredState.class);
+        when(stored.getId()).thenReturn(5L);
+        when(stored.getQuantityAvailable()).thenReturn(7);
+        when(productRepository.findStoredState(5L)).thenReturn(Optional.of(stored));
+        Product update = product(5L, 10.0);
+        update.setQuantityAvailable(3);
+
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class, () -> productService.saveProduct(update));
+
+        assertEquals("quantityAvailable of product 5 is 7, got 3: stock changes go through /api/inventory", ex.getMessage());
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void deleteTouchesCachesIndexesAndStockOnlyAfterCommit() {
+        ProductRepository.StoredState stored = mock(ProductRepository.StoredState.class);
+        when(productRepository.findStoredState(5L)).thenReturn(Optional.of(stored));
+        when(categoryCounters.deltas()).thenReturn(new CategoryCounters().deltas());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.deleteProduct(5L);
+            verify(productRepository).deleteById(5L);
+            verifyNoInteractions(productListCache, productIndexes, inventoryService);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(productListCache).onProductDeleted();
+        verify(productIndexes).onDeleted(5L);
+        verify(inventoryService).onProductDeleted(5L);
+    }
+
+    @Test
+    void rolledBackSaveLeavesCachesAndIndexesAlone() {
+        Product product = product(null, 10.0);
+        Product saved = product(6L, 10.0);
+        Category category = new Category();
+        category.setId(2L);
+        saved.setCategory(category);
+        when(productRepository.save(product)).thenReturn(saved);
+        when(categoryCounters.deltas()).thenReturn(new CategoryCounters().deltas());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            productService.saveProduct(product);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verifyNoInteractions(productListCache, productIndexes);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectedSubmitCancelsTheTasksAlreadySubmitted() {
+        when(productRepository.findAll()).thenReturn(Arrays.asList(product(1L, 10.0), product(2L, 20.0), product(3L, 30.0)));
+        Future<String> first = mock(Future.class);
+        Future<String> second = mock(Future.class);
+        when(executorService.submit(any(Callable.class)))
+                .thenReturn(first, second)
+                .thenThrow(new RejectedExecutionException("full"));
+
+        assertThrows(RejectedExecutionException.class, () -> productService.processProductsWithFutures());
+
+        verify(first).cancel(true);
+        verify(second).cancel(true);
+    }
+
+    @Test
+    void rejectedAsyncSupplyCancelsTheFuturesAlreadyStarted() {
+        AtomicInteger detailsBuilt = new AtomicInteger();
+        Product counting = new Product() {
+            @Override
+            public String toString() { // what getProductDetails does
+                detailsBuilt.incrementAndGet();
+                return "details";
+            }
+        };
+        when(productRepository.findAll()).thenReturn(Arrays.asList(counting, product(2L, 20.0)));
+        List<Runnable> accepted = new ArrayList<>();
+        doAnswer(invocation -> {
+            if (!accepted.isEmpty()) {
+                throw new RejectedExecutionException("full");
+            }
+            accepted.add(invocation.getArgument(0));
+            return null;
+        }).when(executorService).execute(any(Runnable.class));
+
+        assertThrows(RejectedExecutionException.class, () -> productService.processProductsWithCF());
+
+        accepted.get(0).run(); // the queued task finally gets a thread: its future is cancelled, it does no work
+        assertEquals(0, detailsBuilt.get());
+    }
+
+    private static Product product(Long id, double price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setPrice(price);
+        return product;
+    }
+
+    private static List<Long> ids(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.ecommercesystem.service;
+
+import com.example.ecommercesystem.cache.ProductListCache;
+import com.example.ecommercesystem.exception.InvalidRequestException;
+import com.example.ecommercesystem.exception.ResourceNotFoundException;
+import com.example.ecommercesystem.model.Category;
+import com.example.ecommercesystem.model.Product;
+import com.example.ecommercesystem.repository.CategoryProductCountRepository;
+import com.example.ecommercesystem.repository.CategoryRepository;
+import com.example.ecommercesystem.repository.ProductRepository;
+import com.example.ecommercesystem.search.ProductIndexes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Write-behind against H2 (MySQL mode). The flusher writes from its own thread and transaction,
+ * so the tests run without a surrounding transaction and clean up after themselves.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:writebehind;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "app.write-behind.batch-size=2",
+        "app.write-behind.max-delay=300"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductWriteBehind.class, CategoryCounters.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductWriteBehindTest {
+
+    @Autowired
+    private ProductWriteBehind writeBehind;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryProductCountRepository countRepository;
+
+    @MockBean
+    private ProductListCache productListCache;
+
+    @MockBean
+    private ProductIndexes productIndexes;
+
+    @MockBean
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        countRepository.deleteAll();
+    }
+
+    @Test
+    void mergesUpdatesOfOneProductIntoOneWrite() throws Exception {
+        Category phones = category("phones");
+        Category tablets = category("tablets");
+        Product stored = productRepository.save(product(null, "v0", phones, Product.AvailabilityStatus.IN_STOCK));
+
+        CompletableFuture<Product> first = writeBehind.submit(product(stored.getId(), "v1", phones, Product.AvailabilityStatus.IN_STOCK));
+        CompletableFuture<Product> second = writeBehind.submit(product(stored.getId(), "v2", phones, Product.AvailabilityStatus.IN_STOCK));
+        CompletableFuture<Product> last = writeBehind.submit(product(stored.getId(), "v3", tablets, Product.AvailabilityStatus.OUT_OF_STOCK));
+
+        assertEquals("v3", first.get(5, TimeUnit.SECONDS).getName());
+        assertSame(first.get(), second.get());
+        assertSame(first.get(), last.get());
+
+        Product reloaded = productRepository.findById(stored.getId()).orElseThrow(AssertionError::new);
+        assertEquals("v3", reloaded.getName());
+        assertEquals(tablets.getId(), reloaded.getCategory().getId());
+        assertEquals(7, reloaded.getQuantityAvailable());
+
+        // one move phones/IN_STOCK → tablets/OUT_OF_STOCK, applied once
+        Map<String, Long> counts = new HashMap<>();
+        countRepository.findAllWithCategoryName().forEach(row ->
+                counts.put(row.getCategoryName() + "/" + row.getStatus(), row.getProductCount()));
+        assertEquals(Long.valueOf(-1), counts.get("phones/IN_STOCK"));
+        assertEquals(Long.valueOf(1), counts.get("tablets/OUT_OF_STOCK"));
+        verify(productListCache, times(1)).onProductSaved(false);
+    }
+
+    @Test
+    void loneUpdateIsWrittenAfterMaxDelay() throws Exception {
+        Category phones = category("phones");
+        Product stored = productRepository.save(product(null, "v0", phones, null));
+
+        long start = System.nanoTime();
+        Product written = writeBehind.submit(product(stored.getId(), "v1", phones, null)).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("v1", written.getName());
+        assertTrue(elapsedMillis >= 250, "written after " + elapsedMillis + " ms, before max-delay"); // 300 ms, clock slack
+        assertEquals("v1", productRepository.findById(stored.getId()).orElseThrow(AssertionError::new).getName());
+    }
+
+    @Test
+    void unknownProductFailsOnlyItsOwnCaller() throws Exception {
+        Category phones = category("phones");
+        Product stored = productRepository.save(product(null, "v0", phones, null));
+
+        CompletableFuture<Product> missing = writeBehind.submit(product(stored.getId() + 1000, "ghost", phones, null));
+        CompletableFuture<Product> existing = writeBehind.submit(product(stored.getId(), "renamed", phones, null));
+
+        assertEquals("renamed", existing.get(5, TimeUnit.SECONDS).getName());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof ResourceNotFoundException);
+    }
+
+    @Test
+    void changedStockFailsOnlyItsOwnCaller() throws Exception {
+        Category phones = category("phones");
+        Product stored = productRepository.save(product(null, "v0", phones, null));
+        Product other = productRepository.save(product(null, "other", phones, null));
+        Product restock = product(stored.getId(), "restocked", phones, null);
+        restock.setQuantityAvailable(99);
+
+        CompletableFuture<Product> rejected = writeBehind.submit(restock);
+        CompletableFuture<Product> accepted = writeBehind.submit(product(other.getId(), "renamed", phones, null));
+
+        assertEquals("renamed", accepted.get(5, TimeUnit.SECONDS).getName());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertEquals("quantityAvailable of product " + stored.getId() + " is 7, got 99: stock changes go through /api/inventory",
+                failure.getCause().getMessage());
+        assertTrue(failure.getCause() instanceof InvalidRequestException);
+        assertEquals("v0", productRepository.findById(stored.getId()).orElseThrow(AssertionError::new).getName());
+    }
+
+    @Test
+    void rejectsInserts() {
+        assertThrows(InvalidRequestException.class, () -> writeBehind.submit(product(null, "new", category("phones"), null)));
+    }
+
+    private Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return categoryRepository.save(category);
+    }
+
+    private static Product product(Long id, String name, Category category, Product.AvailabilityStatus status) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setContactEmail("support@example.com");
+        product.setQuantityAvailable(7); // updates carry the stored stock, see changedStockFailsOnlyItsOwnCaller
+        product.setStatus(status);
+        product.setCategory(category);
+        return product;
+    }
+}